@@ -1,6 +1,8 @@
 package com.marketplace.backend.config;
 
 import com.marketplace.backend.security.JwtAuthenticationFilter;
+import com.marketplace.backend.service.IdempotenciaService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -37,10 +39,16 @@ public class SecurityConfig {
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
             .authorizeHttpRequests(auth -> auth
+                // El redespacho ASYNC de StreamingResponseBody ya pasó la autorización en la petición original
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                
                 // Rutas públicas
                 .requestMatchers("/auth/**").permitAll()
                 .requestMatchers("/productos/publicos/**").permitAll()
+                .requestMatchers("/productos/buscar").permitAll()
+                .requestMatchers("/productos/trending").permitAll()
                 .requestMatchers("/productos/{id}").permitAll()
+                .requestMatchers("/productos/{id}/relacionados").permitAll()
                 .requestMatchers("/categorias/**").permitAll()
                 .requestMatchers("/resenas/**").permitAll()
                 
@@ -62,6 +70,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:4200"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList(IdempotenciaService.CABECERA_REPETIDA));
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -1,13 +1,16 @@
 package com.marketplace.backend.controller;
 
 import com.marketplace.backend.dto.ArtistaDTO;
+import com.marketplace.backend.dto.VersionRecursoDTO;
 import com.marketplace.backend.service.ArtistaService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -25,8 +28,14 @@ public class ArtistaController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ArtistaDTO> getArtistaById(@PathVariable Integer id) {
-        return ResponseEntity.ok(artistaService.getArtistaById(id));
+    public ResponseEntity<ArtistaDTO> getArtistaById(@PathVariable Integer id, WebRequest request) {
+        VersionRecursoDTO version = artistaService.getVersionArtista(id);
+        if (request.checkNotModified(version.getEtag(), version.getUltimaModificacion())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(artistaService.getArtistaById(id));
     }
 
     @GetMapping("/usuario/{usuarioId}")
@@ -1,7 +1,11 @@
 package com.marketplace.backend.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.marketplace.backend.dto.BilleteraDTO;
+import com.marketplace.backend.dto.MovimientoBilleteraDTO;
+import com.marketplace.backend.dto.PaginaCursorDTO;
 import com.marketplace.backend.service.BilleteraService;
+import com.marketplace.backend.service.IdempotenciaService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -20,6 +24,7 @@ import java.util.Map;
 public class BilleteraController {
 
     private final BilleteraService billeteraService;
+    private final IdempotenciaService idempotenciaService;
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('CLIENTE', 'ARTISTA', 'ADMIN')")
@@ -35,6 +40,16 @@ public class BilleteraController {
         return ResponseEntity.ok(billeteraService.getBilleteraByUsuarioId(usuarioId));
     }
 
+    @GetMapping("/usuario/{usuarioId}/movimientos")
+    @PreAuthorize("hasAnyRole('CLIENTE', 'ARTISTA', 'ADMIN')")
+    public ResponseEntity<PaginaCursorDTO<MovimientoBilleteraDTO>> getMovimientos(
+            @PathVariable Integer usuarioId,
+            @RequestParam(defaultValue = "20") int tamano,
+            @RequestParam(required = false) String cursor) {
+        log.info("Obteniendo movimientos de la billetera del usuario ID: {}", usuarioId);
+        return ResponseEntity.ok(billeteraService.getMovimientos(usuarioId, tamano, cursor));
+    }
+
     @PostMapping("/usuario/{usuarioId}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<BilleteraDTO> createBilletera(@PathVariable Integer usuarioId) {
@@ -47,7 +62,8 @@ public class BilleteraController {
     @PreAuthorize("hasAnyRole('CLIENTE', 'ARTISTA')")
     public ResponseEntity<BilleteraDTO> cargarSaldo(
             @PathVariable Integer usuarioId,
-            @RequestBody Map<String, BigDecimal> body) {
+            @RequestBody Map<String, BigDecimal> body,
+            @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String claveIdempotencia) {
         
         log.info("Cargando saldo (simulado) al usuario ID: {}", usuarioId);
         log.info("Body recibido: {}", body);
@@ -60,9 +76,17 @@ public class BilleteraController {
         }
         
         try {
-            BilleteraDTO resultado = billeteraService.cargarSaldo(usuarioId, monto);
-            log.info("Saldo cargado exitosamente. Nuevo saldo: {}", resultado.getSaldo());
-            return ResponseEntity.ok(resultado);
+            IdempotenciaService.Resultado<BilleteraDTO> resultado = idempotenciaService.ejecutar(
+                    usuarioId, claveIdempotencia, "carga", body, new TypeReference<>() {},
+                    () -> billeteraService.cargarSaldo(usuarioId, monto));
+            if (resultado.repetido()) {
+                log.info("Carga repetida, se devuelve la respuesta original");
+                return ResponseEntity.ok()
+                        .header(IdempotenciaService.CABECERA_REPETIDA, "true")
+                        .body(resultado.valor());
+            }
+            log.info("Saldo cargado exitosamente. Nuevo saldo: {}", resultado.valor().getSaldo());
+            return ResponseEntity.ok(resultado.valor());
         } catch (IllegalArgumentException e) {
             log.error("Error de validación: {}", e.getMessage());
             throw e;
@@ -1,13 +1,16 @@
 package com.marketplace.backend.controller;
 
 import com.marketplace.backend.dto.CategoriaDTO;
+import com.marketplace.backend.dto.VersionRecursoDTO;
 import com.marketplace.backend.service.CategoriaService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -20,13 +23,25 @@ public class CategoriaController {
     private final CategoriaService categoriaService;
 
     @GetMapping
-    public ResponseEntity<List<CategoriaDTO>> getAllCategorias() {
-        return ResponseEntity.ok(categoriaService.getAllCategorias());
+    public ResponseEntity<List<CategoriaDTO>> getAllCategorias(WebRequest request) {
+        VersionRecursoDTO version = categoriaService.getVersionCategorias();
+        if (request.checkNotModified(version.getEtag(), version.getUltimaModificacion())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(categoriaService.getAllCategorias());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CategoriaDTO> getCategoriaById(@PathVariable Integer id) {
-        return ResponseEntity.ok(categoriaService.getCategoriaById(id));
+    public ResponseEntity<CategoriaDTO> getCategoriaById(@PathVariable Integer id, WebRequest request) {
+        VersionRecursoDTO version = categoriaService.getVersionCategoria(id);
+        if (request.checkNotModified(version.getEtag(), version.getUltimaModificacion())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(categoriaService.getCategoriaById(id));
     }
 
     @PostMapping
@@ -1,17 +1,45 @@
 package com.marketplace.backend.controller;
 
+import com.marketplace.backend.dto.FiltroBusquedaDTO;
+import com.marketplace.backend.dto.ModeracionMasivaDTO;
+import com.marketplace.backend.dto.PaginaCursorDTO;
 import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.dto.ResultadoBusquedaDTO;
+import com.marketplace.backend.dto.ResultadoImportacionDTO;
+import com.marketplace.backend.dto.ResultadoModeracionDTO;
+import com.marketplace.backend.dto.TendenciaDTO;
+import com.marketplace.backend.dto.VersionRecursoDTO;
+import com.marketplace.backend.exception.BadRequestException;
+import com.marketplace.backend.service.CatalogoCursor;
+import com.marketplace.backend.service.ExportacionService;
+import com.marketplace.backend.service.FacetasService;
+import com.marketplace.backend.service.ImportacionService;
+import com.marketplace.backend.service.ModeracionService;
+import com.marketplace.backend.service.ProductoJsonCache;
 import com.marketplace.backend.service.ProductoService;
+import com.marketplace.backend.service.RecomendacionesService;
+import com.marketplace.backend.service.TendenciasService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -23,12 +51,35 @@ import java.util.Map;
 public class ProductoController {
 
     private final ProductoService productoService;
+    private final FacetasService facetasService;
+    private final ProductoJsonCache productoJsonCache;
+    private final ImportacionService importacionService;
+    private final ModeracionService moderacionService;
+    private final TendenciasService tendenciasService;
+    private final RecomendacionesService recomendacionesService;
+    private final ExportacionService exportacionService;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<ProductoDTO>> getAllProductos() {
+    public ResponseEntity<StreamingResponseBody> getAllProductos() {
         log.info("Obteniendo todos los productos (Admin)");
-        return ResponseEntity.ok(productoService.getAllProductos());
+        // Mismo array JSON de siempre, pero escrito fila a fila
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(salida -> exportacionService.exportarProductos(salida, ExportacionService.Formato.JSON));
+    }
+
+    @GetMapping("/exportar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportarProductos(
+            @RequestParam(defaultValue = "ndjson") String formato) {
+        ExportacionService.Formato tipo = ExportacionService.Formato.desde(formato);
+        log.info("Exportando productos en formato {}", tipo);
+        return ResponseEntity.ok()
+                .contentType(tipo.getTipo())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("productos." + tipo.getExtension()).build().toString())
+                .body(salida -> exportacionService.exportarProductos(salida, tipo));
     }
 
     @GetMapping("/publicos")
@@ -37,15 +88,73 @@ public class ProductoController {
         return ResponseEntity.ok(productoService.getProductosPublicados());
     }
 
+    @GetMapping("/publicos/pagina")
+    public ResponseEntity<PaginaCursorDTO<ProductoDTO>> getProductosPublicadosPaginados(
+            @RequestParam(defaultValue = "fecha") String orden,
+            @RequestParam(defaultValue = "desc") String direccion,
+            @RequestParam(defaultValue = "20") int tamano,
+            @RequestParam(required = false) String cursor) {
+        log.info("Obteniendo página de productos publicados - orden: {} {}, tamaño: {}", orden, direccion, tamano);
+        Sort.Direction dir = Sort.Direction.fromOptionalString(direccion)
+                .orElseThrow(() -> new BadRequestException("Dirección no válida: " + direccion));
+        return ResponseEntity.ok(productoService.getProductosPublicadosPaginados(
+                CatalogoCursor.Orden.desde(orden), dir, tamano, cursor));
+    }
+
+    @GetMapping("/buscar")
+    public ResponseEntity<ResultadoBusquedaDTO> buscarProductos(FiltroBusquedaDTO filtro) {
+        log.info("Buscando productos: {}", filtro);
+        return ResponseEntity.ok(facetasService.buscar(filtro));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<TendenciaDTO>> getTendencias(
+            @RequestParam(defaultValue = "dia") String ventana,
+            @RequestParam(required = false) Integer categoriaId,
+            @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(tendenciasService.getTendencias(
+                TendenciasService.Ventana.desde(ventana), categoriaId, limite));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ProductoDTO> getProductoById(@PathVariable Integer id) {
+    public ResponseEntity<byte[]> getProductoById(@PathVariable Integer id, WebRequest request) {
         log.info("Obteniendo producto por ID: {}", id);
-        return ResponseEntity.ok(productoService.getProductoById(id));
+        VersionRecursoDTO version = productoService.getVersionProducto(id);
+        if (request.checkNotModified(version.getEtag(), version.getUltimaModificacion())) {
+            // 304 Not Modified: ni DTO ni serialización
+            return null;
+        }
+
+        // El JSON ya codificado se escribe tal cual, sin pasar otra vez por Jackson
+        ProductoJsonCache.Entrada entrada = productoJsonCache.obtener(
+                id, version.getEtag(), () -> productoService.getProductoById(id));
+        boolean gzip = ProductoJsonCache.aceptaGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entrada.gzip());
+        }
+        return respuesta.body(entrada.json());
+    }
+
+    @GetMapping("/{id}/relacionados")
+    public ResponseEntity<List<ProductoDTO>> getProductosRelacionados(
+            @PathVariable Integer id,
+            @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(recomendacionesService.getRelacionados(id, limite));
     }
 
     @GetMapping("/artista/{artistaId}")
-    public ResponseEntity<List<ProductoDTO>> getProductosByArtista(@PathVariable Integer artistaId) {
+    public ResponseEntity<List<ProductoDTO>> getProductosByArtista(
+            @PathVariable Integer artistaId,
+            @RequestParam(defaultValue = "false") boolean incluirNoPublicados) {
         log.info("Obteniendo productos del artista: {}", artistaId);
+        if (incluirNoPublicados) {
+            return ResponseEntity.ok(productoService.getTodosLosProductosByArtista(artistaId));
+        }
         return ResponseEntity.ok(productoService.getProductosByArtista(artistaId));
     }
 
@@ -63,6 +172,20 @@ public class ProductoController {
                 .body(productoService.createProducto(productoDTO));
     }
 
+    @PostMapping(value = "/importar", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasAnyRole('ARTISTA', 'ADMIN')")
+    public ResponseEntity<ResultadoImportacionDTO> importarProductos(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            HttpServletRequest request) throws IOException {
+        MediaType tipo = MediaType.parseMediaType(contentType);
+        ImportacionService.Formato formato = tipo.isCompatibleWith(MediaType.valueOf("text/csv"))
+                ? ImportacionService.Formato.CSV
+                : ImportacionService.Formato.NDJSON;
+        log.info("Importando productos en formato {}", formato);
+        Charset charset = tipo.getCharset() != null ? tipo.getCharset() : StandardCharsets.UTF_8;
+        return ResponseEntity.ok(importacionService.importar(request.getInputStream(), formato, charset));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ARTISTA', 'ADMIN')")
     public ResponseEntity<ProductoDTO> updateProducto(
@@ -72,6 +195,13 @@ public class ProductoController {
         return ResponseEntity.ok(productoService.updateProducto(id, productoDTO));
     }
 
+    @PatchMapping("/estado")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResultadoModeracionDTO> moderarProductos(
+            @Valid @RequestBody ModeracionMasivaDTO peticion) {
+        return ResponseEntity.ok(moderacionService.moderar(peticion));
+    }
+
     @PatchMapping("/{id}/estado")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ProductoDTO> cambiarEstadoProducto(
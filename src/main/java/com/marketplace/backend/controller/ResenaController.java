@@ -1,43 +1,77 @@
 package com.marketplace.backend.controller;
 
+import com.marketplace.backend.dto.PaginaCursorDTO;
 import com.marketplace.backend.dto.ResenaDTO;
+import com.marketplace.backend.dto.ValoracionDTO;
 import com.marketplace.backend.security.JwtUtil;
 import com.marketplace.backend.service.ResenaService;
+import io.jsonwebtoken.Claims;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/resenas")
 @RequiredArgsConstructor
+@Slf4j
 @CrossOrigin(origins = "http://localhost:4200")
 public class ResenaController {
 
     private final ResenaService resenaService;
-    private final JwtUtil jwtUtil;
 
     @GetMapping("/producto/{productoId}")
     public ResponseEntity<List<ResenaDTO>> getResenasByProducto(@PathVariable Integer productoId) {
         return ResponseEntity.ok(resenaService.getResenasByProducto(productoId));
     }
 
+    @GetMapping("/producto/{productoId}/pagina")
+    public ResponseEntity<PaginaCursorDTO<ResenaDTO>> getPaginaResenasByProducto(
+            @PathVariable Integer productoId,
+            @RequestParam(defaultValue = "20") int tamano,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(resenaService.getPaginaResenasByProducto(productoId, tamano, cursor));
+    }
+
+    // Últimas reseñas de varios productos a la vez: ?productoIds=1,2,3&limite=3
+    @GetMapping("/productos")
+    public ResponseEntity<Map<Integer, List<ResenaDTO>>> getResenasRecientes(
+            @RequestParam List<Integer> productoIds,
+            @RequestParam(defaultValue = "3") int limite) {
+        return ResponseEntity.ok(resenaService.getResenasRecientes(productoIds, limite));
+    }
+
     @GetMapping("/usuario/{usuarioId}")
     public ResponseEntity<List<ResenaDTO>> getResenasByUsuario(@PathVariable Integer usuarioId) {
         return ResponseEntity.ok(resenaService.getResenasByUsuario(usuarioId));
     }
 
+    // Valoración agregada de varios productos a la vez (tarjetas de un listado): ?productoIds=1,2,3
+    @GetMapping("/valoraciones")
+    public ResponseEntity<List<ValoracionDTO>> getValoraciones(@RequestParam List<Integer> productoIds) {
+        return ResponseEntity.ok(resenaService.getValoraciones(productoIds));
+    }
+
+    @PostMapping("/valoraciones/reconstruir")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> reconstruirValoraciones() {
+        log.info("Reconstruyendo valoraciones de productos (Admin)");
+        resenaService.reconstruirValoraciones();
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping
     public ResponseEntity<ResenaDTO> createResena(
             @Valid @RequestBody ResenaDTO resenaDTO,
-            @RequestHeader("Authorization") String token) {
+            @RequestAttribute(JwtUtil.ATRIBUTO_CLAIMS) Claims claims) {
         
-        String jwt = token.substring(7);
-        String email = jwtUtil.extractUsername(jwt);
-        Integer usuarioId = ((Number) jwtUtil.extractClaim(jwt, claims -> claims.get("usuarioId"))).intValue();
+        Integer usuarioId = JwtUtil.getUsuarioId(claims);
         
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(resenaService.createResena(resenaDTO, usuarioId));
@@ -1,15 +1,30 @@
 package com.marketplace.backend.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.marketplace.backend.dto.CarritoDTO;
+import com.marketplace.backend.dto.PaginaCursorDTO;
+import com.marketplace.backend.dto.ResumenVentasDTO;
 import com.marketplace.backend.dto.VentaDTO;
 import com.marketplace.backend.security.JwtUtil;
+import com.marketplace.backend.service.ExportacionService;
+import com.marketplace.backend.service.IdempotenciaService;
+import com.marketplace.backend.service.ResumenVentasService;
 import com.marketplace.backend.service.VentaService;
+import io.jsonwebtoken.Claims;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -21,13 +36,31 @@ import java.util.Map;
 public class VentaController {
 
     private final VentaService ventaService;
-    private final JwtUtil jwtUtil;
+    private final ExportacionService exportacionService;
+    private final ResumenVentasService resumenVentasService;
+    private final IdempotenciaService idempotenciaService;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<VentaDTO>> getAllVentas() {
+    public ResponseEntity<StreamingResponseBody> getAllVentas() {
         log.info("Obteniendo todas las ventas (Admin)");
-        return ResponseEntity.ok(ventaService.getAllVentas());
+        // Mismo array JSON de siempre, pero escrito fila a fila
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(salida -> exportacionService.exportarVentas(salida, ExportacionService.Formato.JSON));
+    }
+
+    @GetMapping("/exportar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportarVentas(
+            @RequestParam(defaultValue = "ndjson") String formato) {
+        ExportacionService.Formato tipo = ExportacionService.Formato.desde(formato);
+        log.info("Exportando ventas en formato {}", tipo);
+        return ResponseEntity.ok()
+                .contentType(tipo.getTipo())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("ventas." + tipo.getExtension()).build().toString())
+                .body(salida -> exportacionService.exportarVentas(salida, tipo));
     }
 
     @GetMapping("/comprador/{compradorId}")
@@ -42,27 +75,97 @@ public class VentaController {
         return ResponseEntity.ok(ventaService.getVentasByVendedor(vendedorId));
     }
 
+    @GetMapping("/comprador/{compradorId}/pagina")
+    public ResponseEntity<PaginaCursorDTO<VentaDTO>> getPaginaVentasByComprador(
+            @PathVariable Integer compradorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "20") int tamano,
+            @RequestParam(required = false) String cursor) {
+        log.info("Obteniendo página de ventas del comprador: {}", compradorId);
+        return ResponseEntity.ok(ventaService.getPaginaVentasByComprador(compradorId, desde, hasta, tamano, cursor));
+    }
+
+    @GetMapping("/vendedor/{vendedorId}/pagina")
+    public ResponseEntity<PaginaCursorDTO<VentaDTO>> getPaginaVentasByVendedor(
+            @PathVariable Integer vendedorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "20") int tamano,
+            @RequestParam(required = false) String cursor) {
+        log.info("Obteniendo página de ventas del vendedor: {}", vendedorId);
+        return ResponseEntity.ok(ventaService.getPaginaVentasByVendedor(vendedorId, desde, hasta, tamano, cursor));
+    }
+
+    @GetMapping("/resumen/vendedor/{artistaId}")
+    public ResponseEntity<ResumenVentasDTO> getResumenVendedor(@PathVariable Integer artistaId) {
+        return ResponseEntity.ok(resumenVentasService.getResumenArtista(artistaId));
+    }
+
+    @GetMapping("/resumen/vendedor/{artistaId}/productos")
+    public ResponseEntity<List<ResumenVentasDTO>> getResumenPorProducto(@PathVariable Integer artistaId) {
+        return ResponseEntity.ok(resumenVentasService.getResumenPorProducto(artistaId));
+    }
+
+    @GetMapping("/resumen/vendedor/{artistaId}/diario")
+    public ResponseEntity<List<ResumenVentasDTO>> getResumenDiario(
+            @PathVariable Integer artistaId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ResponseEntity.ok(resumenVentasService.getResumenDiario(artistaId, desde, hasta));
+    }
+
+    @PostMapping("/resumen/reconstruir")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> reconstruirResumenes() {
+        log.info("Reconstruyendo resúmenes de ventas (Admin)");
+        resumenVentasService.reconstruir();
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping
     public ResponseEntity<VentaDTO> createVenta(
             @RequestBody Map<String, Integer> body,
-            @RequestHeader("Authorization") String token) {
+            @RequestAttribute(JwtUtil.ATRIBUTO_CLAIMS) Claims claims,
+            @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String claveIdempotencia) {
         
         log.info("=== CREAR VENTA ===");
         
         try {
-            String jwt = token.substring(7);
-            Integer usuarioId = ((Number) jwtUtil.extractClaim(jwt, claims -> claims.get("usuarioId"))).intValue();
+            Integer usuarioId = JwtUtil.getUsuarioId(claims);
             Integer productoId = body.get("productoId");
             
             log.info("Usuario ID: {}, Producto ID: {}", usuarioId, productoId);
             
-            VentaDTO venta = ventaService.createVenta(productoId, usuarioId);
-            log.info("Venta creada exitosamente: {}", venta.getVentaId());
+            IdempotenciaService.Resultado<VentaDTO> venta = idempotenciaService.ejecutar(
+                    usuarioId, claveIdempotencia, "venta", body, new TypeReference<>() {},
+                    () -> ventaService.createVenta(productoId, usuarioId));
+            log.info("Venta {}: {}", venta.repetido() ? "repetida" : "creada exitosamente", venta.valor().getVentaId());
             
-            return ResponseEntity.status(HttpStatus.CREATED).body(venta);
+            return respuesta(HttpStatus.CREATED, venta);
         } catch (Exception e) {
             log.error("Error al crear venta: {}", e.getMessage(), e);
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/carrito")
+    public ResponseEntity<List<VentaDTO>> comprarCarrito(
+            @Valid @RequestBody CarritoDTO carrito,
+            @RequestAttribute(JwtUtil.ATRIBUTO_CLAIMS) Claims claims,
+            @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String claveIdempotencia) {
+        Integer usuarioId = JwtUtil.getUsuarioId(claims);
+        log.info("Compra de carrito - Usuario ID: {}, Productos: {}", usuarioId, carrito.getProductoIds());
+        return respuesta(HttpStatus.CREATED, idempotenciaService.ejecutar(
+                usuarioId, claveIdempotencia, "carrito", carrito, new TypeReference<>() {},
+                () -> ventaService.comprarCarrito(carrito.getProductoIds(), usuarioId)));
+    }
+
+    private static <T> ResponseEntity<T> respuesta(HttpStatus status, IdempotenciaService.Resultado<T> resultado) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.status(status);
+        if (resultado.repetido()) {
+            respuesta.header(IdempotenciaService.CABECERA_REPETIDA, "true");
+        }
+        return respuesta.body(resultado.valor());
+    }
+}
@@ -1,13 +1,18 @@
 package com.marketplace.backend.dto;
 
+import com.marketplace.backend.model.Dinero;
+import lombok.AllArgsConstructor;
 import lombok.Data;
-import java.math.BigDecimal;
+import lombok.NoArgsConstructor;
+
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class BilleteraDTO {
     private Integer billeteraId;
-    private BigDecimal saldo;
+    private Dinero saldo;
     private LocalDateTime fechaUpdate;
     private Integer usuarioId;
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.marketplace.backend.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CarritoDTO {
+    @NotEmpty(message = "El carrito está vacío")
+    private List<Integer> productoIds;
+}
@@ -0,0 +1,22 @@
+package com.marketplace.backend.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class FiltroBusquedaDTO {
+    // Texto libre (opcional)
+    private String q;
+    
+    // Cada filtro admite varios valores (OR dentro del filtro, AND entre filtros)
+    private List<Integer> categoriaId;
+    private List<String> tipoArchivo;
+    private List<String> especialidad;
+    private BigDecimal precioMin;
+    private BigDecimal precioMax;
+    
+    private int pagina = 0;
+    private int tamano = 20;
+}
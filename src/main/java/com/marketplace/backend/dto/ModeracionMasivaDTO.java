@@ -0,0 +1,21 @@
+package com.marketplace.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ModeracionMasivaDTO {
+    @NotBlank(message = "El estado es obligatorio")
+    private String estado;
+    
+    // Lista explícita de productos...
+    private List<Integer> ids;
+    
+    // ...o bien un filtro (sin ids)
+    private String estadoActual = "PENDIENTE";
+    private Integer artistaId;
+    private Integer categoriaId;
+    private Integer limite;
+}
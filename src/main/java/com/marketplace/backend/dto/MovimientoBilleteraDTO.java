@@ -0,0 +1,28 @@
+package com.marketplace.backend.dto;
+
+import com.marketplace.backend.model.Dinero;
+import com.marketplace.backend.model.MovimientoBilletera;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class MovimientoBilleteraDTO {
+    private Long movimientoId;
+    private String tipo;
+    private Dinero monto;
+    private String concepto;
+    private LocalDateTime fecha;
+    
+    // Usado por las consultas JPQL con proyección directa a DTO
+    public MovimientoBilleteraDTO(Long movimientoId, MovimientoBilletera.Tipo tipo, Dinero monto,
+                                  String concepto, LocalDateTime fecha) {
+        this.movimientoId = movimientoId;
+        this.tipo = tipo.name();
+        this.monto = monto;
+        this.concepto = concepto;
+        this.fecha = fecha;
+    }
+}
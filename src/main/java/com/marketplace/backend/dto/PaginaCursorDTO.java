@@ -0,0 +1,18 @@
+package com.marketplace.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursorDTO<T> {
+    private List<T> contenido;
+    
+    // Token opaco para pedir la siguiente página (null si no hay más)
+    private String siguienteCursor;
+    private boolean hayMas;
+}
@@ -1,10 +1,10 @@
 package com.marketplace.backend.dto;
 
+import com.marketplace.backend.model.Dinero;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -18,7 +18,7 @@ public class ProductoAdquiridoDTO {
     private Integer productoId;
     private String tituloProducto;
     private String descripcionProducto;
-    private BigDecimal precioProducto;
+    private Dinero precioProducto;
     private String urlMiniatura;
     private String urlVistaPrevia;
     private String rutaArchivo;
@@ -28,5 +28,5 @@ public class ProductoAdquiridoDTO {
     private String nombreArtista;
     private LocalDateTime fechaAdquisicion;
     private Integer ventaId;
-    private BigDecimal precioVenta;
+    private Dinero precioVenta;
 }
\ No newline at end of file
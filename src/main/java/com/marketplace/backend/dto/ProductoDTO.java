@@ -1,13 +1,17 @@
 package com.marketplace.backend.dto;
 
+import com.marketplace.backend.model.Artista;
+import com.marketplace.backend.model.Dinero;
+import com.marketplace.backend.model.Producto;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Positive;
 import lombok.Data;
-import java.math.BigDecimal;
+import lombok.NoArgsConstructor;
+
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class ProductoDTO {
     private Integer productoId;
     
@@ -22,9 +26,9 @@ public class ProductoDTO {
     
     private String descripcion;
     
+    // @Positive no se aplica a Dinero: el signo lo comprueba ProductoService
     @NotNull(message = "El precio es obligatorio")
-    @Positive(message = "El precio debe ser positivo")
-    private BigDecimal precio;
+    private Dinero precio;
     
     private String rutaArchivo;
     private String tipoArchivo;
@@ -36,5 +40,35 @@ public class ProductoDTO {
     
     // Para respuestas
     private String nombreArtista;
+    private String especialidadArtista;
     private String nombreCategoria;
+    private ValoracionDTO valoracion;
+
+    // Usado por las consultas "SELECT new" de ProductoRepository
+    public ProductoDTO(Integer productoId, Integer artistaId, String nombreArtista,
+                       Artista.Especialidad especialidadArtista, Integer categoriaId, String nombreCategoria, String titulo,
+                       String descripcion, Dinero precio, String rutaArchivo,
+                       String tipoArchivo, String urlMiniatura, String urlVistaPrevia,
+                       Producto.Estado estado, LocalDateTime fechaCreacion, LocalDateTime fechaUpdate,
+                       Long totalValoraciones, Long sumaValoraciones, Long estrellas1, Long estrellas2,
+                       Long estrellas3, Long estrellas4, Long estrellas5) {
+        this.productoId = productoId;
+        this.artistaId = artistaId;
+        this.nombreArtista = nombreArtista;
+        this.especialidadArtista = especialidadArtista.name();
+        this.categoriaId = categoriaId;
+        this.nombreCategoria = nombreCategoria;
+        this.titulo = titulo;
+        this.descripcion = descripcion;
+        this.precio = precio;
+        this.rutaArchivo = rutaArchivo;
+        this.tipoArchivo = tipoArchivo;
+        this.urlMiniatura = urlMiniatura;
+        this.urlVistaPrevia = urlVistaPrevia;
+        this.estado = estado.name();
+        this.fechaCreacion = fechaCreacion;
+        this.fechaUpdate = fechaUpdate;
+        this.valoracion = new ValoracionDTO(productoId, totalValoraciones, sumaValoraciones,
+                estrellas1, estrellas2, estrellas3, estrellas4, estrellas5);
+    }
 }
\ No newline at end of file
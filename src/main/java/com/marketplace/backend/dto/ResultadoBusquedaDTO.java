@@ -0,0 +1,21 @@
+package com.marketplace.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoBusquedaDTO {
+    private List<ProductoDTO> resultados;
+    private long total;
+    private int pagina;
+    private int tamano;
+    
+    // faceta -> valor -> cantidad de productos
+    private Map<String, Map<String, Integer>> facetas;
+}
@@ -0,0 +1,27 @@
+package com.marketplace.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ResultadoImportacionDTO {
+    private int procesadas;
+    private int importadas;
+    private int rechazadas;
+
+    // Solo las primeras; "rechazadas" lleva la cuenta total
+    private List<ErrorFila> errores = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErrorFila {
+        private long linea;
+        private String mensaje;
+    }
+}
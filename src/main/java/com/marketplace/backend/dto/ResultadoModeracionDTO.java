@@ -0,0 +1,18 @@
+package com.marketplace.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoModeracionDTO {
+    private String estado;
+    private int actualizados;
+    
+    // productoId -> ACTUALIZADO, SIN_CAMBIOS o NO_ENCONTRADO
+    private Map<Integer, String> resultados;
+}
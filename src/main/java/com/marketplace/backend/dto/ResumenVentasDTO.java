@@ -0,0 +1,23 @@
+package com.marketplace.backend.dto;
+
+import com.marketplace.backend.model.Dinero;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenVentasDTO {
+    // Dimensión del resumen: solo viene informada la que corresponde (artista, producto o día)
+    private Integer artistaId;
+    private Integer productoId;
+    private String tituloProducto;
+    private LocalDate dia;
+    
+    private long ventas;
+    private Dinero totalBruto;
+    private Dinero totalComision;
+}
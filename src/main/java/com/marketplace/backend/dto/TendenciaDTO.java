@@ -0,0 +1,16 @@
+package com.marketplace.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TendenciaDTO {
+    private ProductoDTO producto;
+    
+    // Ventas dentro de la ventana y su media por hora
+    private int ventas;
+    private double ventasPorHora;
+}
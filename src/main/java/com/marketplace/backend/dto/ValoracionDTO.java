@@ -0,0 +1,39 @@
+package com.marketplace.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Valoración agregada de un producto (tabla valoracion_producto)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValoracionDTO {
+    private Integer productoId;
+    
+    private long total;
+    private long suma;
+    
+    // Con dos decimales; null si no tiene reseñas
+    private Double media;
+    
+    // Reseñas por estrellas: estrellas[0] son las de 1 estrella, estrellas[4] las de 5
+    private long[] estrellas;
+
+    // Usado por las consultas "SELECT new": sin fila en valoracion_producto todo llega a null
+    public ValoracionDTO(Integer productoId, Long total, Long suma, Long estrellas1, Long estrellas2,
+                         Long estrellas3, Long estrellas4, Long estrellas5) {
+        this.productoId = productoId;
+        this.total = total != null ? total : 0;
+        this.suma = suma != null ? suma : 0;
+        this.media = this.total > 0 ? Math.round(this.suma * 100.0 / this.total) / 100.0 : null;
+        this.estrellas = new long[]{
+                estrellas1 != null ? estrellas1 : 0, estrellas2 != null ? estrellas2 : 0,
+                estrellas3 != null ? estrellas3 : 0, estrellas4 != null ? estrellas4 : 0,
+                estrellas5 != null ? estrellas5 : 0};
+    }
+
+    public static ValoracionDTO vacia(Integer productoId) {
+        return new ValoracionDTO(productoId, null, null, null, null, null, null, null);
+    }
+}
@@ -1,10 +1,15 @@
 package com.marketplace.backend.dto;
 
+import com.marketplace.backend.model.Dinero;
+import lombok.AllArgsConstructor;
 import lombok.Data;
-import java.math.BigDecimal;
+import lombok.NoArgsConstructor;
+
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class VentaDTO {
     private Integer ventaId;
     private Integer productoId;
@@ -13,8 +18,8 @@ public class VentaDTO {
     private String emailComprador;
     private Integer vendedorId;
     private String nombreVendedor;
-    private BigDecimal precioVenta;
-    private BigDecimal comisionMarketplace;
+    private Dinero precioVenta;
+    private Dinero comisionMarketplace;
     private LocalDateTime fechaVenta;
     private String idTransaccionGateway;
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.marketplace.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+// Validadores HTTP (ETag fuerte y Last-Modified) de un recurso
+@Data
+@AllArgsConstructor
+public class VersionRecursoDTO {
+    private String etag;
+    
+    // Epoch en milisegundos, -1 si no se conoce
+    private long ultimaModificacion;
+    
+    // Las marcas nulas (filas anteriores a la columna fecha_update) cuentan como 0
+    public static VersionRecursoDTO de(String tipo, Object id, LocalDateTime... marcas) {
+        String etag = "\"" + tipo + "-" + id + "-" + Arrays.stream(marcas)
+                .map(marca -> marca == null ? "0" : Long.toString(aMicros(marca), 36))
+                .collect(Collectors.joining("-")) + "\"";
+        long ultimaModificacion = Arrays.stream(marcas)
+                .filter(Objects::nonNull)
+                .mapToLong(marca -> marca.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                .max()
+                .orElse(-1);
+        return new VersionRecursoDTO(etag, ultimaModificacion);
+    }
+    
+    private static long aMicros(LocalDateTime marca) {
+        var instante = marca.atZone(ZoneId.systemDefault()).toInstant();
+        return instante.getEpochSecond() * 1_000_000 + instante.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,12 @@
+package com.marketplace.backend.event;
+
+/**
+ * Evento que se guarda en el outbox (tabla evento_outbox) dentro de la
+ * transacción que lo origina. Se serializa a JSON con Jackson, así que
+ * necesita constructor sin argumentos.
+ */
+public interface EventoOutbox {
+
+    // Id de la entidad a la que se refiere el evento (p. ej. la venta)
+    Long getAgregadoId();
+}
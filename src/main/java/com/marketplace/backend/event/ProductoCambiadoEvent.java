@@ -0,0 +1,31 @@
+package com.marketplace.backend.event;
+
+import com.marketplace.backend.dto.ProductoDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Se publica desde ProductoService en cada escritura de productos. Los
+ * listeners (snapshot del catálogo, índices en memoria...) lo procesan
+ * después del commit.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductoCambiadoEvent {
+
+    // Estado actual de los productos creados o modificados
+    private final List<ProductoDTO> actualizados;
+
+    // Ids de los productos eliminados
+    private final List<Integer> eliminados;
+
+    public static ProductoCambiadoEvent actualizado(ProductoDTO producto) {
+        return new ProductoCambiadoEvent(List.of(producto), List.of());
+    }
+
+    public static ProductoCambiadoEvent eliminado(Integer productoId) {
+        return new ProductoCambiadoEvent(List.of(), List.of(productoId));
+    }
+}
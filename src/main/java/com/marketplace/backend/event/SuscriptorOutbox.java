@@ -0,0 +1,26 @@
+package com.marketplace.backend.event;
+
+import java.util.List;
+
+/**
+ * Consumidor de eventos del outbox. Cualquier bean que implemente esta
+ * interfaz recibe, por lotes y en orden de inserción, los eventos de su tipo.
+ * Un evento cuya entrega falló llega más tarde, al reintentarse.
+ */
+public interface SuscriptorOutbox<E extends EventoOutbox> {
+
+    enum Fase {
+        // Dentro de la transacción del lote: sus escrituras se confirman junto con la marca de procesado
+        EN_TRANSACCION,
+        // Después de confirmar el lote (estado en memoria); un fallo aquí no se reintenta
+        TRAS_CONFIRMAR
+    }
+
+    Class<E> getTipoEvento();
+
+    default Fase getFase() {
+        return Fase.EN_TRANSACCION;
+    }
+
+    void procesar(List<E> eventos);
+}
@@ -0,0 +1,35 @@
+package com.marketplace.backend.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.marketplace.backend.model.Dinero;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Se escribe en el outbox desde VentaService al registrar una venta, en la
+ * misma transacción. DespachadorOutbox lo entrega después a los suscriptores
+ * (resúmenes, tendencias, recomendaciones...), así que una venta revertida
+ * nunca llega a contarse.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaRegistradaEvent implements EventoOutbox {
+
+    private Integer ventaId;
+    private Integer productoId;
+    private Integer compradorId;
+    private Integer vendedorId;
+    private Dinero precioVenta;
+    private Dinero comisionMarketplace;
+    private LocalDateTime fechaVenta;
+
+    @Override
+    @JsonIgnore
+    public Long getAgregadoId() {
+        return ventaId.longValue();
+    }
+}
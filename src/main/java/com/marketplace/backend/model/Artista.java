@@ -4,8 +4,10 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "artista")
@@ -40,6 +42,11 @@ public class Artista {
     @Column(columnDefinition = "TEXT")
     private String biografia;
     
+    // Nullable: las filas anteriores a esta columna quedan en null hasta su próxima actualización
+    @UpdateTimestamp
+    @Column(name = "fecha_update")
+    private LocalDateTime fechaUpdate;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuarios_usuario_id", nullable = false)
     private Usuario usuario;
@@ -6,7 +6,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -21,8 +20,9 @@ public class Billetera {
     @Column(name = "billetera_id")
     private Integer billeteraId;
     
+    // Saldo actual: se ajusta con UPDATE condicional en la misma transacción que inserta cada movimiento
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal saldo = BigDecimal.ZERO;
+    private Dinero saldo = Dinero.CERO;
     
     @UpdateTimestamp
     @Column(name = "fecha_update", nullable = false)
@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "categoria")
@@ -22,4 +25,9 @@ public class Categoria {
     
     @Column(columnDefinition = "TEXT")
     private String descripcion;
+    
+    // Nullable: las filas anteriores a esta columna quedan en null hasta su próxima actualización
+    @UpdateTimestamp
+    @Column(name = "fecha_update")
+    private LocalDateTime fechaUpdate;
 }
\ No newline at end of file
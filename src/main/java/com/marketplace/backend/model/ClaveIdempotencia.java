@@ -0,0 +1,50 @@
+package com.marketplace.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// Respuesta guardada de una petición con Idempotency-Key; se escribe en la misma transacción que la operación
+@Entity
+@Table(name = "clave_idempotencia", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_clave_idempotencia", columnNames = {"usuario_id", "clave"})
+}, indexes = {
+    @Index(name = "idx_clave_idempotencia_fecha", columnList = "fecha_creacion")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaveIdempotencia {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "clave_idempotencia_id")
+    private Long claveIdempotenciaId;
+    
+    @Column(name = "usuario_id", nullable = false)
+    private Integer usuarioId;
+    
+    @Column(nullable = false, length = 100)
+    private String clave;
+    
+    // SHA-256 de la operación y su petición: la misma clave no puede reutilizarse para otra cosa
+    @Column(nullable = false, length = 64)
+    private String huella;
+    
+    @Column(columnDefinition = "TEXT")
+    private String respuesta;
+    
+    @CreationTimestamp
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+    
+    public ClaveIdempotencia(Integer usuarioId, String clave, String huella) {
+        this.usuarioId = usuarioId;
+        this.clave = clave;
+        this.huella = huella;
+    }
+}
@@ -0,0 +1,38 @@
+package com.marketplace.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+// Último punto conciliado de cada billetera: hasta ese movimiento el libro cuadra con billetera.saldo
+@Entity
+@Table(name = "conciliacion_billetera")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConciliacionBilletera {
+    
+    @Id
+    @Column(name = "billetera_id")
+    private Integer billeteraId;
+    
+    @Column(name = "hasta_movimiento_id", nullable = false)
+    private Long hastaMovimientoId;
+    
+    @Column(nullable = false, precision = 12, scale = 2)
+    private Dinero saldo;
+    
+    @UpdateTimestamp
+    @Column(name = "fecha_conciliacion", nullable = false)
+    private LocalDateTime fechaConciliacion;
+    
+    public ConciliacionBilletera(Integer billeteraId, Long hastaMovimientoId, Dinero saldo) {
+        this.billeteraId = billeteraId;
+        this.hastaMovimientoId = hastaMovimientoId;
+        this.saldo = saldo;
+    }
+}
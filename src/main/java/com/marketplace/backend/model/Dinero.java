@@ -0,0 +1,103 @@
+package com.marketplace.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Importe en céntimos, inmutable. Sustituye a BigDecimal en precios, ventas y
+ * en las cuentas de la compra: sumar, restar y comparar son operaciones sobre
+ * un long, sin objetos intermedios. Solo se redondea al aplicar un porcentaje
+ * (mitad hacia arriba, como NUMERIC(_, 2) en la base de datos). En JSON y en
+ * la base de datos sigue siendo un decimal con dos cifras.
+ */
+public final class Dinero implements Comparable<Dinero>, Serializable {
+
+    public static final Dinero CERO = new Dinero(0);
+
+    private final long centimos;
+
+    private Dinero(long centimos) {
+        this.centimos = centimos;
+    }
+
+    public static Dinero deCentimos(long centimos) {
+        return centimos == 0 ? CERO : new Dinero(centimos);
+    }
+
+    // Exacto: un importe con más de dos decimales es un error, no se redondea
+    @JsonCreator
+    public static Dinero de(BigDecimal valor) {
+        try {
+            return deCentimos(valor.movePointRight(2).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Importe no válido: " + valor.toPlainString());
+        }
+    }
+
+    public static Dinero de(String valor) {
+        return de(new BigDecimal(valor.trim()));
+    }
+
+    public long getCentimos() {
+        return centimos;
+    }
+
+    public Dinero sumar(Dinero otro) {
+        return deCentimos(Math.addExact(centimos, otro.centimos));
+    }
+
+    public Dinero restar(Dinero otro) {
+        return deCentimos(Math.subtractExact(centimos, otro.centimos));
+    }
+
+    public Dinero negar() {
+        return deCentimos(Math.negateExact(centimos));
+    }
+
+    // Porcentaje en puntos básicos (1000 = 10%), redondeado al céntimo: mitad lejos de cero
+    public Dinero porcentaje(int puntosBasicos) {
+        long producto = Math.multiplyExact(centimos, (long) puntosBasicos);
+        long redondeo = producto >= 0 ? 5_000 : -5_000;
+        return deCentimos((producto + redondeo) / 10_000);
+    }
+
+    public int signum() {
+        return Long.signum(centimos);
+    }
+
+    public boolean esMayorQue(Dinero otro) {
+        return centimos > otro.centimos;
+    }
+
+    public boolean esMenorQue(Dinero otro) {
+        return centimos < otro.centimos;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(centimos, 2);
+    }
+
+    @Override
+    public int compareTo(Dinero otro) {
+        return Long.compare(centimos, otro.centimos);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Dinero otro && otro.centimos == centimos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centimos);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,21 @@
+package com.marketplace.backend.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+// Columnas NUMERIC(_, 2) <-> Dinero; se aplica a todo atributo de tipo Dinero
+@Converter(autoApply = true)
+public class DineroConverter implements AttributeConverter<Dinero, BigDecimal> {
+    
+    @Override
+    public BigDecimal convertToDatabaseColumn(Dinero dinero) {
+        return dinero != null ? dinero.toBigDecimal() : null;
+    }
+    
+    @Override
+    public Dinero convertToEntityAttribute(BigDecimal valor) {
+        return valor != null ? Dinero.de(valor) : null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.marketplace.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Abono agregado a un vendedor; las ventas que cubre apuntan a la liquidación (venta.liquidacion_id)
+@Entity
+@Immutable
+@Table(name = "liquidacion_vendedor", indexes = {
+    @Index(name = "idx_liquidacion_vendedor_artista", columnList = "artista_id, liquidacion_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiquidacionVendedor {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "liquidacion_id")
+    private Long liquidacionId;
+    
+    @Column(name = "artista_id", nullable = false)
+    private Integer artistaId;
+    
+    @Column(name = "billetera_id", nullable = false)
+    private Integer billeteraId;
+    
+    @Column(nullable = false)
+    private Integer ventas;
+    
+    @Column(name = "total_bruto", nullable = false, precision = 12, scale = 2)
+    private Dinero totalBruto;
+    
+    @Column(name = "total_comision", nullable = false, precision = 12, scale = 2)
+    private Dinero totalComision;
+    
+    @CreationTimestamp
+    @Column(name = "fecha_liquidacion", nullable = false, updatable = false)
+    private LocalDateTime fechaLiquidacion;
+    
+    public LiquidacionVendedor(Integer artistaId, Integer billeteraId, Integer ventas,
+                               Dinero totalBruto, Dinero totalComision) {
+        this.artistaId = artistaId;
+        this.billeteraId = billeteraId;
+        this.ventas = ventas;
+        this.totalBruto = totalBruto;
+        this.totalComision = totalComision;
+    }
+}
@@ -0,0 +1,56 @@
+package com.marketplace.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Libro de movimientos de la billetera: solo se insertan filas, nunca se modifican
+@Entity
+@Immutable
+@Table(name = "movimiento_billetera", indexes = {
+    @Index(name = "idx_movimiento_billetera", columnList = "billetera_id, movimiento_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimientoBilletera {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "movimiento_id")
+    private Long movimientoId;
+    
+    @Column(name = "billetera_id", nullable = false)
+    private Integer billeteraId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Tipo tipo;
+    
+    // Positivo para abonos, negativo para cargos
+    @Column(nullable = false, precision = 12, scale = 2)
+    private Dinero monto;
+    
+    @Column(length = 255)
+    private String concepto;
+    
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime fecha;
+    
+    public enum Tipo {
+        CARGA, COMPRA, INGRESO_VENTA, COMISION, REEMBOLSO
+    }
+    
+    public MovimientoBilletera(Integer billeteraId, Tipo tipo, Dinero monto, String concepto) {
+        this.billeteraId = billeteraId;
+        this.tipo = tipo;
+        this.monto = monto;
+        this.concepto = concepto;
+    }
+}
@@ -7,11 +7,14 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "producto")
+@Table(name = "producto", indexes = {
+    @Index(name = "idx_producto_estado_fecha", columnList = "estado, fecha_creacion, producto_id"),
+    @Index(name = "idx_producto_estado_precio", columnList = "estado, precio, producto_id"),
+    @Index(name = "idx_producto_estado_titulo", columnList = "estado, titulo, producto_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -37,7 +40,7 @@ public class Producto {
     private String descripcion;
     
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal precio;
+    private Dinero precio;
     
     @Column(name = "ruta_archivo", nullable = false)
     private String rutaArchivo;
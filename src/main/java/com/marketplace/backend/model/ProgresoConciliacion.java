@@ -0,0 +1,22 @@
+package com.marketplace.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Hasta qué movimiento revisó la conciliación de billeteras; compartido entre instancias y persistente entre arranques
+@Entity
+@Table(name = "progreso_conciliacion")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgresoConciliacion {
+    
+    @Id
+    @Column(length = 50)
+    private String nombre;
+    
+    @Column(name = "revisado_hasta", nullable = false)
+    private Long revisadoHasta;
+}
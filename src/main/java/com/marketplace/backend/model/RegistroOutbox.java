@@ -0,0 +1,56 @@
+package com.marketplace.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Fila del outbox: se inserta con JDBC en la transacción de negocio y la marca DespachadorOutbox al entregarla.
+// Si su entrega falla se reintenta con espera creciente y, agotados los intentos, queda descartada (fecha_descartado).
+@Entity
+@Table(name = "evento_outbox", indexes = {
+    @Index(name = "idx_evento_outbox_pendientes", columnList = "fecha_procesado, evento_id"),
+    @Index(name = "idx_evento_outbox_agregado", columnList = "tipo, agregado_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistroOutbox {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "evento_id")
+    private Long eventoId;
+    
+    // Nombre simple de la clase del evento
+    @Column(nullable = false, length = 100)
+    private String tipo;
+    
+    @Column(name = "agregado_id")
+    private Long agregadoId;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+    
+    @Column(name = "fecha_procesado")
+    private LocalDateTime fechaProcesado;
+    
+    @Column(nullable = false)
+    private Integer intentos = 0;
+    
+    // No se vuelve a intentar antes de esta fecha
+    @Column(name = "fecha_reintento")
+    private LocalDateTime fechaReintento;
+    
+    @Column(name = "fecha_descartado")
+    private LocalDateTime fechaDescartado;
+    
+    // Último error de entrega
+    @Column(length = 500)
+    private String error;
+}
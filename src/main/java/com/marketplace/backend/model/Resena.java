@@ -9,7 +9,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "resenas")
+@Table(name = "resenas", indexes = {
+    @Index(name = "idx_resena_producto_fecha", columnList = "producto_id, fecha, resena_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,48 @@
+package com.marketplace.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Tabla derivada de venta (sin FK): se mantiene desde el outbox (ResumenVentasService) y se puede reconstruir
+@Entity
+@Table(name = "resumen_ventas_diario")
+@IdClass(ResumenVentasDiario.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenVentasDiario {
+    
+    @Id
+    @Column(name = "artista_id")
+    private Integer artistaId;
+    
+    @Id
+    @Column(name = "dia")
+    private LocalDate dia;
+    
+    @Column(nullable = false)
+    private Long ventas;
+    
+    @Column(name = "total_bruto", nullable = false, precision = 14, scale = 2)
+    private Dinero totalBruto;
+    
+    @Column(name = "total_comision", nullable = false, precision = 14, scale = 2)
+    private Dinero totalComision;
+    
+    @Column(name = "fecha_update", nullable = false)
+    private LocalDateTime fechaUpdate;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private Integer artistaId;
+        private LocalDate dia;
+    }
+}
@@ -0,0 +1,38 @@
+package com.marketplace.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Tabla derivada de venta (sin FK): se mantiene desde el outbox (ResumenVentasService) y se puede reconstruir
+@Entity
+@Table(name = "resumen_ventas_producto", indexes = {
+    @Index(name = "idx_resumen_producto_artista", columnList = "artista_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenVentasProducto {
+    
+    @Id
+    @Column(name = "producto_id")
+    private Integer productoId;
+    
+    @Column(name = "artista_id", nullable = false)
+    private Integer artistaId;
+    
+    @Column(nullable = false)
+    private Long ventas;
+    
+    @Column(name = "total_bruto", nullable = false, precision = 14, scale = 2)
+    private Dinero totalBruto;
+    
+    @Column(name = "total_comision", nullable = false, precision = 14, scale = 2)
+    private Dinero totalComision;
+    
+    @Column(name = "fecha_update", nullable = false)
+    private LocalDateTime fechaUpdate;
+}
@@ -0,0 +1,47 @@
+package com.marketplace.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Tabla derivada de resenas (sin FK): la mantiene ResenaService con upserts atómicos y se puede reconstruir
+@Entity
+@Table(name = "valoracion_producto")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValoracionProducto {
+    
+    @Id
+    @Column(name = "producto_id")
+    private Integer productoId;
+    
+    // Número de reseñas y suma de sus calificaciones (media = suma / total)
+    @Column(nullable = false)
+    private Long total;
+    
+    @Column(nullable = false)
+    private Long suma;
+    
+    // Reseñas por número de estrellas
+    @Column(name = "estrellas_1", nullable = false)
+    private Long estrellas1;
+    
+    @Column(name = "estrellas_2", nullable = false)
+    private Long estrellas2;
+    
+    @Column(name = "estrellas_3", nullable = false)
+    private Long estrellas3;
+    
+    @Column(name = "estrellas_4", nullable = false)
+    private Long estrellas4;
+    
+    @Column(name = "estrellas_5", nullable = false)
+    private Long estrellas5;
+    
+    @Column(name = "fecha_update", nullable = false)
+    private LocalDateTime fechaUpdate;
+}
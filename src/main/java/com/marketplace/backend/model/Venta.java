@@ -6,11 +6,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "venta")
+@Table(name = "venta", indexes = {
+    @Index(name = "idx_venta_liquidacion", columnList = "liquidacion_id, venta_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,10 +35,10 @@ public class Venta {
     private Artista vendedor;
     
     @Column(name = "precio_venta", nullable = false, precision = 10, scale = 2)
-    private BigDecimal precioVenta;
+    private Dinero precioVenta;
     
     @Column(name = "comision_marketplace", nullable = false, precision = 10, scale = 2)
-    private BigDecimal comisionMarketplace;
+    private Dinero comisionMarketplace;
     
     @CreationTimestamp
     @Column(name = "fecha_venta", nullable = false, updatable = false)
@@ -45,4 +46,8 @@ public class Venta {
     
     @Column(name = "id_transaccion_gateway", length = 100)
     private String idTransaccionGateway;
+    
+    // Null mientras la venta no se haya abonado al vendedor (LiquidacionService)
+    @Column(name = "liquidacion_id")
+    private Long liquidacionId;
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.marketplace.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Copia desnormalizada de cada venta con el título del producto, el email del
+ * comprador y el nombre del vendedor, para que los listados y la exportación
+ * lean una sola tabla. La escribe VentaService junto con la venta y se
+ * actualiza al renombrar un producto o un artista.
+ */
+@Entity
+@Table(name = "venta_vista", indexes = {
+    @Index(name = "idx_venta_vista_comprador_fecha", columnList = "comprador_id, fecha_venta, venta_id"),
+    @Index(name = "idx_venta_vista_vendedor_fecha", columnList = "vendedor_id, fecha_venta, venta_id"),
+    @Index(name = "idx_venta_vista_producto", columnList = "producto_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaVista {
+
+    // Mismo id que la venta
+    @Id
+    @Column(name = "venta_id")
+    private Integer ventaId;
+
+    @Column(name = "producto_id", nullable = false)
+    private Integer productoId;
+
+    @Column(name = "titulo_producto", nullable = false)
+    private String tituloProducto;
+
+    @Column(name = "comprador_id", nullable = false)
+    private Integer compradorId;
+
+    @Column(name = "email_comprador", nullable = false, length = 100)
+    private String emailComprador;
+
+    @Column(name = "vendedor_id", nullable = false)
+    private Integer vendedorId;
+
+    @Column(name = "nombre_vendedor", nullable = false)
+    private String nombreVendedor;
+
+    @Column(name = "precio_venta", nullable = false, precision = 10, scale = 2)
+    private Dinero precioVenta;
+
+    @Column(name = "comision_marketplace", nullable = false, precision = 10, scale = 2)
+    private Dinero comisionMarketplace;
+
+    @Column(name = "fecha_venta", nullable = false)
+    private LocalDateTime fechaVenta;
+
+    @Column(name = "id_transaccion_gateway", length = 100)
+    private String idTransaccionGateway;
+}
@@ -1,12 +1,32 @@
 package com.marketplace.backend.repository;
 
 import com.marketplace.backend.model.Artista;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface ArtistaRepository extends JpaRepository<Artista, Integer> {
     Optional<Artista> findByUsuarioUsuarioId(Integer usuarioId);
     boolean existsByDni(String dni);
+    
+    @Query("SELECT a.artistaId AS id, a.fechaUpdate AS fechaUpdate FROM Artista a WHERE a.artistaId = :id")
+    Optional<VersionProjection> findVersionById(@Param("id") Integer id);
+
+    // Solo comprueba existencia, sin cargar entidades
+    @Query("SELECT a.artistaId FROM Artista a WHERE a.artistaId IN :ids")
+    Set<Integer> findIdsExistentes(@Param("ids") Collection<Integer> ids);
+
+    // Bloqueo compartido de los vendedores de una compra, igual que ProductoRepository.bloquearParaCompra
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT a.artistaId FROM Artista a WHERE a.artistaId IN "
+            + "(SELECT p.artista.artistaId FROM Producto p WHERE p.productoId IN :productoIds)")
+    List<Integer> bloquearVendedores(@Param("productoIds") Collection<Integer> productoIds);
 }
\ No newline at end of file
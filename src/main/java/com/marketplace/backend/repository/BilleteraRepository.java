@@ -1,11 +1,61 @@
 package com.marketplace.backend.repository;
 
+import com.marketplace.backend.dto.BilleteraDTO;
 import com.marketplace.backend.model.Billetera;
+import com.marketplace.backend.model.Dinero;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface BilleteraRepository extends JpaRepository<Billetera, Integer> {
     Optional<Billetera> findByUsuarioUsuarioId(Integer usuarioId);
-}
\ No newline at end of file
+
+    String SELECT_BILLETERA_DTO = "SELECT new com.marketplace.backend.dto.BilleteraDTO("
+            + "b.billeteraId, b.saldo, b.fechaUpdate, b.usuario.usuarioId) FROM Billetera b";
+
+    @Query(SELECT_BILLETERA_DTO + " WHERE b.billeteraId = :billeteraId")
+    Optional<BilleteraDTO> findDTOById(@Param("billeteraId") Integer billeteraId);
+
+    @Query(SELECT_BILLETERA_DTO + " WHERE b.usuario.usuarioId = :usuarioId")
+    Optional<BilleteraDTO> findDTOByUsuarioId(@Param("usuarioId") Integer usuarioId);
+
+    @Query("SELECT b.billeteraId FROM Billetera b WHERE b.usuario.usuarioId = :usuarioId")
+    Optional<Integer> findIdByUsuarioId(@Param("usuarioId") Integer usuarioId);
+
+    // Los UPDATE de saldo bloquean la fila hasta el commit; el movimiento del libro se inserta después.
+    // Débito atómico: la comprobación de saldo y la resta van en el mismo UPDATE (0 filas = sin billetera o sin saldo).
+    // No limpia el contexto de persistencia para no desconectar las entidades de la venta en curso.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Billetera b SET b.saldo = b.saldo - :monto, b.fechaUpdate = :ahora "
+            + "WHERE b.usuario.usuarioId = :usuarioId AND b.saldo >= :monto")
+    int descontar(@Param("usuarioId") Integer usuarioId,
+                  @Param("monto") Dinero monto,
+                  @Param("ahora") LocalDateTime ahora);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Billetera b SET b.saldo = b.saldo + :monto, b.fechaUpdate = :ahora "
+            + "WHERE b.usuario.usuarioId = :usuarioId")
+    int cargar(@Param("usuarioId") Integer usuarioId,
+               @Param("monto") Dinero monto,
+               @Param("ahora") LocalDateTime ahora);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Billetera b SET b.saldo = b.saldo + :monto, b.fechaUpdate = :ahora "
+            + "WHERE b.billeteraId = :billeteraId")
+    int abonar(@Param("billeteraId") Integer billeteraId,
+               @Param("monto") Dinero monto,
+               @Param("ahora") LocalDateTime ahora);
+
+    // Conciliación: con la fila bloqueada no queda ningún movimiento de la billetera sin confirmar
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Billetera b WHERE b.billeteraId = :billeteraId")
+    Optional<Billetera> findByIdParaConciliar(@Param("billeteraId") Integer billeteraId);
+}
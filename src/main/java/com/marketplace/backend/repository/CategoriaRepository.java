@@ -2,8 +2,31 @@ package com.marketplace.backend.repository;
 
 import com.marketplace.backend.model.Categoria;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
 @Repository
 public interface CategoriaRepository extends JpaRepository<Categoria, Integer> {
+    
+    @Query("SELECT c.categoriaId AS id, c.fechaUpdate AS fechaUpdate FROM Categoria c WHERE c.categoriaId = :id")
+    Optional<VersionProjection> findVersionById(@Param("id") Integer id);
+    
+    // Versión del listado completo: cambia con cada alta, baja o modificación
+    interface VersionListado {
+        long getTotal();
+        LocalDateTime getUltimaActualizacion();
+    }
+    
+    @Query("SELECT COUNT(c) AS total, MAX(c.fechaUpdate) AS ultimaActualizacion FROM Categoria c")
+    VersionListado findVersionListado();
+
+    // Solo comprueba existencia, sin cargar entidades
+    @Query("SELECT c.categoriaId FROM Categoria c WHERE c.categoriaId IN :ids")
+    Set<Integer> findIdsExistentes(@Param("ids") Collection<Integer> ids);
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.marketplace.backend.repository;
+
+import com.marketplace.backend.model.ClaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, Long> {
+    Optional<ClaveIdempotencia> findByUsuarioIdAndClave(Integer usuarioId, String clave);
+    
+    @Modifying
+    @Query("DELETE FROM ClaveIdempotencia c WHERE c.usuarioId = :usuarioId AND c.clave = :clave "
+            + "AND c.fechaCreacion < :limite")
+    int deleteCaducada(@Param("usuarioId") Integer usuarioId,
+                       @Param("clave") String clave,
+                       @Param("limite") LocalDateTime limite);
+    
+    @Modifying
+    @Query("DELETE FROM ClaveIdempotencia c WHERE c.fechaCreacion < :limite")
+    int deleteAntesDe(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,9 @@
+package com.marketplace.backend.repository;
+
+import com.marketplace.backend.model.ConciliacionBilletera;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ConciliacionBilleteraRepository extends JpaRepository<ConciliacionBilletera, Integer> {
+}
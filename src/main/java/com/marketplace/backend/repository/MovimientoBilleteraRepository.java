@@ -0,0 +1,56 @@
+package com.marketplace.backend.repository;
+
+import com.marketplace.backend.dto.MovimientoBilleteraDTO;
+import com.marketplace.backend.model.Dinero;
+import com.marketplace.backend.model.MovimientoBilletera;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MovimientoBilleteraRepository extends JpaRepository<MovimientoBilletera, Long> {
+    
+    // Extracto paginado por keyset, del más reciente al más antiguo
+    @Query("SELECT new com.marketplace.backend.dto.MovimientoBilleteraDTO("
+            + "m.movimientoId, m.tipo, m.monto, m.concepto, m.fecha) "
+            + "FROM MovimientoBilletera m WHERE m.billeteraId = :billeteraId AND m.movimientoId < :antesDe "
+            + "ORDER BY m.movimientoId DESC")
+    List<MovimientoBilleteraDTO> findPagina(@Param("billeteraId") Integer billeteraId,
+                                            @Param("antesDe") Long antesDe,
+                                            Limit limit);
+    
+    // Movimiento de la billetera del usuario sin consultarla antes; va después del UPDATE de saldo que la bloquea
+    @Modifying
+    @Query("INSERT INTO MovimientoBilletera (billeteraId, tipo, monto, concepto, fecha) "
+            + "SELECT b.billeteraId, :tipo, :monto, :concepto, :ahora FROM Billetera b "
+            + "WHERE b.usuario.usuarioId = :usuarioId")
+    int registrar(@Param("usuarioId") Integer usuarioId,
+                  @Param("tipo") MovimientoBilletera.Tipo tipo,
+                  @Param("monto") Dinero monto,
+                  @Param("concepto") String concepto,
+                  @Param("ahora") LocalDateTime ahora);
+    
+    // Compactación: billeteras con movimientos nuevos y tramo que cubrirá el siguiente corte
+    @Query("SELECT DISTINCT m.billeteraId FROM MovimientoBilletera m "
+            + "WHERE m.movimientoId > :desde AND m.movimientoId <= :hasta")
+    List<Integer> findBilleterasConMovimientos(@Param("desde") Long desde, @Param("hasta") Long hasta);
+    
+    @Query("SELECT MAX(m.movimientoId) FROM MovimientoBilletera m")
+    Long findUltimoId();
+    
+    @Query("SELECT MAX(m.movimientoId) FROM MovimientoBilletera m WHERE m.billeteraId = :billeteraId")
+    Long findUltimoIdDeBilletera(@Param("billeteraId") Integer billeteraId);
+    
+    // Nativa: la suma se hace sobre la columna NUMERIC, no sobre el atributo convertido a Dinero
+    @Query(value = "SELECT COALESCE(SUM(m.monto), 0) FROM movimiento_billetera m "
+            + "WHERE m.billetera_id = :billeteraId AND m.movimiento_id > :desde AND m.movimiento_id <= :hasta",
+            nativeQuery = true)
+    BigDecimal sumarTramo(@Param("billeteraId") Integer billeteraId, @Param("desde") Long desde, @Param("hasta") Long hasta);
+}
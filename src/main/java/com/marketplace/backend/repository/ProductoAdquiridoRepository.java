@@ -1,12 +1,47 @@
 package com.marketplace.backend.repository;
 
+import com.marketplace.backend.dto.ProductoAdquiridoDTO;
 import com.marketplace.backend.model.ProductoAdquirido;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductoAdquiridoRepository extends JpaRepository<ProductoAdquirido, Integer> {
-    List<ProductoAdquirido> findByUsuarioUsuarioId(Integer usuarioId);
+    
+    // Proyección a ProductoAdquiridoDTO en un único SELECT con usuario, producto, artista, categoría y venta
+    @Query("SELECT new com.marketplace.backend.dto.ProductoAdquiridoDTO("
+            + "pa.licenciaId, u.usuarioId, u.email, p.productoId, p.titulo, p.descripcion, "
+            + "p.precio, p.urlMiniatura, p.urlVistaPrevia, p.rutaArchivo, p.tipoArchivo, "
+            + "c.nombre, a.artistaId, a.nombreCompleto, pa.fechaAdquisicion, v.ventaId, v.precioVenta) "
+            + "FROM ProductoAdquirido pa JOIN pa.usuario u JOIN pa.producto p "
+            + "JOIN p.categoria c JOIN p.artista a JOIN pa.venta v "
+            + "WHERE u.usuarioId = :usuarioId")
+    List<ProductoAdquiridoDTO> findDTOsByUsuarioId(@Param("usuarioId") Integer usuarioId);
+    
     boolean existsByUsuarioUsuarioIdAndProductoProductoId(Integer usuarioId, Integer productoId);
-}
\ No newline at end of file
+    
+    @Query("SELECT pa.producto.productoId FROM ProductoAdquirido pa "
+            + "WHERE pa.usuario.usuarioId = :usuarioId AND pa.producto.productoId IN :productoIds")
+    List<Integer> findProductoIdsAdquiridos(@Param("usuarioId") Integer usuarioId,
+                                            @Param("productoIds") Collection<Integer> productoIds);
+    
+    // Pares usuario-producto en orden de adquisición, para la matriz de co-compras
+    interface ParUsuarioProducto {
+        Integer getUsuarioId();
+        Integer getProductoId();
+    }
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT pa.usuario.usuarioId AS usuarioId, pa.producto.productoId AS productoId "
+            + "FROM ProductoAdquirido pa ORDER BY pa.licenciaId")
+    Stream<ParUsuarioProducto> streamPares();
+}
@@ -0,0 +1,45 @@
+package com.marketplace.backend.repository;
+
+import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.model.Producto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Escrituras masivas de productos con JDBC batching. Hibernate no puede agrupar
+ * inserts con ids IDENTITY, pero el driver sí cuando no hace falta leer las claves.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductoJdbcRepository {
+
+    private static final String INSERT_PRODUCTO =
+            "INSERT INTO producto (artista_id, categoria_id, titulo, descripcion, precio, ruta_archivo, " +
+            "tipo_archivo, url_miniatura, url_vista_previa, estado, fecha_creacion, fecha_update) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertarLote(List<ProductoDTO> productos, Producto.Estado estado) {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_PRODUCTO, productos, productos.size(), (ps, p) -> {
+            ps.setInt(1, p.getArtistaId());
+            ps.setInt(2, p.getCategoriaId());
+            ps.setString(3, p.getTitulo());
+            ps.setString(4, p.getDescripcion());
+            ps.setBigDecimal(5, p.getPrecio().toBigDecimal());
+            ps.setString(6, p.getRutaArchivo());
+            ps.setString(7, p.getTipoArchivo());
+            ps.setString(8, p.getUrlMiniatura());
+            ps.setString(9, p.getUrlVistaPrevia());
+            ps.setString(10, estado.name());
+            ps.setTimestamp(11, ahora);
+            ps.setTimestamp(12, ahora);
+        });
+    }
+}
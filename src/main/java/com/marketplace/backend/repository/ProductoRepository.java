@@ -1,23 +1,140 @@
 package com.marketplace.backend.repository;
 
+import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.model.Dinero;
 import com.marketplace.backend.model.Producto;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductoRepository extends JpaRepository<Producto, Integer> {
     
+    // Proyección a ProductoDTO en un único SELECT con artista, categoría y valoración (evita N+1)
+    String SELECT_PRODUCTO_DTO = "SELECT new com.marketplace.backend.dto.ProductoDTO("
+            + "p.productoId, a.artistaId, a.nombreCompleto, a.especialidad, c.categoriaId, c.nombre, p.titulo, "
+            + "p.descripcion, p.precio, p.rutaArchivo, p.tipoArchivo, p.urlMiniatura, "
+            + "p.urlVistaPrevia, p.estado, p.fechaCreacion, p.fechaUpdate, "
+            + "val.total, val.suma, val.estrellas1, val.estrellas2, val.estrellas3, val.estrellas4, val.estrellas5) "
+            + "FROM Producto p JOIN p.artista a JOIN p.categoria c "
+            + "LEFT JOIN ValoracionProducto val ON val.productoId = p.productoId";
+    
+    // Exportación completa en streaming: DTOs (nada queda en el contexto de persistencia) y fetch size
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_PRODUCTO_DTO + " ORDER BY p.productoId")
+    Stream<ProductoDTO> streamAllDTOs();
+    
+    @Query(SELECT_PRODUCTO_DTO + " WHERE p.productoId = :productoId")
+    Optional<ProductoDTO> findDTOById(@Param("productoId") Integer productoId);
+    
     // Buscar por ID del artista
-    List<Producto> findByArtistaArtistaId(Integer artistaId);
+    @Query(SELECT_PRODUCTO_DTO + " WHERE a.artistaId = :artistaId")
+    List<ProductoDTO> findDTOsByArtistaId(@Param("artistaId") Integer artistaId);
+    
+    // Buscar por categoría
+    @Query(SELECT_PRODUCTO_DTO + " WHERE c.categoriaId = :categoriaId")
+    List<ProductoDTO> findDTOsByCategoriaId(@Param("categoriaId") Integer categoriaId);
     
-    // Buscar por categoría - CORREGIDO con @Query
-    @Query("SELECT p FROM Producto p WHERE p.categoria.categoriaId = :categoriaId")
-    List<Producto> findByCategoriaId(@Param("categoriaId") Integer categoriaId);
+    @Query(SELECT_PRODUCTO_DTO + " WHERE p.productoId IN :ids")
+    List<ProductoDTO> findDTOsByIds(@Param("ids") Collection<Integer> ids);
     
     // Buscar por estado
-    List<Producto> findByEstado(Producto.Estado estado);
-}
\ No newline at end of file
+    @Query(SELECT_PRODUCTO_DTO + " WHERE p.estado = :estado")
+    List<ProductoDTO> findDTOsByEstado(@Param("estado") Producto.Estado estado);
+    
+    // Marcas de tiempo de todo lo que aparece en el ProductoDTO (artista, categoría y valoración incluidos)
+    interface VersionesProducto {
+        LocalDateTime getProducto();
+        LocalDateTime getArtista();
+        LocalDateTime getCategoria();
+        LocalDateTime getValoracion();
+    }
+    
+    @Query("SELECT p.fechaUpdate AS producto, a.fechaUpdate AS artista, c.fechaUpdate AS categoria, "
+            + "val.fechaUpdate AS valoracion FROM Producto p JOIN p.artista a JOIN p.categoria c "
+            + "LEFT JOIN ValoracionProducto val ON val.productoId = p.productoId WHERE p.productoId = :productoId")
+    Optional<VersionesProducto> findVersionesById(@Param("productoId") Integer productoId);
+    
+    // Compra de carrito: lo necesario para validar y registrar cada venta, en un único SELECT
+    interface ProductoCompra {
+        Integer getProductoId();
+        String getTitulo();
+        Dinero getPrecio();
+        Producto.Estado getEstado();
+        Integer getArtistaId();
+        String getNombreArtista();
+        Integer getUsuarioArtistaId();
+    }
+    
+    @Query("SELECT p.productoId AS productoId, p.titulo AS titulo, p.precio AS precio, p.estado AS estado, "
+            + "a.artistaId AS artistaId, a.nombreCompleto AS nombreArtista, a.usuario.usuarioId AS usuarioArtistaId "
+            + "FROM Producto p JOIN p.artista a WHERE p.productoId IN :ids")
+    List<ProductoCompra> findParaCompra(@Param("ids") Collection<Integer> ids);
+
+    // Bloqueo compartido hasta el commit de la compra: un renombrado (UPDATE del producto) espera a que la
+    // compra confirme, y su UPDATE de venta_vista ya ve las filas nuevas; si el renombrado va primero, la
+    // compra espera y copia el título nuevo. Las compras del mismo producto no se bloquean entre sí
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT p.productoId FROM Producto p WHERE p.productoId IN :ids")
+    List<Integer> bloquearParaCompra(@Param("ids") Collection<Integer> ids);
+    
+    // Moderación masiva: candidatos por id o por filtro (keyset sobre el id) y UPDATE por conjuntos
+    @Query("SELECT p.productoId FROM Producto p WHERE p.productoId IN :ids")
+    List<Integer> findIdsExistentes(@Param("ids") Collection<Integer> ids);
+    
+    @Query("SELECT p.productoId FROM Producto p WHERE p.estado = :estado "
+            + "AND (:artistaId IS NULL OR p.artista.artistaId = :artistaId) "
+            + "AND (:categoriaId IS NULL OR p.categoria.categoriaId = :categoriaId) "
+            + "AND p.productoId > :desdeId ORDER BY p.productoId")
+    List<Integer> findIdsParaModerar(@Param("estado") Producto.Estado estado,
+                                     @Param("artistaId") Integer artistaId,
+                                     @Param("categoriaId") Integer categoriaId,
+                                     @Param("desdeId") Integer desdeId,
+                                     Limit limit);
+    
+    // El UPDATE en bloque no pasa por @UpdateTimestamp: fechaUpdate se fija a mano (ETag)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Producto p SET p.estado = :estado, p.fechaUpdate = :ahora "
+            + "WHERE p.productoId IN :ids AND p.estado <> :estado")
+    int actualizarEstado(@Param("ids") Collection<Integer> ids,
+                         @Param("estado") Producto.Estado estado,
+                         @Param("ahora") LocalDateTime ahora);
+    
+    // Solo cambia los que siguen en el estado con el que se seleccionaron
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Producto p SET p.estado = :nuevo, p.fechaUpdate = :ahora "
+            + "WHERE p.productoId IN :ids AND p.estado = :actual")
+    int actualizarEstadoDesde(@Param("ids") Collection<Integer> ids,
+                              @Param("actual") Producto.Estado actual,
+                              @Param("nuevo") Producto.Estado nuevo,
+                              @Param("ahora") LocalDateTime ahora);
+    
+    // Los que cambió el UPDATE de esta transacción: quedaron en el estado nuevo con su misma fechaUpdate
+    @Query("SELECT p.productoId FROM Producto p WHERE p.productoId IN :ids "
+            + "AND p.estado = :estado AND p.fechaUpdate = :ahora")
+    List<Integer> findIdsActualizados(@Param("ids") Collection<Integer> ids,
+                                      @Param("estado") Producto.Estado estado,
+                                      @Param("ahora") LocalDateTime ahora);
+    
+    // Paginación por keyset (cursor) sobre el catálogo, con artista y categoría en el mismo SELECT
+    @EntityGraph(attributePaths = {"artista", "categoria"})
+    Window<Producto> findByEstado(Producto.Estado estado, ScrollPosition position, Sort sort, Limit limit);
+}
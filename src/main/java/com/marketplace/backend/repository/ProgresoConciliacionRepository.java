@@ -0,0 +1,28 @@
+package com.marketplace.backend.repository;
+
+import com.marketplace.backend.model.ProgresoConciliacion;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProgresoConciliacionRepository extends JpaRepository<ProgresoConciliacion, String> {
+    
+    @Modifying
+    @Query("INSERT INTO ProgresoConciliacion (nombre, revisadoHasta) VALUES (:nombre, 0) ON CONFLICT DO NOTHING")
+    int crearSiFalta(@Param("nombre") String nombre);
+    
+    // SKIP LOCKED: si otra instancia está conciliando, esta pasada no hace nada
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT p FROM ProgresoConciliacion p WHERE p.nombre = :nombre")
+    Optional<ProgresoConciliacion> findParaActualizar(@Param("nombre") String nombre);
+}
@@ -0,0 +1,47 @@
+package com.marketplace.backend.repository;
+
+import com.marketplace.backend.model.RegistroOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RegistroOutboxRepository extends JpaRepository<RegistroOutbox, Long> {
+    
+    // FOR UPDATE SKIP LOCKED: varias instancias pueden despachar a la vez sin repartirse el mismo lote
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM RegistroOutbox r WHERE r.fechaProcesado IS NULL AND r.fechaDescartado IS NULL "
+            + "AND (r.fechaReintento IS NULL OR r.fechaReintento <= :ahora) ORDER BY r.eventoId")
+    List<RegistroOutbox> findPendientes(@Param("ahora") LocalDateTime ahora, Limit limit);
+    
+    // Reintento de un único registro del lote, fuera de la transacción del lote
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM RegistroOutbox r WHERE r.eventoId = :eventoId "
+            + "AND r.fechaProcesado IS NULL AND r.fechaDescartado IS NULL")
+    Optional<RegistroOutbox> findPendiente(@Param("eventoId") Long eventoId);
+    
+    @Modifying
+    @Query("UPDATE RegistroOutbox r SET r.fechaProcesado = :ahora WHERE r.eventoId IN :ids")
+    int marcarProcesados(@Param("ids") Collection<Long> ids, @Param("ahora") LocalDateTime ahora);
+    
+    @Query("SELECT MIN(r.fechaCreacion) FROM RegistroOutbox r WHERE r.fechaProcesado IS NULL AND r.fechaDescartado IS NULL")
+    LocalDateTime findPendienteMasAntiguo();
+    
+    @Modifying
+    @Query("DELETE FROM RegistroOutbox r WHERE r.fechaProcesado < :limite")
+    int deleteProcesadosAntesDe(@Param("limite") LocalDateTime limite);
+}
@@ -1,12 +1,69 @@
 package com.marketplace.backend.repository;
 
+import com.marketplace.backend.dto.ResenaDTO;
 import com.marketplace.backend.model.Resena;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ResenaRepository extends JpaRepository<Resena, Integer> {
-    List<Resena> findByProductoProductoId(Integer productoId);
-    List<Resena> findByUsuarioUsuarioId(Integer usuarioId);
-}
\ No newline at end of file
+    
+    // Proyección a ResenaDTO en un único SELECT con producto y usuario
+    String SELECT_RESENA_DTO = "SELECT new com.marketplace.backend.dto.ResenaDTO("
+            + "r.resenaId, p.productoId, u.usuarioId, r.calificacion, r.comentario, r.fecha, "
+            + "u.email, p.titulo) "
+            + "FROM Resena r JOIN r.producto p JOIN r.usuario u";
+    
+    @Query(SELECT_RESENA_DTO + " WHERE p.productoId = :productoId")
+    List<ResenaDTO> findDTOsByProductoId(@Param("productoId") Integer productoId);
+    
+    @Query(SELECT_RESENA_DTO + " WHERE u.usuarioId = :usuarioId")
+    List<ResenaDTO> findDTOsByUsuarioId(@Param("usuarioId") Integer usuarioId);
+    
+    // Reseñas de un producto por páginas (keyset): anteriores a (:fecha, :resenaId), de la más reciente
+    // a la más antigua, recorriendo idx_resena_producto_fecha
+    @Query(SELECT_RESENA_DTO + " WHERE r.producto.productoId = :productoId "
+            + "AND (r.fecha, r.resenaId) < (:fecha, :resenaId) ORDER BY r.fecha DESC, r.resenaId DESC")
+    List<ResenaDTO> findPaginaByProductoId(@Param("productoId") Integer productoId,
+                                           @Param("fecha") LocalDateTime fecha,
+                                           @Param("resenaId") Integer resenaId,
+                                           Limit limit);
+    
+    // Las :limite reseñas más recientes de cada producto, todas en un único SELECT
+    interface ResenaReciente {
+        Integer getResenaId();
+        Integer getProductoId();
+        Integer getUsuarioId();
+        Integer getCalificacion();
+        String getComentario();
+        LocalDateTime getFecha();
+        String getEmail();
+        String getTitulo();
+    }
+    
+    // Por cada producto, un ORDER BY ... LIMIT sobre idx_resena_producto_fecha que lee como mucho :limite
+    // entradas, por populares que sean; las reseñas se cargan después por clave primaria
+    @Query(value = "SELECT r.resena_id AS resenaId, r.producto_id AS productoId, r.usuario_id AS usuarioId, "
+            + "r.calificacion AS calificacion, r.comentario AS comentario, r.fecha AS fecha, u.email AS email, "
+            + "p.titulo AS titulo FROM producto p "
+            + "JOIN resenas r ON r.resena_id = ANY (ARRAY(SELECT x.resena_id FROM resenas x "
+            + "WHERE x.producto_id = p.producto_id ORDER BY x.fecha DESC, x.resena_id DESC LIMIT :limite)) "
+            + "JOIN usuarios u ON u.usuario_id = r.usuario_id "
+            + "WHERE p.producto_id IN (:productoIds) "
+            + "ORDER BY p.producto_id, r.fecha DESC, r.resena_id DESC", nativeQuery = true)
+    List<ResenaReciente> findRecientesByProductoIds(@Param("productoIds") Collection<Integer> productoIds,
+                                                    @Param("limite") int limite);
+    
+    // Devuelve 0 si otra petición ya la borró: la valoración solo se descuenta una vez
+    @Modifying
+    @Query("DELETE FROM Resena r WHERE r.resenaId = :resenaId")
+    int borrar(@Param("resenaId") Integer resenaId);
+}
@@ -0,0 +1,44 @@
+package com.marketplace.backend.repository;
+
+import com.marketplace.backend.model.ResumenVentasArtista;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface ResumenVentasArtistaRepository extends JpaRepository<ResumenVentasArtista, Integer> {
+    
+    // Reconstrucción: las ventas con el evento aún pendiente en el outbox las sumará el despachador
+    String VENTAS_APLICADAS = "FROM venta v WHERE NOT EXISTS (SELECT 1 FROM evento_outbox o "
+            + "WHERE o.tipo = 'VentaRegistradaEvent' AND o.agregado_id = v.venta_id AND o.fecha_procesado IS NULL) ";
+    
+    // Upsert atómico: dos ventas concurrentes del mismo artista no pierden incrementos
+    @Modifying
+    @Query(value = "INSERT INTO resumen_ventas_artista AS r "
+            + "(artista_id, ventas, total_bruto, total_comision, fecha_update) "
+            + "VALUES (:artistaId, :ventas, :bruto, :comision, CURRENT_TIMESTAMP) "
+            + "ON CONFLICT (artista_id) DO UPDATE SET ventas = r.ventas + EXCLUDED.ventas, "
+            + "total_bruto = r.total_bruto + EXCLUDED.total_bruto, "
+            + "total_comision = r.total_comision + EXCLUDED.total_comision, "
+            + "fecha_update = EXCLUDED.fecha_update", nativeQuery = true)
+    void sumar(@Param("artistaId") Integer artistaId, @Param("ventas") long ventas,
+               @Param("bruto") BigDecimal bruto, @Param("comision") BigDecimal comision);
+    
+    @Modifying
+    @Query(value = "DELETE FROM resumen_ventas_artista", nativeQuery = true)
+    void vaciar();
+    
+    @Modifying
+    @Query(value = "INSERT INTO resumen_ventas_artista AS r "
+            + "(artista_id, ventas, total_bruto, total_comision, fecha_update) "
+            + "SELECT v.vendedor_id, COUNT(*), SUM(v.precio_venta), SUM(v.comision_marketplace), CURRENT_TIMESTAMP "
+            + VENTAS_APLICADAS + "GROUP BY v.vendedor_id "
+            + "ON CONFLICT (artista_id) DO UPDATE SET ventas = EXCLUDED.ventas, "
+            + "total_bruto = EXCLUDED.total_bruto, total_comision = EXCLUDED.total_comision, "
+            + "fecha_update = EXCLUDED.fecha_update", nativeQuery = true)
+    int recalcular();
+}
@@ -0,0 +1,47 @@
+package com.marketplace.backend.repository;
+
+import com.marketplace.backend.model.ResumenVentasDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ResumenVentasDiarioRepository
+        extends JpaRepository<ResumenVentasDiario, ResumenVentasDiario.Clave> {
+    
+    List<ResumenVentasDiario> findByArtistaIdAndDiaBetweenOrderByDia(Integer artistaId, LocalDate desde, LocalDate hasta);
+    
+    // Upsert atómico: dos ventas concurrentes del mismo artista y día no pierden incrementos
+    @Modifying
+    @Query(value = "INSERT INTO resumen_ventas_diario AS r "
+            + "(artista_id, dia, ventas, total_bruto, total_comision, fecha_update) "
+            + "VALUES (:artistaId, :dia, :ventas, :bruto, :comision, CURRENT_TIMESTAMP) "
+            + "ON CONFLICT (artista_id, dia) DO UPDATE SET ventas = r.ventas + EXCLUDED.ventas, "
+            + "total_bruto = r.total_bruto + EXCLUDED.total_bruto, "
+            + "total_comision = r.total_comision + EXCLUDED.total_comision, "
+            + "fecha_update = EXCLUDED.fecha_update", nativeQuery = true)
+    void sumar(@Param("artistaId") Integer artistaId, @Param("dia") LocalDate dia,
+               @Param("ventas") long ventas, @Param("bruto") BigDecimal bruto,
+               @Param("comision") BigDecimal comision);
+    
+    @Modifying
+    @Query(value = "DELETE FROM resumen_ventas_diario", nativeQuery = true)
+    void vaciar();
+    
+    @Modifying
+    @Query(value = "INSERT INTO resumen_ventas_diario AS r "
+            + "(artista_id, dia, ventas, total_bruto, total_comision, fecha_update) "
+            + "SELECT v.vendedor_id, CAST(v.fecha_venta AS DATE), COUNT(*), SUM(v.precio_venta), "
+            + "SUM(v.comision_marketplace), CURRENT_TIMESTAMP "
+            + ResumenVentasArtistaRepository.VENTAS_APLICADAS + "GROUP BY v.vendedor_id, CAST(v.fecha_venta AS DATE) "
+            + "ON CONFLICT (artista_id, dia) DO UPDATE SET ventas = EXCLUDED.ventas, "
+            + "total_bruto = EXCLUDED.total_bruto, total_comision = EXCLUDED.total_comision, "
+            + "fecha_update = EXCLUDED.fecha_update", nativeQuery = true)
+    int recalcular();
+}
@@ -0,0 +1,51 @@
+package com.marketplace.backend.repository;
+
+import com.marketplace.backend.dto.ResumenVentasDTO;
+import com.marketplace.backend.model.ResumenVentasProducto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface ResumenVentasProductoRepository extends JpaRepository<ResumenVentasProducto, Integer> {
+    
+    @Query("SELECT new com.marketplace.backend.dto.ResumenVentasDTO("
+            + "r.artistaId, r.productoId, p.titulo, null, r.ventas, r.totalBruto, r.totalComision) "
+            + "FROM ResumenVentasProducto r, Producto p "
+            + "WHERE p.productoId = r.productoId AND r.artistaId = :artistaId "
+            + "ORDER BY r.totalBruto DESC, r.productoId")
+    List<ResumenVentasDTO> findDTOsByArtistaId(@Param("artistaId") Integer artistaId);
+    
+    // Upsert atómico: dos ventas concurrentes del mismo producto no pierden incrementos
+    @Modifying
+    @Query(value = "INSERT INTO resumen_ventas_producto AS r "
+            + "(producto_id, artista_id, ventas, total_bruto, total_comision, fecha_update) "
+            + "VALUES (:productoId, :artistaId, :ventas, :bruto, :comision, CURRENT_TIMESTAMP) "
+            + "ON CONFLICT (producto_id) DO UPDATE SET ventas = r.ventas + EXCLUDED.ventas, "
+            + "total_bruto = r.total_bruto + EXCLUDED.total_bruto, "
+            + "total_comision = r.total_comision + EXCLUDED.total_comision, "
+            + "fecha_update = EXCLUDED.fecha_update", nativeQuery = true)
+    void sumar(@Param("productoId") Integer productoId, @Param("artistaId") Integer artistaId,
+               @Param("ventas") long ventas, @Param("bruto") BigDecimal bruto,
+               @Param("comision") BigDecimal comision);
+    
+    @Modifying
+    @Query(value = "DELETE FROM resumen_ventas_producto", nativeQuery = true)
+    void vaciar();
+    
+    @Modifying
+    @Query(value = "INSERT INTO resumen_ventas_producto AS r "
+            + "(producto_id, artista_id, ventas, total_bruto, total_comision, fecha_update) "
+            + "SELECT v.producto_id, MAX(v.vendedor_id), COUNT(*), SUM(v.precio_venta), "
+            + "SUM(v.comision_marketplace), CURRENT_TIMESTAMP "
+            + ResumenVentasArtistaRepository.VENTAS_APLICADAS + "GROUP BY v.producto_id "
+            + "ON CONFLICT (producto_id) DO UPDATE SET artista_id = EXCLUDED.artista_id, "
+            + "ventas = EXCLUDED.ventas, total_bruto = EXCLUDED.total_bruto, "
+            + "total_comision = EXCLUDED.total_comision, fecha_update = EXCLUDED.fecha_update", nativeQuery = true)
+    int recalcular();
+}
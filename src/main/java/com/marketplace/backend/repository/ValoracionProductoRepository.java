@@ -0,0 +1,66 @@
+package com.marketplace.backend.repository;
+
+import com.marketplace.backend.dto.ValoracionDTO;
+import com.marketplace.backend.model.ValoracionProducto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ValoracionProductoRepository extends JpaRepository<ValoracionProducto, Integer> {
+    
+    @Query("SELECT new com.marketplace.backend.dto.ValoracionDTO(v.productoId, v.total, v.suma, "
+            + "v.estrellas1, v.estrellas2, v.estrellas3, v.estrellas4, v.estrellas5) "
+            + "FROM ValoracionProducto v WHERE v.productoId IN :productoIds")
+    List<ValoracionDTO> findDTOsByProductoIds(@Param("productoIds") Collection<Integer> productoIds);
+    
+    // Columnas del histograma: 1 en la de la calificación, 0 en las demás
+    String ESTRELLAS = "CASE WHEN :calificacion = 1 THEN 1 ELSE 0 END, CASE WHEN :calificacion = 2 THEN 1 ELSE 0 END, "
+            + "CASE WHEN :calificacion = 3 THEN 1 ELSE 0 END, CASE WHEN :calificacion = 4 THEN 1 ELSE 0 END, "
+            + "CASE WHEN :calificacion = 5 THEN 1 ELSE 0 END";
+    
+    // Upsert atómico: dos reseñas concurrentes del mismo producto no pierden incrementos
+    @Modifying
+    @Query(value = "INSERT INTO valoracion_producto AS v "
+            + "(producto_id, total, suma, estrellas_1, estrellas_2, estrellas_3, estrellas_4, estrellas_5, fecha_update) "
+            + "VALUES (:productoId, 1, :calificacion, " + ESTRELLAS + ", CURRENT_TIMESTAMP) "
+            + "ON CONFLICT (producto_id) DO UPDATE SET total = v.total + 1, suma = v.suma + EXCLUDED.suma, "
+            + "estrellas_1 = v.estrellas_1 + EXCLUDED.estrellas_1, estrellas_2 = v.estrellas_2 + EXCLUDED.estrellas_2, "
+            + "estrellas_3 = v.estrellas_3 + EXCLUDED.estrellas_3, estrellas_4 = v.estrellas_4 + EXCLUDED.estrellas_4, "
+            + "estrellas_5 = v.estrellas_5 + EXCLUDED.estrellas_5, fecha_update = EXCLUDED.fecha_update",
+            nativeQuery = true)
+    void sumar(@Param("productoId") Integer productoId, @Param("calificacion") int calificacion);
+    
+    @Modifying
+    @Query(value = "UPDATE valoracion_producto SET total = total - 1, suma = suma - :calificacion, "
+            + "estrellas_1 = estrellas_1 - CASE WHEN :calificacion = 1 THEN 1 ELSE 0 END, "
+            + "estrellas_2 = estrellas_2 - CASE WHEN :calificacion = 2 THEN 1 ELSE 0 END, "
+            + "estrellas_3 = estrellas_3 - CASE WHEN :calificacion = 3 THEN 1 ELSE 0 END, "
+            + "estrellas_4 = estrellas_4 - CASE WHEN :calificacion = 4 THEN 1 ELSE 0 END, "
+            + "estrellas_5 = estrellas_5 - CASE WHEN :calificacion = 5 THEN 1 ELSE 0 END, "
+            + "fecha_update = CURRENT_TIMESTAMP WHERE producto_id = :productoId", nativeQuery = true)
+    int restar(@Param("productoId") Integer productoId, @Param("calificacion") int calificacion);
+    
+    @Modifying
+    @Query(value = "DELETE FROM valoracion_producto", nativeQuery = true)
+    void vaciar();
+    
+    @Modifying
+    @Query(value = "INSERT INTO valoracion_producto AS v "
+            + "(producto_id, total, suma, estrellas_1, estrellas_2, estrellas_3, estrellas_4, estrellas_5, fecha_update) "
+            + "SELECT r.producto_id, COUNT(*), SUM(r.calificacion), "
+            + "SUM(CASE WHEN r.calificacion = 1 THEN 1 ELSE 0 END), SUM(CASE WHEN r.calificacion = 2 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN r.calificacion = 3 THEN 1 ELSE 0 END), SUM(CASE WHEN r.calificacion = 4 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN r.calificacion = 5 THEN 1 ELSE 0 END), CURRENT_TIMESTAMP "
+            + "FROM resenas r GROUP BY r.producto_id "
+            + "ON CONFLICT (producto_id) DO UPDATE SET total = EXCLUDED.total, suma = EXCLUDED.suma, "
+            + "estrellas_1 = EXCLUDED.estrellas_1, estrellas_2 = EXCLUDED.estrellas_2, "
+            + "estrellas_3 = EXCLUDED.estrellas_3, estrellas_4 = EXCLUDED.estrellas_4, "
+            + "estrellas_5 = EXCLUDED.estrellas_5, fecha_update = EXCLUDED.fecha_update", nativeQuery = true)
+    int recalcular();
+}
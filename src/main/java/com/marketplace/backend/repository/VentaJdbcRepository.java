@@ -0,0 +1,96 @@
+package com.marketplace.backend.repository;
+
+import com.marketplace.backend.dto.VentaDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserción de ventas y licencias en lote (compra de carrito). Las ventas se
+ * envían en un único batch pidiendo solo la clave generada, que luego
+ * referencian las licencias y las filas de venta_vista en otros batches.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VentaJdbcRepository {
+
+    private static final String INSERT_VENTA =
+            "INSERT INTO venta (producto_id, comprador_id, vendedor_id, precio_venta, comision_marketplace, " +
+            "fecha_venta, id_transaccion_gateway) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_LICENCIA =
+            "INSERT INTO productos_adquiridos (usuario_id, producto_id, venta_venta_id, fecha_adquisicion) " +
+            "VALUES (?, ?, ?, ?)";
+
+    private static final String INSERT_VISTA =
+            "INSERT INTO venta_vista (venta_id, producto_id, titulo_producto, comprador_id, email_comprador, " +
+            "vendedor_id, nombre_vendedor, precio_venta, comision_marketplace, fecha_venta, id_transaccion_gateway) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Rellena el ventaId de cada DTO con la clave generada
+    public void insertarVentas(List<VentaDTO> ventas) {
+        KeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_VENTA, new String[]{"venta_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        VentaDTO v = ventas.get(i);
+                        ps.setInt(1, v.getProductoId());
+                        ps.setInt(2, v.getCompradorId());
+                        ps.setInt(3, v.getVendedorId());
+                        ps.setBigDecimal(4, v.getPrecioVenta().toBigDecimal());
+                        ps.setBigDecimal(5, v.getComisionMarketplace().toBigDecimal());
+                        ps.setTimestamp(6, Timestamp.valueOf(v.getFechaVenta()));
+                        ps.setString(7, v.getIdTransaccionGateway());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return ventas.size();
+                    }
+                }, claves);
+
+        List<Map<String, Object>> generadas = claves.getKeyList();
+        for (int i = 0; i < ventas.size(); i++) {
+            Object id = generadas.get(i).values().iterator().next();
+            ventas.get(i).setVentaId(((Number) id).intValue());
+        }
+    }
+
+    public void insertarLicencias(List<VentaDTO> ventas) {
+        jdbcTemplate.batchUpdate(INSERT_LICENCIA, ventas, ventas.size(), (ps, v) -> {
+            ps.setInt(1, v.getCompradorId());
+            ps.setInt(2, v.getProductoId());
+            ps.setInt(3, v.getVentaId());
+            ps.setTimestamp(4, Timestamp.valueOf(v.getFechaVenta()));
+        });
+    }
+
+    // Filas de venta_vista para ventas ya insertadas (con ventaId)
+    public void insertarVistas(List<VentaDTO> ventas) {
+        jdbcTemplate.batchUpdate(INSERT_VISTA, ventas, ventas.size(), (ps, v) -> {
+            ps.setInt(1, v.getVentaId());
+            ps.setInt(2, v.getProductoId());
+            ps.setString(3, v.getTituloProducto());
+            ps.setInt(4, v.getCompradorId());
+            ps.setString(5, v.getEmailComprador());
+            ps.setInt(6, v.getVendedorId());
+            ps.setString(7, v.getNombreVendedor());
+            ps.setBigDecimal(8, v.getPrecioVenta().toBigDecimal());
+            ps.setBigDecimal(9, v.getComisionMarketplace().toBigDecimal());
+            ps.setTimestamp(10, Timestamp.valueOf(v.getFechaVenta()));
+            ps.setString(11, v.getIdTransaccionGateway());
+        });
+    }
+}
@@ -2,11 +2,65 @@ package com.marketplace.backend.repository;
 
 import com.marketplace.backend.model.Venta;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Modifying;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface VentaRepository extends JpaRepository<Venta, Integer> {
-    List<Venta> findByCompradorUsuarioId(Integer compradorId);
-    List<Venta> findByVendedorArtistaId(Integer vendedorId);
-}
\ No newline at end of file
+
+    @Query("SELECT MAX(v.ventaId) FROM Venta v")
+    Integer findUltimoId();
+
+    // Productos de las ventas del tramo que aún no están en venta_vista
+    @Query("SELECT DISTINCT v.producto.productoId FROM Venta v WHERE v.ventaId BETWEEN :desde AND :hasta "
+            + "AND NOT EXISTS (SELECT 1 FROM VentaVista vv WHERE vv.ventaId = v.ventaId)")
+    List<Integer> findProductoIdsSinVista(@Param("desde") Integer desde, @Param("hasta") Integer hasta);
+    
+    // Ventas desde una fecha, en streaming, para reconstruir los contadores en memoria
+    interface VentaReciente {
+        Integer getProductoId();
+        Integer getCompradorId();
+        LocalDateTime getFechaVenta();
+    }
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.productoId AS productoId, u.usuarioId AS compradorId, v.fechaVenta AS fechaVenta "
+            + "FROM Venta v JOIN v.producto p JOIN v.comprador u WHERE v.fechaVenta >= :desde "
+            + "AND NOT EXISTS (SELECT 1 FROM RegistroOutbox o WHERE o.tipo = 'VentaRegistradaEvent' "
+            + "AND o.agregadoId = CAST(v.ventaId AS Long) AND o.fechaProcesado IS NULL)")
+    Stream<VentaReciente> streamVentasDesde(@Param("desde") LocalDateTime desde);
+    
+    // Ventas sin abonar al vendedor, con la billetera a la que van
+    interface VentaPorLiquidar {
+        Integer getVentaId();
+        Integer getArtistaId();
+        Integer getBilleteraId();
+        BigDecimal getPrecioVenta();
+        BigDecimal getComisionMarketplace();
+    }
+    
+    String BILLETERA_VENDEDOR = "SELECT b.billetera_id FROM billetera b JOIN artista a "
+            + "ON a.usuarios_usuario_id = b.usuarios_usuario_id WHERE a.artista_id = v.vendedor_id";
+    
+    // SKIP LOCKED: dos liquidaciones simultáneas nunca reclaman la misma venta. Sin billetera, la venta espera
+    @Query(value = "SELECT v.venta_id AS ventaId, v.vendedor_id AS artistaId, (" + BILLETERA_VENDEDOR
+            + ") AS billeteraId, v.precio_venta AS precioVenta, v.comision_marketplace AS comisionMarketplace "
+            + "FROM venta v WHERE v.liquidacion_id IS NULL AND EXISTS (" + BILLETERA_VENDEDOR + ") "
+            + "ORDER BY v.venta_id LIMIT :limite FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<VentaPorLiquidar> findPorLiquidar(@Param("limite") int limite);
+    
+    @Modifying
+    @Query("UPDATE Venta v SET v.liquidacionId = :liquidacionId WHERE v.ventaId IN :ventaIds")
+    int marcarLiquidadas(@Param("ventaIds") Collection<Integer> ventaIds, @Param("liquidacionId") Long liquidacionId);
+}
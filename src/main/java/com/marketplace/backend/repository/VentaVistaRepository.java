@@ -0,0 +1,79 @@
+package com.marketplace.backend.repository;
+
+import com.marketplace.backend.dto.VentaDTO;
+import com.marketplace.backend.model.VentaVista;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Listados de ventas: todas las consultas leen solo venta_vista, sin joins
+@Repository
+public interface VentaVistaRepository extends JpaRepository<VentaVista, Integer> {
+
+    String SELECT_VENTA_DTO = "SELECT new com.marketplace.backend.dto.VentaDTO("
+            + "v.ventaId, v.productoId, v.tituloProducto, v.compradorId, v.emailComprador, v.vendedorId, "
+            + "v.nombreVendedor, v.precioVenta, v.comisionMarketplace, v.fechaVenta, v.idTransaccionGateway) "
+            + "FROM VentaVista v";
+
+    // Exportación completa en streaming: DTOs (nada queda en el contexto de persistencia) y fetch size
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_VENTA_DTO + " ORDER BY v.ventaId")
+    Stream<VentaDTO> streamAllDTOs();
+
+    String ORDEN_HISTORIAL = " ORDER BY v.fechaVenta DESC, v.ventaId DESC";
+
+    @Query(SELECT_VENTA_DTO + " WHERE v.compradorId = :compradorId" + ORDEN_HISTORIAL)
+    List<VentaDTO> findDTOsByCompradorId(@Param("compradorId") Integer compradorId);
+
+    @Query(SELECT_VENTA_DTO + " WHERE v.vendedorId = :vendedorId" + ORDEN_HISTORIAL)
+    List<VentaDTO> findDTOsByVendedorId(@Param("vendedorId") Integer vendedorId);
+
+    // Historial paginado (keyset): ventas desde :desde y anteriores a (:fecha, :ventaId), de la más reciente
+    // a la más antigua. Recorre idx_venta_vista_comprador_fecha / idx_venta_vista_vendedor_fecha sin OFFSET
+    String PAGINA_HISTORIAL = " AND v.fechaVenta >= :desde AND (v.fechaVenta, v.ventaId) < (:fecha, :ventaId)"
+            + ORDEN_HISTORIAL;
+
+    @Query(SELECT_VENTA_DTO + " WHERE v.compradorId = :compradorId" + PAGINA_HISTORIAL)
+    List<VentaDTO> findPaginaByCompradorId(@Param("compradorId") Integer compradorId,
+                                           @Param("desde") LocalDateTime desde,
+                                           @Param("fecha") LocalDateTime fecha,
+                                           @Param("ventaId") Integer ventaId,
+                                           Limit limit);
+
+    @Query(SELECT_VENTA_DTO + " WHERE v.vendedorId = :vendedorId" + PAGINA_HISTORIAL)
+    List<VentaDTO> findPaginaByVendedorId(@Param("vendedorId") Integer vendedorId,
+                                          @Param("desde") LocalDateTime desde,
+                                          @Param("fecha") LocalDateTime fecha,
+                                          @Param("ventaId") Integer ventaId,
+                                          Limit limit);
+
+    // Renombrados: se reescriben todas las filas copiadas del producto o del artista
+    @Modifying
+    @Query("UPDATE VentaVista v SET v.tituloProducto = :titulo WHERE v.productoId = :productoId")
+    int renombrarProducto(@Param("productoId") Integer productoId, @Param("titulo") String titulo);
+
+    @Modifying
+    @Query("UPDATE VentaVista v SET v.nombreVendedor = :nombre WHERE v.vendedorId = :vendedorId")
+    int renombrarVendedor(@Param("vendedorId") Integer vendedorId, @Param("nombre") String nombre);
+
+    // Copia las ventas del tramo que aún no están en la vista (las anteriores a la tabla)
+    @Modifying
+    @Query("INSERT INTO VentaVista (ventaId, productoId, tituloProducto, compradorId, emailComprador, "
+            + "vendedorId, nombreVendedor, precioVenta, comisionMarketplace, fechaVenta, idTransaccionGateway) "
+            + "SELECT v.ventaId, p.productoId, p.titulo, u.usuarioId, u.email, a.artistaId, a.nombreCompleto, "
+            + "v.precioVenta, v.comisionMarketplace, v.fechaVenta, v.idTransaccionGateway "
+            + "FROM Venta v JOIN v.producto p JOIN v.comprador u JOIN v.vendedor a "
+            + "WHERE v.ventaId BETWEEN :desde AND :hasta "
+            + "AND NOT EXISTS (SELECT 1 FROM VentaVista vv WHERE vv.ventaId = v.ventaId)")
+    int completar(@Param("desde") Integer desde, @Param("hasta") Integer hasta);
+}
@@ -0,0 +1,9 @@
+package com.marketplace.backend.repository;
+
+import java.time.LocalDateTime;
+
+// Proyección mínima para validar ETag / Last-Modified sin cargar la entidad
+public interface VersionProjection {
+    Integer getId();
+    LocalDateTime getFechaUpdate();
+}
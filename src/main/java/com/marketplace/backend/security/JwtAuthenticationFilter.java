@@ -1,5 +1,6 @@
 package com.marketplace.backend.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -30,23 +31,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
-
+        // Una sola verificación por petición: los controladores leen los claims del atributo
+        Claims claims = null;
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
-                log.debug("Token recibido para usuario: {}", username);
+                claims = jwtUtil.verificar(authorizationHeader.substring(7));
+                request.setAttribute(JwtUtil.ATRIBUTO_CLAIMS, claims);
+                log.debug("Token recibido para usuario: {}", claims.getSubject());
             } catch (Exception e) {
-                log.error("Error al extraer el username del token: {}", e.getMessage());
+                log.error("Error al verificar el token: {}", e.getMessage());
             }
         }
 
+        String username = claims != null ? claims.getSubject() : null;
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (username.equals(userDetails.getUsername())) {
                 UsernamePasswordAuthenticationToken authenticationToken =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities());
@@ -1,32 +1,115 @@
 package com.marketplace.backend.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Function;
 
+/**
+ * Emisión y verificación de tokens. La clave y el parser se construyen una
+ * vez. Los tokens ya verificados se guardan (por hash SHA-256, no el token)
+ * en una caché LRU acotada hasta su expiración: un mismo token se parsea y
+ * se comprueba su firma una sola vez, no en cada petición.
+ */
 @Component
 @Slf4j
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    // Atributo de la petición con los claims que verificó JwtAuthenticationFilter
+    public static final String ATRIBUTO_CLAIMS = "jwt.claims";
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    private record Verificado(Claims claims, long expiraMs) {
+    }
+
+    private final Long expiration;
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final int maxEntradas;
+
+    // Orden de acceso: el primero es el menos usado recientemente. Protegida por su monitor
+    private final LinkedHashMap<String, Verificado> verificados;
+
+    private final Counter aciertos;
+    private final Counter fallos;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") Long expiration,
+                   @Value("${jwt.cache.max-entradas:10000}") int maxEntradas,
+                   MeterRegistry meterRegistry) {
+        this.expiration = expiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.maxEntradas = maxEntradas;
+        this.verificados = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Verificado> eldest) {
+                return size() > JwtUtil.this.maxEntradas;
+            }
+        };
+        this.aciertos = Counter.builder("jwt.cache")
+                .description("Verificaciones de tokens resueltas con la caché")
+                .tag("resultado", "acierto")
+                .register(meterRegistry);
+        this.fallos = Counter.builder("jwt.cache")
+                .description("Verificaciones de tokens resueltas con la caché")
+                .tag("resultado", "fallo")
+                .register(meterRegistry);
+        Gauge.builder("jwt.cache.entradas", this, JwtUtil::getTotalEntradas)
+                .description("Tokens verificados en caché")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Claims de un token con firma válida y sin expirar. Lanza JwtException
+     * (o IllegalArgumentException) si no lo es. Los claims devueltos se
+     * comparten entre peticiones: solo lectura.
+     */
+    public Claims verificar(String token) {
+        String clave = hash(token);
+        long ahora = System.currentTimeMillis();
+        synchronized (this) {
+            Verificado verificado = verificados.get(clave);
+            if (verificado != null) {
+                if (verificado.expiraMs() > ahora) {
+                    aciertos.increment();
+                    return verificado.claims();
+                }
+                verificados.remove(clave);
+            }
+        }
+        fallos.increment();
+
+        // Parsear y comprobar la firma fuera del lock; un token expirado lanza aquí
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            synchronized (this) {
+                verificados.put(clave, new Verificado(claims, claims.getExpiration().getTime()));
+            }
+        }
+        return claims;
+    }
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    public static Integer getUsuarioId(Claims claims) {
+        return ((Number) claims.get("usuarioId")).intValue();
     }
 
     public String extractUsername(String token) {
@@ -38,20 +121,18 @@ public class JwtUtil {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verificar(token));
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // Los tokens expirados que nadie vuelve a presentar no se quedan en la caché
+    @Scheduled(fixedDelayString = "${jwt.cache.purga-ms:60000}")
+    public synchronized void purgarExpirados() {
+        long ahora = System.currentTimeMillis();
+        verificados.values().removeIf(verificado -> verificado.expiraMs() <= ahora);
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public synchronized int getTotalEntradas() {
+        return verificados.size();
     }
 
     public String generateToken(String username, Integer usuarioId, String rol) {
@@ -73,12 +154,16 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
     }
-}
\ No newline at end of file
+}
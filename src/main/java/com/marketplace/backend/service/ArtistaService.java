@@ -1,13 +1,18 @@
 package com.marketplace.backend.service;
 
 import com.marketplace.backend.dto.ArtistaDTO;
+import com.marketplace.backend.dto.VersionRecursoDTO;
+import com.marketplace.backend.event.ProductoCambiadoEvent;
 import com.marketplace.backend.exception.BadRequestException;
 import com.marketplace.backend.exception.ResourceNotFoundException;
 import com.marketplace.backend.model.Artista;
 import com.marketplace.backend.model.Usuario;
 import com.marketplace.backend.repository.ArtistaRepository;
+import com.marketplace.backend.repository.ProductoRepository;
 import com.marketplace.backend.repository.UsuarioRepository;
+import com.marketplace.backend.repository.VentaVistaRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +25,9 @@ public class ArtistaService {
 
     private final ArtistaRepository artistaRepository;
     private final UsuarioRepository usuarioRepository;
+    private final ProductoRepository productoRepository;
+    private final VentaVistaRepository ventaVistaRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<ArtistaDTO> getAllArtistas() {
@@ -35,6 +43,13 @@ public class ArtistaService {
         return convertToDTO(artista);
     }
 
+    @Transactional(readOnly = true)
+    public VersionRecursoDTO getVersionArtista(Integer id) {
+        return artistaRepository.findVersionById(id)
+                .map(version -> VersionRecursoDTO.de("a", id, version.getFechaUpdate()))
+                .orElseThrow(() -> new ResourceNotFoundException("Artista no encontrado con id: " + id));
+    }
+
     @Transactional(readOnly = true)
     public ArtistaDTO getArtistaByUsuarioId(Integer usuarioId) {
         Artista artista = artistaRepository.findByUsuarioUsuarioId(usuarioId)
@@ -75,15 +90,30 @@ public class ArtistaService {
             throw new BadRequestException("Ya existe un artista con este DNI");
         }
 
+        Artista.Especialidad especialidad = Artista.Especialidad.valueOf(artistaDTO.getEspecialidad());
+        boolean cambiaNombre = !artista.getNombreCompleto().equals(artistaDTO.getNombreCompleto());
+        boolean cambiaEnProductos = cambiaNombre || artista.getEspecialidad() != especialidad;
+
         artista.setNombreCompleto(artistaDTO.getNombreCompleto());
         artista.setDni(artistaDTO.getDni());
         artista.setFechaNacimiento(artistaDTO.getFechaNacimiento());
         artista.setTelefono(artistaDTO.getTelefono());
         artista.setDomicilio(artistaDTO.getDomicilio());
-        artista.setEspecialidad(Artista.Especialidad.valueOf(artistaDTO.getEspecialidad()));
+        artista.setEspecialidad(especialidad);
         artista.setBiografia(artistaDTO.getBiografia());
 
-        artista = artistaRepository.save(artista);
+        // saveAndFlush: el UPDATE (y su bloqueo de la fila) va antes que el de venta_vista, no en el commit.
+        // Una compra en curso lo hace esperar hasta confirmar, y entonces su fila de la vista ya se ve
+        artista = artistaRepository.saveAndFlush(artista);
+        if (cambiaNombre) {
+            ventaVistaRepository.renombrarVendedor(id, artista.getNombreCompleto());
+        }
+
+        // Nombre y especialidad del artista van dentro de cada ProductoDTO en memoria
+        if (cambiaEnProductos) {
+            eventPublisher.publishEvent(new ProductoCambiadoEvent(
+                    productoRepository.findDTOsByArtistaId(id), List.of()));
+        }
         return convertToDTO(artista);
     }
 
@@ -5,6 +5,7 @@ import com.marketplace.backend.dto.LoginRequest;
 import com.marketplace.backend.dto.RegisterRequest;
 import com.marketplace.backend.exception.BadRequestException;
 import com.marketplace.backend.model.Billetera;
+import com.marketplace.backend.model.Dinero;
 import com.marketplace.backend.model.Usuario;
 import com.marketplace.backend.repository.BilleteraRepository;
 import com.marketplace.backend.repository.UsuarioRepository;
@@ -17,7 +18,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+
 
 @Service
 @RequiredArgsConstructor
@@ -50,7 +51,7 @@ public class AuthService {
         if (usuario.getRol() == Usuario.Rol.CLIENTE || usuario.getRol() == Usuario.Rol.ARTISTA) {
             Billetera billetera = new Billetera();
             billetera.setUsuario(usuario);
-            billetera.setSaldo(BigDecimal.ZERO);
+            billetera.setSaldo(Dinero.CERO);
             billeteraRepository.save(billetera);
             log.info("Billetera creada automáticamente para usuario ID: {}", usuario.getUsuarioId());
         }
@@ -1,46 +1,63 @@
 package com.marketplace.backend.service;
 
 import com.marketplace.backend.dto.BilleteraDTO;
+import com.marketplace.backend.dto.MovimientoBilleteraDTO;
+import com.marketplace.backend.dto.PaginaCursorDTO;
+import com.marketplace.backend.exception.BadRequestException;
 import com.marketplace.backend.exception.ResourceNotFoundException;
 import com.marketplace.backend.model.Billetera;
+import com.marketplace.backend.model.Dinero;
+import com.marketplace.backend.model.MovimientoBilletera;
 import com.marketplace.backend.model.Usuario;
 import com.marketplace.backend.repository.BilleteraRepository;
+import com.marketplace.backend.repository.MovimientoBilleteraRepository;
 import com.marketplace.backend.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 
+/**
+ * Billeteras con libro de movimientos: cada recarga o compra inserta un
+ * movimiento y, en la misma transacción, ajusta billetera.saldo con un UPDATE
+ * condicional. El saldo de la fila es el saldo actual; el libro es el
+ * historial y ConciliacionBilleteraService comprueba que ambos cuadran.
+ * El saldo no se calcula desde el libro: el descuento condicional sobre la
+ * fila es lo que impide gastar dos veces el mismo saldo sin bloqueos.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BilleteraService {
 
+    static final int TAMANO_PAGINA_MAXIMO = 100;
+    private static final Dinero CARGA_MAXIMA = Dinero.de("10000");
+
     private final BilleteraRepository billeteraRepository;
+    private final MovimientoBilleteraRepository movimientoRepository;
     private final UsuarioRepository usuarioRepository;
 
     @Transactional(readOnly = true)
     public BilleteraDTO getBilleteraByUsuarioId(Integer usuarioId) {
         log.info("Obteniendo billetera del usuario ID: {}", usuarioId);
         
-        Billetera billetera = billeteraRepository.findByUsuarioUsuarioId(usuarioId)
+        return billeteraRepository.findDTOByUsuarioId(usuarioId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Billetera no encontrada para el usuario ID: " + usuarioId));
-        
-        return convertToDTO(billetera);
     }
 
     @Transactional(readOnly = true)
     public BilleteraDTO getBilleteraById(Integer billeteraId) {
         log.info("Obteniendo billetera por ID: {}", billeteraId);
         
-        Billetera billetera = billeteraRepository.findById(billeteraId)
+        return billeteraRepository.findDTOById(billeteraId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Billetera no encontrada con ID: " + billeteraId));
-        
-        return convertToDTO(billetera);
     }
 
     @Transactional
@@ -58,75 +75,98 @@ public class BilleteraService {
         
         Billetera billetera = new Billetera();
         billetera.setUsuario(usuario);
-        billetera.setSaldo(BigDecimal.ZERO);
+        billetera.setSaldo(Dinero.CERO);
         
         Billetera savedBilletera = billeteraRepository.save(billetera);
         log.info("Billetera creada exitosamente con ID: {}", savedBilletera.getBilleteraId());
         
-        return convertToDTO(savedBilletera);
+        return new BilleteraDTO(savedBilletera.getBilleteraId(), savedBilletera.getSaldo(),
+                savedBilletera.getFechaUpdate(), usuarioId);
     }
 
     @Transactional
-    public BilleteraDTO cargarSaldo(Integer usuarioId, BigDecimal monto) {
-        log.info("Cargando saldo (simulado) al usuario ID: {} - Monto: {}", usuarioId, monto);
-        
-        if (monto.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("El monto debe ser mayor a cero");
+    public BilleteraDTO cargarSaldo(Integer usuarioId, BigDecimal importe) {
+        log.info("Cargando saldo (simulado) al usuario ID: {} - Monto: {}", usuarioId, importe);
+        
+        // Errores de la petición: 400, no el 500 del manejador genérico
+        Dinero monto;
+        try {
+            monto = Dinero.de(importe);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("El monto no puede tener más de dos decimales");
+        }
+        if (monto.signum() <= 0) {
+            throw new BadRequestException("El monto debe ser mayor a cero");
         }
         
         // Validar que el monto no sea excesivo (opcional)
-        if (monto.compareTo(new BigDecimal("10000")) > 0) {
-            throw new IllegalArgumentException("El monto máximo a cargar es S/ 10,000");
+        if (monto.esMayorQue(CARGA_MAXIMA)) {
+            throw new BadRequestException("El monto máximo a cargar es S/ 10,000");
         }
         
-        Billetera billetera = billeteraRepository.findByUsuarioUsuarioId(usuarioId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Billetera no encontrada para el usuario ID: " + usuarioId));
-        
-        BigDecimal nuevoSaldo = billetera.getSaldo().add(monto);
-        billetera.setSaldo(nuevoSaldo);
-        
-        Billetera updatedBilletera = billeteraRepository.save(billetera);
-        log.info("Saldo cargado exitosamente. Nuevo saldo: {}", nuevoSaldo);
+        // Suma en la base de datos: dos recargas simultáneas no se pisan
+        LocalDateTime ahora = LocalDateTime.now();
+        if (billeteraRepository.cargar(usuarioId, monto, ahora) == 0) {
+            throw new ResourceNotFoundException("Billetera no encontrada para el usuario ID: " + usuarioId);
+        }
+        movimientoRepository.registrar(usuarioId, MovimientoBilletera.Tipo.CARGA, monto,
+                "Recarga de saldo", ahora);
         
-        return convertToDTO(updatedBilletera);
+        BilleteraDTO billetera = getBilleteraByUsuarioId(usuarioId);
+        log.info("Saldo cargado exitosamente. Nuevo saldo: {}", billetera.getSaldo());
+        return billetera;
     }
 
+    /**
+     * Descuenta el monto con un único UPDATE condicional (saldo >= monto), sin
+     * leer antes la billetera: compras simultáneas del mismo usuario no pierden
+     * débitos ni dejan el saldo en negativo. Después apunta el cargo en el libro.
+     * Solo si no se actualiza ninguna fila se consulta la billetera para
+     * distinguir el motivo.
+     */
     @Transactional
-    public BilleteraDTO descontarSaldo(Integer usuarioId, BigDecimal monto) {
+    public void descontarSaldo(Integer usuarioId, Dinero monto, String concepto) {
         log.info("Descontando saldo del usuario ID: {} - Monto: {}", usuarioId, monto);
         
-        if (monto.compareTo(BigDecimal.ZERO) <= 0) {
+        if (monto.signum() <= 0) {
             throw new IllegalArgumentException("El monto debe ser mayor a cero");
         }
         
-        Billetera billetera = billeteraRepository.findByUsuarioUsuarioId(usuarioId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Billetera no encontrada para el usuario ID: " + usuarioId));
-        
-        BigDecimal nuevoSaldo = billetera.getSaldo().subtract(monto);
-        
-        if (nuevoSaldo.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException(
-                "Saldo insuficiente. Saldo actual: S/ " + billetera.getSaldo() + 
-                ", Se requiere: S/ " + monto
-            );
+        LocalDateTime ahora = LocalDateTime.now();
+        if (billeteraRepository.descontar(usuarioId, monto, ahora) == 1) {
+            movimientoRepository.registrar(usuarioId, MovimientoBilletera.Tipo.COMPRA,
+                    monto.negar(), concepto, ahora);
+            log.info("Saldo descontado exitosamente");
+            return;
         }
         
-        billetera.setSaldo(nuevoSaldo);
-        Billetera updatedBilletera = billeteraRepository.save(billetera);
-        
-        log.info("Saldo descontado exitosamente. Nuevo saldo: {}", nuevoSaldo);
-        
-        return convertToDTO(updatedBilletera);
+        Dinero saldo = billeteraRepository.findDTOByUsuarioId(usuarioId)
+                .map(BilleteraDTO::getSaldo)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Billetera no encontrada para el usuario ID: " + usuarioId));
+        throw new IllegalArgumentException(
+            "Saldo insuficiente. Saldo actual: S/ " + saldo + 
+            ", Se requiere: S/ " + monto
+        );
     }
 
-    private BilleteraDTO convertToDTO(Billetera billetera) {
-        BilleteraDTO dto = new BilleteraDTO();
-        dto.setBilleteraId(billetera.getBilleteraId());
-        dto.setSaldo(billetera.getSaldo());
-        dto.setFechaUpdate(billetera.getFechaUpdate());
-        dto.setUsuarioId(billetera.getUsuario().getUsuarioId());
-        return dto;
+    // Extracto de movimientos, del más reciente al más antiguo
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<MovimientoBilleteraDTO> getMovimientos(Integer usuarioId, int tamano, String cursor) {
+        if (tamano < 1 || tamano > TAMANO_PAGINA_MAXIMO) {
+            throw new BadRequestException("El tamaño de página debe estar entre 1 y " + TAMANO_PAGINA_MAXIMO);
+        }
+        Integer billeteraId = billeteraRepository.findIdByUsuarioId(usuarioId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Billetera no encontrada para el usuario ID: " + usuarioId));
+        
+        List<MovimientoBilleteraDTO> movimientos = movimientoRepository.findPagina(
+                billeteraId, PaginaCursor.decodificarId(cursor), Limit.of(tamano + 1));
+        boolean hayMas = movimientos.size() > tamano;
+        if (hayMas) {
+            movimientos = movimientos.subList(0, tamano);
+        }
+        String siguiente = hayMas ? PaginaCursor.codificar(movimientos.get(tamano - 1).getMovimientoId()) : null;
+        return new PaginaCursorDTO<>(movimientos, siguiente, hayMas);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,125 @@
+package com.marketplace.backend.service;
+
+import java.util.Arrays;
+
+/**
+ * Bitset mínimo indexado por productoId. A diferencia de java.util.BitSet
+ * permite contar la intersección de dos conjuntos sin crear uno nuevo, que es
+ * la operación que más se repite al calcular facetas.
+ */
+final class Bits {
+
+    private long[] palabras;
+
+    Bits() {
+        this(64);
+    }
+
+    Bits(int capacidad) {
+        palabras = new long[Math.max(1, (capacidad + 63) >>> 6)];
+    }
+
+    private Bits(long[] palabras) {
+        this.palabras = palabras;
+    }
+
+    void set(int i) {
+        int p = i >>> 6;
+        if (p >= palabras.length) {
+            palabras = Arrays.copyOf(palabras, Math.max(p + 1, palabras.length * 2));
+        }
+        palabras[p] |= 1L << i;
+    }
+
+    void clear(int i) {
+        int p = i >>> 6;
+        if (p < palabras.length) {
+            palabras[p] &= ~(1L << i);
+        }
+    }
+
+    boolean get(int i) {
+        int p = i >>> 6;
+        return p < palabras.length && (palabras[p] & (1L << i)) != 0;
+    }
+
+    Bits copia() {
+        return new Bits(palabras.clone());
+    }
+
+    Bits and(Bits otro) {
+        int comunes = Math.min(palabras.length, otro.palabras.length);
+        for (int p = 0; p < comunes; p++) {
+            palabras[p] &= otro.palabras[p];
+        }
+        Arrays.fill(palabras, comunes, palabras.length, 0L);
+        return this;
+    }
+
+    Bits or(Bits otro) {
+        if (otro.palabras.length > palabras.length) {
+            palabras = Arrays.copyOf(palabras, otro.palabras.length);
+        }
+        for (int p = 0; p < otro.palabras.length; p++) {
+            palabras[p] |= otro.palabras[p];
+        }
+        return this;
+    }
+
+    int cardinalidad() {
+        int total = 0;
+        for (long palabra : palabras) {
+            total += Long.bitCount(palabra);
+        }
+        return total;
+    }
+
+    int contarInterseccion(Bits otro) {
+        int comunes = Math.min(palabras.length, otro.palabras.length);
+        int total = 0;
+        for (int p = 0; p < comunes; p++) {
+            total += Long.bitCount(palabras[p] & otro.palabras[p]);
+        }
+        return total;
+    }
+
+    // Índice del bit encendido anterior o igual a desde, o -1
+    int anterior(int desde) {
+        int p = Math.min(desde >>> 6, palabras.length - 1);
+        if (p < 0) {
+            return -1;
+        }
+        long palabra = (desde >>> 6) == p ? palabras[p] & (-1L >>> (63 - (desde & 63))) : palabras[p];
+        while (true) {
+            if (palabra != 0) {
+                return (p << 6) + 63 - Long.numberOfLeadingZeros(palabra);
+            }
+            if (--p < 0) {
+                return -1;
+            }
+            palabra = palabras[p];
+        }
+    }
+
+    // Índice del bit encendido siguiente o igual a desde, o -1
+    int siguiente(int desde) {
+        int p = desde >>> 6;
+        if (p >= palabras.length) {
+            return -1;
+        }
+        long palabra = palabras[p] & (-1L << desde);
+        while (true) {
+            if (palabra != 0) {
+                return (p << 6) + Long.numberOfTrailingZeros(palabra);
+            }
+            if (++p == palabras.length) {
+                return -1;
+            }
+            palabra = palabras[p];
+        }
+    }
+
+    int capacidad() {
+        return palabras.length << 6;
+    }
+}
@@ -0,0 +1,160 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.event.ProductoCambiadoEvent;
+import com.marketplace.backend.exception.BadRequestException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * Búsqueda de texto completo sobre los productos publicados (título,
+ * descripción, artista y categoría). El índice vive en memoria y se actualiza
+ * con cada ProductoCambiadoEvent. FacetasService combina la consulta con los
+ * filtros y devuelve los productos desde el snapshot del catálogo.
+ */
+@Service
+@Slf4j
+public class BuscadorService {
+
+    private static final int PESO_TITULO = 3;
+    private static final int PESO_ARTISTA = 2;
+    private static final int PESO_CATEGORIA = 2;
+    private static final int PESO_DESCRIPCION = 1;
+
+    static final int RESULTADOS_MAXIMOS = 1000;
+
+    private final CatalogoService catalogoService;
+    private final Timer tiempoBusqueda;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile IndiceInvertido indice;
+
+    public BuscadorService(CatalogoService catalogoService, MeterRegistry meterRegistry) {
+        this.catalogoService = catalogoService;
+        this.tiempoBusqueda = Timer.builder("buscador.consulta")
+                .description("Tiempo de las consultas de texto completo")
+                .register(meterRegistry);
+        Gauge.builder("buscador.documentos", this, b -> b.indice == null ? 0 : b.indice.getDocsVivos())
+                .description("Productos indexados")
+                .register(meterRegistry);
+        Gauge.builder("buscador.terminos", this, b -> b.indice == null ? 0 : b.indice.getTerminos())
+                .description("Términos distintos en el índice")
+                .register(meterRegistry);
+    }
+
+    static List<String> consulta(String texto) {
+        List<String> consulta = Tokenizador.tokenizar(texto);
+        if (consulta.isEmpty()) {
+            throw new BadRequestException("La búsqueda no contiene términos válidos");
+        }
+        return consulta;
+    }
+
+    // Todos los productos que coinciden con la consulta, sin ranking
+    Bits coincidencias(Collection<String> consulta) {
+        Bits coincidencias = new Bits();
+        buscarIds(consulta, id -> {
+            coincidencias.set(id);
+            return false;
+        }, 0);
+        return coincidencias;
+    }
+
+    /**
+     * Devuelve los ids que coinciden, ordenados por relevancia. El filtro se
+     * aplica dentro del recorrido del índice.
+     */
+    IndiceInvertido.Resultado buscarIds(Collection<String> consulta, IntPredicate filtro, int limite) {
+        IndiceInvertido actual = getIndice();
+        long inicio = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            return actual.buscar(new LinkedHashSet<>(consulta), filtro, Math.min(limite, RESULTADOS_MAXIMOS));
+        } finally {
+            lock.readLock().unlock();
+            tiempoBusqueda.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    public synchronized void reconstruir() {
+        IndiceInvertido nuevo = new IndiceInvertido();
+        for (ProductoDTO producto : catalogoService.getPublicados()) {
+            nuevo.agregar(producto.getProductoId(), frecuencias(producto));
+        }
+        indice = nuevo;
+        log.info("Índice de búsqueda reconstruido: {} productos, {} términos",
+                nuevo.getDocsVivos(), nuevo.getTerminos());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductoCambiado(ProductoCambiadoEvent event) {
+        IndiceInvertido actual = indice;
+        if (actual == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            event.getEliminados().forEach(actual::eliminar);
+            // Se indexa la versión del snapshot, que descarta los cambios que llegan atrasados
+            Map<Integer, ProductoDTO> publicados = catalogoService.getSnapshot().getPorId();
+            for (ProductoDTO cambiado : event.getActualizados()) {
+                ProductoDTO producto = publicados.get(cambiado.getProductoId());
+                if (producto != null) {
+                    actual.agregar(producto.getProductoId(), frecuencias(producto));
+                } else {
+                    actual.eliminar(cambiado.getProductoId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Demasiadas versiones muertas: se reconstruye desde el snapshot
+        if (actual.getDocsMuertos() > 1000 && actual.getDocsMuertos() > actual.getDocsVivos() / 4) {
+            reconstruir();
+        }
+    }
+
+    private IndiceInvertido getIndice() {
+        IndiceInvertido actual = indice;
+        if (actual == null) {
+            reconstruir();
+            actual = indice;
+        }
+        return actual;
+    }
+
+    private static Map<String, Integer> frecuencias(ProductoDTO producto) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        sumar(frecuencias, producto.getTitulo(), PESO_TITULO);
+        sumar(frecuencias, producto.getNombreArtista(), PESO_ARTISTA);
+        sumar(frecuencias, producto.getNombreCategoria(), PESO_CATEGORIA);
+        sumar(frecuencias, producto.getDescripcion(), PESO_DESCRIPCION);
+        return frecuencias;
+    }
+
+    private static void sumar(Map<String, Integer> frecuencias, String texto, int peso) {
+        for (String token : Tokenizador.tokenizar(texto)) {
+            frecuencias.merge(token, peso, Integer::sum);
+        }
+    }
+}
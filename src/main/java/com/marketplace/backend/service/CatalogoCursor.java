@@ -0,0 +1,93 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.exception.BadRequestException;
+import com.marketplace.backend.model.Dinero;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Codifica y decodifica los cursores opacos del catálogo paginado.
+ * El token guarda el orden, la dirección y los valores de la última fila
+ * devuelta (campo de orden + productoId como desempate).
+ */
+public final class CatalogoCursor {
+
+    public enum Orden {
+        FECHA("fechaCreacion"),
+        PRECIO("precio"),
+        TITULO("titulo");
+
+        private final String propiedad;
+
+        Orden(String propiedad) {
+            this.propiedad = propiedad;
+        }
+
+        public String getPropiedad() {
+            return propiedad;
+        }
+
+        public static Orden desde(String valor) {
+            try {
+                return Orden.valueOf(valor.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Orden no válido: " + valor);
+            }
+        }
+    }
+
+    private CatalogoCursor() {
+    }
+
+    public static Sort sort(Orden orden, Sort.Direction direccion) {
+        return Sort.by(direccion, orden.getPropiedad(), "productoId");
+    }
+
+    public static String codificar(Orden orden, Sort.Direction direccion, ScrollPosition posicion) {
+        Map<String, ?> claves = ((KeysetScrollPosition) posicion).getKeys();
+        Object valor = claves.get(orden.getPropiedad());
+        String separador = PaginaCursor.SEPARADOR;
+        return PaginaCursor.codificarTexto(orden.name() + separador + direccion.name() + separador
+                + claves.get("productoId") + separador + aTexto(valor));
+    }
+
+    public static KeysetScrollPosition decodificar(String cursor, Orden orden, Sort.Direction direccion) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        String[] partes = PaginaCursor.decodificarTexto(cursor).split("\\" + PaginaCursor.SEPARADOR, 4);
+        try {
+            if (partes.length != 4
+                    || !partes[0].equals(orden.name())
+                    || !partes[1].equals(direccion.name())) {
+                throw new BadRequestException("El cursor no corresponde al orden solicitado");
+            }
+            Integer productoId = Integer.valueOf(partes[2]);
+            Object valor = desdeTexto(orden, partes[3]);
+            return ScrollPosition.forward(Map.of(orden.getPropiedad(), valor, "productoId", productoId));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw PaginaCursor.invalido();
+        }
+    }
+
+    private static String aTexto(Object valor) {
+        if (valor instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return String.valueOf(valor);
+    }
+
+    private static Object desdeTexto(Orden orden, String texto) {
+        return switch (orden) {
+            case FECHA -> LocalDateTime.parse(texto);
+            case PRECIO -> Dinero.de(texto);
+            case TITULO -> texto;
+        };
+    }
+}
@@ -0,0 +1,146 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.event.ProductoCambiadoEvent;
+import com.marketplace.backend.model.Producto;
+import com.marketplace.backend.repository.ProductoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Mantiene en memoria el snapshot de productos publicados. Las lecturas no
+ * tocan la base de datos; cada escritura en ProductoService reemplaza el
+ * snapshot completo de forma atómica (copy-on-write).
+ *
+ * Los eventos de dos transacciones sobre el mismo producto pueden llegar en
+ * otro orden que sus commits. Un producto solo se reemplaza si el evento trae
+ * un fechaUpdate igual o posterior al aplicado; de los que salen del catálogo
+ * se recuerda el último, y un eliminado ya no vuelve.
+ */
+@Service
+@Slf4j
+public class CatalogoService {
+
+    // Marca de los productos eliminados: ningún evento posterior los vuelve a publicar
+    private static final LocalDateTime ELIMINADO = LocalDateTime.MAX;
+
+    private final ProductoRepository productoRepository;
+    private final Timer tiempoReconstruccion;
+    private final Counter eventosAtrasados;
+
+    private volatile CatalogoSnapshot snapshot;
+
+    // Último fechaUpdate de los productos que no están en el snapshot. Protegido por el monitor del servicio
+    private final Map<Integer, LocalDateTime> retirados = new HashMap<>();
+
+    public CatalogoService(ProductoRepository productoRepository, MeterRegistry meterRegistry) {
+        this.productoRepository = productoRepository;
+        this.tiempoReconstruccion = Timer.builder("catalogo.snapshot.reconstruccion")
+                .description("Tiempo en construir un nuevo snapshot del catálogo")
+                .register(meterRegistry);
+        this.eventosAtrasados = Counter.builder("catalogo.snapshot.atrasados")
+                .description("Cambios de producto ignorados por llegar después de uno más reciente")
+                .register(meterRegistry);
+        Gauge.builder("catalogo.snapshot.edad", this, CatalogoService::getEdadSegundos)
+                .description("Segundos desde la última reconstrucción del snapshot")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("catalogo.snapshot.productos", this, CatalogoService::getTotalPublicados)
+                .description("Productos publicados en el snapshot")
+                .register(meterRegistry);
+    }
+
+    public CatalogoSnapshot getSnapshot() {
+        CatalogoSnapshot actual = snapshot;
+        return actual != null ? actual : reconstruir();
+    }
+
+    public List<ProductoDTO> getPublicados() {
+        return getSnapshot().getPublicados();
+    }
+
+    public List<ProductoDTO> getByArtista(Integer artistaId) {
+        return getSnapshot().getByArtista(artistaId);
+    }
+
+    public List<ProductoDTO> getByCategoria(Integer categoriaId) {
+        return getSnapshot().getByCategoria(categoriaId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public synchronized CatalogoSnapshot reconstruir() {
+        retirados.clear();
+        CatalogoSnapshot nuevo = reemplazar(actual -> CatalogoSnapshot.de(
+                productoRepository.findDTOsByEstado(Producto.Estado.PUBLICADO)));
+        log.info("Snapshot del catálogo reconstruido: {} productos publicados", nuevo.getPorId().size());
+        return nuevo;
+    }
+
+    // Primero el snapshot: los índices que se reconstruyen a partir de él lo necesitan al día
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(0)
+    public synchronized void onProductoCambiado(ProductoCambiadoEvent event) {
+        if (snapshot == null) {
+            // Aún no se construyó; la carga completa ya incluirá el cambio
+            return;
+        }
+        Map<Integer, ProductoDTO> publicados = snapshot.getPorId();
+        List<ProductoDTO> vigentes = new ArrayList<>(event.getActualizados().size());
+        for (ProductoDTO producto : event.getActualizados()) {
+            ProductoDTO anterior = publicados.get(producto.getProductoId());
+            LocalDateTime aplicado = anterior != null ? anterior.getFechaUpdate() : retirados.get(producto.getProductoId());
+            if (aplicado != null && producto.getFechaUpdate() != null && producto.getFechaUpdate().isBefore(aplicado)) {
+                eventosAtrasados.increment();
+                log.debug("Cambio atrasado del producto {} ignorado ({} anterior a {})",
+                        producto.getProductoId(), producto.getFechaUpdate(), aplicado);
+                continue;
+            }
+            if ("PUBLICADO".equals(producto.getEstado())) {
+                retirados.remove(producto.getProductoId());
+            } else if (producto.getFechaUpdate() != null) {
+                retirados.put(producto.getProductoId(), producto.getFechaUpdate());
+            }
+            vigentes.add(producto);
+        }
+        event.getEliminados().forEach(id -> retirados.put(id, ELIMINADO));
+        reemplazar(actual -> actual.con(vigentes, event.getEliminados()));
+    }
+
+    private CatalogoSnapshot reemplazar(UnaryOperator<CatalogoSnapshot> cambio) {
+        long inicio = System.nanoTime();
+        CatalogoSnapshot actual = snapshot != null ? snapshot : CatalogoSnapshot.vacio();
+        CatalogoSnapshot nuevo = cambio.apply(actual);
+        snapshot = nuevo;
+        tiempoReconstruccion.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        return nuevo;
+    }
+
+    private double getTotalPublicados() {
+        CatalogoSnapshot actual = snapshot;
+        return actual == null ? 0 : actual.getPorId().size();
+    }
+
+    private double getEdadSegundos() {
+        CatalogoSnapshot actual = snapshot;
+        return actual == null ? 0 : Duration.between(actual.getConstruido(), Instant.now()).toMillis() / 1000.0;
+    }
+}
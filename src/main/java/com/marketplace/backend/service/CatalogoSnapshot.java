@@ -0,0 +1,122 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.dto.ProductoDTO;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Copia inmutable de los productos publicados con índices por artista y
+ * categoría. Nunca se modifica: cada escritura construye una nueva.
+ */
+@Getter
+public final class CatalogoSnapshot {
+
+    private static final Comparator<ProductoDTO> POR_ID = Comparator.comparing(ProductoDTO::getProductoId);
+
+    private final List<ProductoDTO> publicados;
+    private final Map<Integer, ProductoDTO> porId;
+    private final Map<Integer, List<ProductoDTO>> porArtista;
+    private final Map<Integer, List<ProductoDTO>> porCategoria;
+    private final Instant construido;
+
+    private CatalogoSnapshot(Map<Integer, ProductoDTO> porId,
+                             Map<Integer, List<ProductoDTO>> porArtista,
+                             Map<Integer, List<ProductoDTO>> porCategoria) {
+        List<ProductoDTO> ordenados = new ArrayList<>(porId.values());
+        ordenados.sort(POR_ID);
+        this.publicados = List.copyOf(ordenados);
+        this.porId = Map.copyOf(porId);
+        this.porArtista = Map.copyOf(porArtista);
+        this.porCategoria = Map.copyOf(porCategoria);
+        this.construido = Instant.now();
+    }
+
+    public static CatalogoSnapshot vacio() {
+        return new CatalogoSnapshot(Map.of(), Map.of(), Map.of());
+    }
+
+    public static CatalogoSnapshot de(Collection<ProductoDTO> publicados) {
+        Map<Integer, ProductoDTO> porId = new HashMap<>();
+        publicados.forEach(p -> porId.put(p.getProductoId(), p));
+        return new CatalogoSnapshot(porId,
+                agrupar(porId.values(), ProductoDTO::getArtistaId),
+                agrupar(porId.values(), ProductoDTO::getCategoriaId));
+    }
+
+    public List<ProductoDTO> getByArtista(Integer artistaId) {
+        return porArtista.getOrDefault(artistaId, List.of());
+    }
+
+    public List<ProductoDTO> getByCategoria(Integer categoriaId) {
+        return porCategoria.getOrDefault(categoriaId, List.of());
+    }
+
+    /**
+     * Devuelve un snapshot nuevo con los cambios aplicados. Solo se recalculan
+     * las listas de los artistas y categorías afectados; el resto se comparte.
+     */
+    public CatalogoSnapshot con(Collection<ProductoDTO> actualizados, Collection<Integer> eliminados) {
+        Map<Integer, ProductoDTO> nuevoPorId = new HashMap<>(porId);
+        Set<Integer> artistas = new HashSet<>();
+        Set<Integer> categorias = new HashSet<>();
+
+        for (Integer id : eliminados) {
+            ProductoDTO anterior = nuevoPorId.remove(id);
+            if (anterior != null) {
+                artistas.add(anterior.getArtistaId());
+                categorias.add(anterior.getCategoriaId());
+            }
+        }
+        for (ProductoDTO producto : actualizados) {
+            ProductoDTO anterior = "PUBLICADO".equals(producto.getEstado())
+                    ? nuevoPorId.put(producto.getProductoId(), producto)
+                    : nuevoPorId.remove(producto.getProductoId());
+            if (anterior != null) {
+                artistas.add(anterior.getArtistaId());
+                categorias.add(anterior.getCategoriaId());
+            }
+            artistas.add(producto.getArtistaId());
+            categorias.add(producto.getCategoriaId());
+        }
+
+        return new CatalogoSnapshot(nuevoPorId,
+                reagrupar(porArtista, artistas, nuevoPorId.values(), ProductoDTO::getArtistaId),
+                reagrupar(porCategoria, categorias, nuevoPorId.values(), ProductoDTO::getCategoriaId));
+    }
+
+    private static Map<Integer, List<ProductoDTO>> agrupar(Collection<ProductoDTO> productos,
+                                                          Function<ProductoDTO, Integer> clave) {
+        Map<Integer, List<ProductoDTO>> grupos = new HashMap<>();
+        for (ProductoDTO producto : productos) {
+            grupos.computeIfAbsent(clave.apply(producto), k -> new ArrayList<>()).add(producto);
+        }
+        grupos.replaceAll((k, lista) -> {
+            lista.sort(POR_ID);
+            return List.copyOf(lista);
+        });
+        return grupos;
+    }
+
+    private static Map<Integer, List<ProductoDTO>> reagrupar(Map<Integer, List<ProductoDTO>> actuales,
+                                                            Set<Integer> afectados,
+                                                            Collection<ProductoDTO> productos,
+                                                            Function<ProductoDTO, Integer> clave) {
+        Map<Integer, List<ProductoDTO>> grupos = new HashMap<>(actuales);
+        afectados.forEach(grupos::remove);
+        List<ProductoDTO> deAfectados = productos.stream()
+                .filter(p -> afectados.contains(clave.apply(p)))
+                .toList();
+        grupos.putAll(agrupar(deAfectados, clave));
+        return grupos;
+    }
+}
@@ -1,10 +1,14 @@
 package com.marketplace.backend.service;
 
 import com.marketplace.backend.dto.CategoriaDTO;
+import com.marketplace.backend.dto.VersionRecursoDTO;
+import com.marketplace.backend.event.ProductoCambiadoEvent;
 import com.marketplace.backend.exception.ResourceNotFoundException;
 import com.marketplace.backend.model.Categoria;
 import com.marketplace.backend.repository.CategoriaRepository;
+import com.marketplace.backend.repository.ProductoRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +20,8 @@ import java.util.stream.Collectors;
 public class CategoriaService {
 
     private final CategoriaRepository categoriaRepository;
+    private final ProductoRepository productoRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<CategoriaDTO> getAllCategorias() {
@@ -31,6 +37,19 @@ public class CategoriaService {
         return convertToDTO(categoria);
     }
 
+    @Transactional(readOnly = true)
+    public VersionRecursoDTO getVersionCategorias() {
+        CategoriaRepository.VersionListado version = categoriaRepository.findVersionListado();
+        return VersionRecursoDTO.de("cs", version.getTotal(), version.getUltimaActualizacion());
+    }
+
+    @Transactional(readOnly = true)
+    public VersionRecursoDTO getVersionCategoria(Integer id) {
+        return categoriaRepository.findVersionById(id)
+                .map(version -> VersionRecursoDTO.de("c", id, version.getFechaUpdate()))
+                .orElseThrow(() -> new ResourceNotFoundException("Categoría no encontrada con id: " + id));
+    }
+
     @Transactional
     public CategoriaDTO createCategoria(CategoriaDTO categoriaDTO) {
         Categoria categoria = new Categoria();
@@ -45,9 +64,16 @@ public class CategoriaService {
         Categoria categoria = categoriaRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Categoría no encontrada con id: " + id));
         
+        boolean renombrada = !categoria.getNombre().equals(categoriaDTO.getNombre());
         categoria.setNombre(categoriaDTO.getNombre());
         categoria.setDescripcion(categoriaDTO.getDescripcion());
         categoria = categoriaRepository.save(categoria);
+
+        // El nombre de la categoría va dentro de cada ProductoDTO en memoria
+        if (renombrada) {
+            eventPublisher.publishEvent(new ProductoCambiadoEvent(
+                    productoRepository.findDTOsByCategoriaId(id), List.of()));
+        }
         return convertToDTO(categoria);
     }
 
@@ -0,0 +1,129 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.model.Billetera;
+import com.marketplace.backend.model.ConciliacionBilletera;
+import com.marketplace.backend.model.Dinero;
+import com.marketplace.backend.model.ProgresoConciliacion;
+import com.marketplace.backend.repository.BilleteraRepository;
+import com.marketplace.backend.repository.ConciliacionBilleteraRepository;
+import com.marketplace.backend.repository.MovimientoBilleteraRepository;
+import com.marketplace.backend.repository.ProgresoConciliacionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Concilia billetera.saldo con el libro de movimientos. El saldo actual se
+ * lee de la fila de la billetera (ver BilleteraService); el libro es el
+ * historial y este proceso comprueba que ambos cuadran.
+ *
+ * En cada pasada revisa las billeteras con movimientos nuevos: bloquea la fila
+ * de la billetera y comprueba que el último punto conciliado más los
+ * movimientos posteriores coincide con el saldo. Quien inserta un movimiento
+ * bloquea antes esa misma fila, así que bajo el bloqueo todos los movimientos
+ * de la billetera están confirmados y ninguno queda fuera de la suma. Las
+ * diferencias se registran y se cuentan en billetera.descuadres. La primera
+ * conciliación de una billetera solo fija el punto de partida: las billeteras
+ * anteriores al libro no tienen movimientos que expliquen su saldo.
+ *
+ * El avance se guarda en progreso_conciliacion: sobrevive a reinicios y, al
+ * bloquearse con SKIP LOCKED, solo una instancia concilia a la vez. Un
+ * movimiento que se confirme por debajo de ese avance no se pierde: entra en
+ * la siguiente conciliación de su billetera.
+ */
+@Service
+@Slf4j
+public class ConciliacionBilleteraService {
+
+    static final String PROGRESO = "billetera";
+
+    private final BilleteraRepository billeteraRepository;
+    private final MovimientoBilleteraRepository movimientoRepository;
+    private final ConciliacionBilleteraRepository conciliacionRepository;
+    private final ProgresoConciliacionRepository progresoRepository;
+    // Cada billetera en su propia transacción: su fila queda bloqueada solo mientras se concilia
+    private final TransactionTemplate porBilletera;
+    private final Counter conciliaciones;
+    private final Counter descuadres;
+
+    public ConciliacionBilleteraService(BilleteraRepository billeteraRepository,
+                                        MovimientoBilleteraRepository movimientoRepository,
+                                        ConciliacionBilleteraRepository conciliacionRepository,
+                                        ProgresoConciliacionRepository progresoRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry) {
+        this.billeteraRepository = billeteraRepository;
+        this.movimientoRepository = movimientoRepository;
+        this.conciliacionRepository = conciliacionRepository;
+        this.progresoRepository = progresoRepository;
+        this.porBilletera = new TransactionTemplate(transactionManager);
+        this.porBilletera.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.conciliaciones = Counter.builder("billetera.conciliaciones")
+                .description("Billeteras conciliadas con el libro de movimientos")
+                .register(meterRegistry);
+        this.descuadres = Counter.builder("billetera.descuadres")
+                .description("Conciliaciones en las que el libro de movimientos no cuadra con el saldo")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${billetera.conciliacion.intervalo-ms:60000}")
+    @Transactional
+    public synchronized void conciliar() {
+        progresoRepository.crearSiFalta(PROGRESO);
+        ProgresoConciliacion progreso = progresoRepository.findParaActualizar(PROGRESO).orElse(null);
+        if (progreso == null) {
+            return;
+        }
+        Long hasta = movimientoRepository.findUltimoId();
+        long revisadoHasta = progreso.getRevisadoHasta();
+        if (hasta == null || hasta <= revisadoHasta) {
+            return;
+        }
+
+        int conciliadas = 0;
+        List<Integer> billeteras = movimientoRepository.findBilleterasConMovimientos(revisadoHasta, hasta);
+        for (Integer billeteraId : billeteras) {
+            if (Boolean.TRUE.equals(porBilletera.execute(status -> conciliar(billeteraId)))) {
+                conciliadas++;
+            }
+        }
+        progreso.setRevisadoHasta(hasta);
+        conciliaciones.increment(conciliadas);
+        log.debug("Conciliación de billeteras: {} de {} revisadas (hasta movimiento {})",
+                conciliadas, billeteras.size(), hasta);
+    }
+
+    private boolean conciliar(Integer billeteraId) {
+        Billetera billetera = billeteraRepository.findByIdParaConciliar(billeteraId).orElse(null);
+        if (billetera == null) {
+            return false;
+        }
+        Long hasta = movimientoRepository.findUltimoIdDeBilletera(billeteraId);
+        ConciliacionBilletera anterior = conciliacionRepository.findById(billeteraId).orElse(null);
+        long desde = anterior != null ? anterior.getHastaMovimientoId() : 0;
+        if (hasta == null || desde >= hasta) {
+            return false;
+        }
+
+        Dinero saldo = billetera.getSaldo();
+        if (anterior != null) {
+            Dinero tramo = Dinero.de(movimientoRepository.sumarTramo(billeteraId, desde, hasta));
+            Dinero libro = anterior.getSaldo().sumar(tramo);
+            if (!libro.equals(saldo)) {
+                descuadres.increment();
+                log.error("La billetera {} no cuadra: saldo {}, libro {} (movimientos {} a {})",
+                        billeteraId, saldo, libro, desde, hasta);
+            }
+        }
+        conciliacionRepository.save(new ConciliacionBilletera(billeteraId, hasta, saldo));
+        return true;
+    }
+}
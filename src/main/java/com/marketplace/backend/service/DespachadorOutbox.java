@@ -0,0 +1,253 @@
+package com.marketplace.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.backend.event.EventoOutbox;
+import com.marketplace.backend.event.SuscriptorOutbox;
+import com.marketplace.backend.model.RegistroOutbox;
+import com.marketplace.backend.repository.RegistroOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vacía el outbox en segundo plano. Cada lote se reclama con FOR UPDATE SKIP
+ * LOCKED, se entrega a los suscriptores de cada tipo de evento y se marca como
+ * procesado en la misma transacción: los suscriptores EN_TRANSACCION ven cada
+ * evento exactamente una vez. Si el lote falla, se vuelve a despachar registro
+ * a registro, cada uno en su transacción, para que solo el registro culpable
+ * quede pendiente. Ese registro (o uno cuyo payload no se puede leer) se
+ * reintenta con espera exponencial y, tras INTENTOS_MAXIMOS, se descarta.
+ */
+@Service
+@Slf4j
+public class DespachadorOutbox {
+
+    static final int TAMANO_LOTE = 500;
+    private static final int LOTES_POR_PASADA = 20;
+    private static final Duration RETENCION = Duration.ofDays(7);
+    static final int INTENTOS_MAXIMOS = 10;
+    private static final Duration ESPERA_INICIAL = Duration.ofSeconds(5);
+    private static final Duration ESPERA_MAXIMA = Duration.ofHours(1);
+
+    private final RegistroOutboxRepository registroRepository;
+    private final List<SuscriptorOutbox<?>> suscriptores;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    // Tipo (nombre simple) -> clase, a partir de lo que piden los suscriptores
+    private final Map<String, Class<? extends EventoOutbox>> tipos = new HashMap<>();
+
+    private final AtomicLong retrasoMs = new AtomicLong();
+    private final Counter despachados;
+    private final Counter errores;
+    private final Counter descartados;
+    private final Timer lotes;
+
+    public DespachadorOutbox(RegistroOutboxRepository registroRepository, List<SuscriptorOutbox<?>> suscriptores,
+                             TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.registroRepository = registroRepository;
+        this.suscriptores = suscriptores;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        suscriptores.forEach(s -> tipos.put(s.getTipoEvento().getSimpleName(), s.getTipoEvento()));
+
+        Gauge.builder("outbox.retraso", retrasoMs, r -> r.get() / 1000.0)
+                .description("Antigüedad en segundos del evento pendiente más antiguo")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.despachados = Counter.builder("outbox.eventos")
+                .description("Eventos del outbox entregados")
+                .register(meterRegistry);
+        this.errores = Counter.builder("outbox.errores")
+                .description("Lotes o entregas del outbox que fallaron")
+                .register(meterRegistry);
+        this.descartados = Counter.builder("outbox.descartados")
+                .description("Eventos del outbox descartados tras agotar los reintentos")
+                .register(meterRegistry);
+        this.lotes = Timer.builder("outbox.lote")
+                .description("Tiempo de despacho de cada lote del outbox")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.intervalo-ms:500}")
+    public void despachar() {
+        try {
+            for (int i = 0; i < LOTES_POR_PASADA; i++) {
+                if (despacharLote() < TAMANO_LOTE) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            errores.increment();
+            log.error("Error al despachar el outbox: {}", e.getMessage(), e);
+        }
+        LocalDateTime masAntiguo = registroRepository.findPendienteMasAntiguo();
+        retrasoMs.set(masAntiguo == null ? 0 : Duration.between(masAntiguo, LocalDateTime.now()).toMillis());
+    }
+
+    // Devuelve cuántos eventos se despacharon
+    public int despacharLote() {
+        Timer.Sample muestra = Timer.start();
+        Map<SuscriptorOutbox<?>, List<EventoOutbox>> posteriores = new LinkedHashMap<>();
+        List<Long> reclamados = new ArrayList<>();
+
+        int procesados;
+        try {
+            Integer enLote = transactionTemplate.execute(status -> {
+                List<RegistroOutbox> lote = registroRepository.findPendientes(LocalDateTime.now(), Limit.of(TAMANO_LOTE));
+                lote.forEach(r -> reclamados.add(r.getEventoId()));
+                return entregar(lote, posteriores);
+            });
+            procesados = enLote != null ? enLote : 0;
+        } catch (RuntimeException e) {
+            errores.increment();
+            log.warn("Falló un lote de {} eventos del outbox, se despacha registro a registro: {}",
+                    reclamados.size(), e.getMessage());
+            posteriores.clear();
+            procesados = 0;
+            for (Long eventoId : reclamados) {
+                procesados += despacharRegistro(eventoId, posteriores);
+            }
+        }
+
+        posteriores.forEach((suscriptor, eventos) -> {
+            try {
+                entregar(suscriptor, eventos);
+            } catch (RuntimeException e) {
+                errores.increment();
+                log.error("Error en {} al procesar {} eventos: {}", suscriptor.getClass().getSimpleName(),
+                        eventos.size(), e.getMessage(), e);
+            }
+        });
+
+        if (procesados > 0) {
+            despachados.increment(procesados);
+            muestra.stop(lotes);
+        }
+        return procesados;
+    }
+
+    // Un registro en su propia transacción; si falla, se apunta el intento en otra
+    private int despacharRegistro(Long eventoId, Map<SuscriptorOutbox<?>, List<EventoOutbox>> posteriores) {
+        Map<SuscriptorOutbox<?>, List<EventoOutbox>> propios = new LinkedHashMap<>();
+        try {
+            Integer procesado = transactionTemplate.execute(status -> registroRepository.findPendiente(eventoId)
+                    .map(registro -> entregar(List.of(registro), propios))
+                    .orElse(0));
+            propios.forEach((suscriptor, eventos) ->
+                    posteriores.computeIfAbsent(suscriptor, s -> new ArrayList<>()).addAll(eventos));
+            return procesado != null ? procesado : 0;
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status ->
+                    registroRepository.findPendiente(eventoId).ifPresent(registro -> fallar(registro, e)));
+            return 0;
+        }
+    }
+
+    /**
+     * Entrega los registros a los suscriptores EN_TRANSACCION, deja en
+     * 'posteriores' lo que toca tras confirmar y marca los registros como
+     * procesados. Un payload ilegible cuenta como intento fallido de ese
+     * registro y no detiene el resto.
+     */
+    private int entregar(List<RegistroOutbox> registros, Map<SuscriptorOutbox<?>, List<EventoOutbox>> posteriores) {
+        if (registros.isEmpty()) {
+            return 0;
+        }
+        Map<String, List<EventoOutbox>> porTipo = new HashMap<>();
+        List<Long> entregados = new ArrayList<>(registros.size());
+        for (RegistroOutbox registro : registros) {
+            Class<? extends EventoOutbox> clase = tipos.get(registro.getTipo());
+            if (clase != null) {
+                EventoOutbox evento;
+                try {
+                    evento = leer(registro, clase);
+                } catch (RuntimeException e) {
+                    fallar(registro, e);
+                    continue;
+                }
+                porTipo.computeIfAbsent(registro.getTipo(), t -> new ArrayList<>()).add(evento);
+            }
+            entregados.add(registro.getEventoId());
+        }
+        for (SuscriptorOutbox<?> suscriptor : suscriptores) {
+            List<EventoOutbox> eventos = porTipo.get(suscriptor.getTipoEvento().getSimpleName());
+            if (eventos == null) {
+                continue;
+            }
+            if (suscriptor.getFase() == SuscriptorOutbox.Fase.EN_TRANSACCION) {
+                entregar(suscriptor, eventos);
+            } else {
+                posteriores.put(suscriptor, eventos);
+            }
+        }
+
+        if (!entregados.isEmpty()) {
+            registroRepository.marcarProcesados(entregados, LocalDateTime.now());
+        }
+        return entregados.size();
+    }
+
+    private void fallar(RegistroOutbox registro, RuntimeException e) {
+        errores.increment();
+        int intentos = registro.getIntentos() + 1;
+        registro.setIntentos(intentos);
+        String mensaje = String.valueOf(e.getMessage());
+        registro.setError(mensaje.length() > 500 ? mensaje.substring(0, 500) : mensaje);
+        if (intentos >= INTENTOS_MAXIMOS) {
+            registro.setFechaDescartado(LocalDateTime.now());
+            descartados.increment();
+            log.error("Evento {} del outbox ({}) descartado tras {} intentos: {}",
+                    registro.getEventoId(), registro.getTipo(), intentos, e.getMessage(), e);
+        } else {
+            registro.setFechaReintento(LocalDateTime.now().plus(espera(intentos)));
+            log.warn("Evento {} del outbox ({}) fallido, intento {}: {}",
+                    registro.getEventoId(), registro.getTipo(), intentos, e.getMessage());
+        }
+    }
+
+    // 5 s, 10 s, 20 s... hasta una hora
+    static Duration espera(int intentos) {
+        Duration espera = ESPERA_INICIAL.multipliedBy(1L << Math.min(intentos - 1, 20));
+        return espera.compareTo(ESPERA_MAXIMA) > 0 ? ESPERA_MAXIMA : espera;
+    }
+
+    @Scheduled(cron = "${outbox.purga.cron:0 30 3 * * *}")
+    @Transactional
+    public void purgar() {
+        int borrados = registroRepository.deleteProcesadosAntesDe(LocalDateTime.now().minus(RETENCION));
+        log.info("Eventos procesados del outbox eliminados: {}", borrados);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends EventoOutbox> void entregar(SuscriptorOutbox<E> suscriptor, List<EventoOutbox> eventos) {
+        suscriptor.procesar((List<E>) eventos);
+    }
+
+    private EventoOutbox leer(RegistroOutbox registro, Class<? extends EventoOutbox> clase) {
+        try {
+            return objectMapper.readValue(registro.getPayload(), clase);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
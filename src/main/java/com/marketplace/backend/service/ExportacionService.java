@@ -0,0 +1,182 @@
+package com.marketplace.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.dto.VentaDTO;
+import com.marketplace.backend.exception.BadRequestException;
+import com.marketplace.backend.repository.ProductoRepository;
+import com.marketplace.backend.repository.VentaVistaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Exportaciones completas de productos y ventas. Las filas salen de una
+ * consulta en streaming (cursor con fetch size) y se escriben una a una en la
+ * respuesta, así que la memoria no depende del número de filas. Se invoca
+ * desde un StreamingResponseBody: la transacción vive en el hilo que escribe.
+ */
+@Service
+@Slf4j
+public class ExportacionService {
+
+    public enum Formato {
+        JSON(MediaType.APPLICATION_JSON, "json"),
+        NDJSON(MediaType.valueOf("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.valueOf("text/csv;charset=UTF-8"), "csv");
+
+        private final MediaType tipo;
+        private final String extension;
+
+        Formato(MediaType tipo, String extension) {
+            this.tipo = tipo;
+            this.extension = extension;
+        }
+
+        public MediaType getTipo() {
+            return tipo;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Formato desde(String valor) {
+            try {
+                return valueOf(valor.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Formato no válido: " + valor);
+            }
+        }
+    }
+
+    private static final Map<String, Function<ProductoDTO, Object>> COLUMNAS_PRODUCTO = new LinkedHashMap<>();
+    static {
+        COLUMNAS_PRODUCTO.put("productoId", ProductoDTO::getProductoId);
+        COLUMNAS_PRODUCTO.put("artistaId", ProductoDTO::getArtistaId);
+        COLUMNAS_PRODUCTO.put("nombreArtista", ProductoDTO::getNombreArtista);
+        COLUMNAS_PRODUCTO.put("categoriaId", ProductoDTO::getCategoriaId);
+        COLUMNAS_PRODUCTO.put("nombreCategoria", ProductoDTO::getNombreCategoria);
+        COLUMNAS_PRODUCTO.put("titulo", ProductoDTO::getTitulo);
+        COLUMNAS_PRODUCTO.put("descripcion", ProductoDTO::getDescripcion);
+        COLUMNAS_PRODUCTO.put("precio", ProductoDTO::getPrecio);
+        COLUMNAS_PRODUCTO.put("rutaArchivo", ProductoDTO::getRutaArchivo);
+        COLUMNAS_PRODUCTO.put("tipoArchivo", ProductoDTO::getTipoArchivo);
+        COLUMNAS_PRODUCTO.put("urlMiniatura", ProductoDTO::getUrlMiniatura);
+        COLUMNAS_PRODUCTO.put("urlVistaPrevia", ProductoDTO::getUrlVistaPrevia);
+        COLUMNAS_PRODUCTO.put("estado", ProductoDTO::getEstado);
+        COLUMNAS_PRODUCTO.put("fechaCreacion", ProductoDTO::getFechaCreacion);
+        COLUMNAS_PRODUCTO.put("fechaUpdate", ProductoDTO::getFechaUpdate);
+    }
+
+    private static final Map<String, Function<VentaDTO, Object>> COLUMNAS_VENTA = new LinkedHashMap<>();
+    static {
+        COLUMNAS_VENTA.put("ventaId", VentaDTO::getVentaId);
+        COLUMNAS_VENTA.put("productoId", VentaDTO::getProductoId);
+        COLUMNAS_VENTA.put("tituloProducto", VentaDTO::getTituloProducto);
+        COLUMNAS_VENTA.put("compradorId", VentaDTO::getCompradorId);
+        COLUMNAS_VENTA.put("emailComprador", VentaDTO::getEmailComprador);
+        COLUMNAS_VENTA.put("vendedorId", VentaDTO::getVendedorId);
+        COLUMNAS_VENTA.put("nombreVendedor", VentaDTO::getNombreVendedor);
+        COLUMNAS_VENTA.put("precioVenta", VentaDTO::getPrecioVenta);
+        COLUMNAS_VENTA.put("comisionMarketplace", VentaDTO::getComisionMarketplace);
+        COLUMNAS_VENTA.put("fechaVenta", VentaDTO::getFechaVenta);
+        COLUMNAS_VENTA.put("idTransaccionGateway", VentaDTO::getIdTransaccionGateway);
+    }
+
+    private final ProductoRepository productoRepository;
+    private final VentaVistaRepository ventaVistaRepository;
+    private final ObjectWriter json;
+
+    public ExportacionService(ProductoRepository productoRepository, VentaVistaRepository ventaVistaRepository,
+                              ObjectMapper objectMapper) {
+        this.productoRepository = productoRepository;
+        this.ventaVistaRepository = ventaVistaRepository;
+        this.json = objectMapper.writer();
+    }
+
+    @Transactional(readOnly = true)
+    public void exportarProductos(OutputStream salida, Formato formato) throws IOException {
+        try (Stream<ProductoDTO> productos = productoRepository.streamAllDTOs()) {
+            long filas = escribir(productos.iterator(), salida, formato, COLUMNAS_PRODUCTO);
+            log.info("Exportados {} productos en formato {}", filas, formato);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportarVentas(OutputStream salida, Formato formato) throws IOException {
+        try (Stream<VentaDTO> ventas = ventaVistaRepository.streamAllDTOs()) {
+            long filas = escribir(ventas.iterator(), salida, formato, COLUMNAS_VENTA);
+            log.info("Exportadas {} ventas en formato {}", filas, formato);
+        }
+    }
+
+    private <T> long escribir(Iterator<T> filas, OutputStream destino, Formato formato,
+                              Map<String, Function<T, Object>> columnas) throws IOException {
+        OutputStream salida = new BufferedOutputStream(destino, 1 << 16);
+        long total = 0;
+        if (formato == Formato.CSV) {
+            escribirLinea(salida, columnas.keySet());
+        } else if (formato == Formato.JSON) {
+            salida.write('[');
+        }
+
+        while (filas.hasNext()) {
+            T fila = filas.next();
+            if (formato == Formato.CSV) {
+                escribirLinea(salida, columnas.values().stream().map(columna -> columna.apply(fila)).toList());
+            } else {
+                if (formato == Formato.JSON && total > 0) {
+                    salida.write(',');
+                }
+                salida.write(json.writeValueAsBytes(fila));
+                if (formato == Formato.NDJSON) {
+                    salida.write('\n');
+                }
+            }
+            total++;
+        }
+
+        if (formato == Formato.JSON) {
+            salida.write(']');
+        }
+        salida.flush();
+        return total;
+    }
+
+    // RFC 4180: entre comillas solo si hace falta, con "" como escape
+    private static void escribirLinea(OutputStream salida, Iterable<?> valores) throws IOException {
+        StringBuilder linea = new StringBuilder();
+        boolean primero = true;
+        for (Object valor : valores) {
+            if (!primero) {
+                linea.append(',');
+            }
+            primero = false;
+            String texto = valor == null ? ""
+                    : valor instanceof BigDecimal decimal ? decimal.toPlainString()
+                    : valor.toString();
+            if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0
+                    || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0) {
+                linea.append('"').append(texto.replace("\"", "\"\"")).append('"');
+            } else {
+                linea.append(texto);
+            }
+        }
+        linea.append("\r\n");
+        salida.write(linea.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,329 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.dto.FiltroBusquedaDTO;
+import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.dto.ResultadoBusquedaDTO;
+import com.marketplace.backend.event.ProductoCambiadoEvent;
+import com.marketplace.backend.exception.BadRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Búsqueda con filtros y conteo de facetas. Por cada valor de faceta
+ * (categoría, tipo de archivo, especialidad del artista y rango de precio)
+ * se mantiene un bitset indexado por productoId con los productos publicados
+ * que lo tienen; filtrar es intersecar bitsets y contar es hacer popcount.
+ */
+@Service
+@Slf4j
+public class FacetasService {
+
+    public static final String FACETA_CATEGORIA = "categoria";
+    public static final String FACETA_TIPO_ARCHIVO = "tipoArchivo";
+    public static final String FACETA_ESPECIALIDAD = "especialidad";
+    public static final String FACETA_PRECIO = "precio";
+
+    private static final int TAMANO_PAGINA_MAXIMO = 100;
+
+    // Límites de los rangos de precio, en céntimos: [0-10), [10-25), [25-50), [50-100), [100+)
+    private static final long[] LIMITES_PRECIO = {0, 1000, 2500, 5000, 10000, Long.MAX_VALUE};
+    // producto.precio es NUMERIC(10, 2): ningún filtro necesita pasar de ahí
+    private static final BigDecimal PRECIO_FILTRO_MAXIMO = new BigDecimal("99999999.99");
+    private static final String[] RANGOS_PRECIO = {"0-10", "10-25", "25-50", "50-100", "100+"};
+
+    private final CatalogoService catalogoService;
+    private final BuscadorService buscadorService;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Protegidos por el lock; solo se reemplazan al reconstruir
+    private Bits publicados = new Bits();
+    private Map<String, Bits> porCategoria = new HashMap<>();
+    private Map<String, Bits> porTipoArchivo = new HashMap<>();
+    private Map<String, Bits> porEspecialidad = new HashMap<>();
+    private Bits[] porRangoPrecio = new Bits[0];
+    private long[] precioCentimos = new long[0];
+    private volatile boolean construido;
+
+    public FacetasService(CatalogoService catalogoService, BuscadorService buscadorService) {
+        this.catalogoService = catalogoService;
+        this.buscadorService = buscadorService;
+    }
+
+    public ResultadoBusquedaDTO buscar(FiltroBusquedaDTO filtro) {
+        int pagina = filtro.getPagina();
+        int tamano = filtro.getTamano();
+        if (pagina < 0 || tamano < 1 || tamano > TAMANO_PAGINA_MAXIMO) {
+            throw new BadRequestException("El tamaño de página debe estar entre 1 y " + TAMANO_PAGINA_MAXIMO);
+        }
+        validarPrecio(filtro.getPrecioMin(), filtro.getPrecioMax());
+        boolean conTexto = filtro.getQ() != null && !filtro.getQ().isBlank();
+        List<String> consulta = conTexto ? BuscadorService.consulta(filtro.getQ()) : List.of();
+        if (conTexto && (long) (pagina + 1) * tamano > BuscadorService.RESULTADOS_MAXIMOS) {
+            throw new BadRequestException("Solo se pueden recorrer los primeros "
+                    + BuscadorService.RESULTADOS_MAXIMOS + " resultados");
+        }
+        asegurarConstruido();
+
+        // El texto se resuelve antes de tomar el lock: el buscador tiene el suyo
+        Bits base = conTexto ? buscadorService.coincidencias(consulta) : null;
+
+        Bits resultado;
+        Map<String, Map<String, Integer>> facetas = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            base = base != null ? base.and(publicados) : publicados.copia();
+
+            Bits filtroCategoria = unir(porCategoria, textos(filtro.getCategoriaId()));
+            Bits filtroTipo = unir(porTipoArchivo, filtro.getTipoArchivo());
+            Bits filtroEspecialidad = unir(porEspecialidad, mayusculas(filtro.getEspecialidad()));
+            Bits filtroPrecio = rangoPrecio(filtro.getPrecioMin(), filtro.getPrecioMax());
+            Bits[] filtros = {filtroCategoria, filtroTipo, filtroEspecialidad, filtroPrecio};
+
+            // Cada faceta se cuenta aplicando todos los filtros menos el suyo
+            facetas.put(FACETA_CATEGORIA, contar(porCategoria, base, filtros, 0));
+            facetas.put(FACETA_TIPO_ARCHIVO, contar(porTipoArchivo, base, filtros, 1));
+            facetas.put(FACETA_ESPECIALIDAD, contar(porEspecialidad, base, filtros, 2));
+            facetas.put(FACETA_PRECIO, contarPrecio(base, filtros));
+
+            resultado = aplicar(base.copia(), filtros, -1);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<ProductoDTO> productos;
+        long total;
+        if (conTexto) {
+            Bits seleccion = resultado;
+            IndiceInvertido.Resultado ranking = buscadorService.buscarIds(
+                    consulta, seleccion::get, (pagina + 1) * tamano);
+            productos = resolver(ranking.productoIds().stream().skip((long) pagina * tamano).toList());
+            total = ranking.total();
+        } else {
+            // Sin texto: los más recientes primero (los ids crecen con la fecha de alta)
+            List<Integer> ids = new ArrayList<>(tamano);
+            long saltar = (long) pagina * tamano;
+            for (int id = resultado.anterior(resultado.capacidad()); id >= 0 && ids.size() < tamano;
+                 id = resultado.anterior(id - 1)) {
+                if (saltar > 0) {
+                    saltar--;
+                } else {
+                    ids.add(id);
+                }
+            }
+            productos = resolver(ids);
+            total = resultado.cardinalidad();
+        }
+        return new ResultadoBusquedaDTO(productos, total, pagina, tamano, facetas);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(2)
+    public synchronized void reconstruir() {
+        List<ProductoDTO> productos = catalogoService.getPublicados();
+        lock.writeLock().lock();
+        try {
+            publicados = new Bits();
+            porCategoria = new HashMap<>();
+            porTipoArchivo = new HashMap<>();
+            porEspecialidad = new HashMap<>();
+            porRangoPrecio = new Bits[RANGOS_PRECIO.length];
+            Arrays.setAll(porRangoPrecio, r -> new Bits());
+            precioCentimos = new long[1024];
+            productos.forEach(this::indexar);
+            construido = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de facetas reconstruido: {} productos", productos.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductoCambiado(ProductoCambiadoEvent event) {
+        if (!construido) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            event.getEliminados().forEach(this::desindexar);
+            // Se indexa la versión del snapshot, que descarta los cambios que llegan atrasados
+            Map<Integer, ProductoDTO> publicados = catalogoService.getSnapshot().getPorId();
+            for (ProductoDTO cambiado : event.getActualizados()) {
+                desindexar(cambiado.getProductoId());
+                ProductoDTO producto = publicados.get(cambiado.getProductoId());
+                if (producto != null) {
+                    indexar(producto);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void asegurarConstruido() {
+        if (!construido) {
+            reconstruir();
+        }
+    }
+
+    private void indexar(ProductoDTO producto) {
+        int id = producto.getProductoId();
+        publicados.set(id);
+        porCategoria.computeIfAbsent(String.valueOf(producto.getCategoriaId()), k -> new Bits()).set(id);
+        if (producto.getTipoArchivo() != null) {
+            porTipoArchivo.computeIfAbsent(producto.getTipoArchivo(), k -> new Bits()).set(id);
+        }
+        if (producto.getEspecialidadArtista() != null) {
+            porEspecialidad.computeIfAbsent(producto.getEspecialidadArtista(), k -> new Bits()).set(id);
+        }
+        long centimos = producto.getPrecio().getCentimos();
+        if (id >= precioCentimos.length) {
+            precioCentimos = Arrays.copyOf(precioCentimos, Math.max(id + 1, precioCentimos.length * 2));
+        }
+        precioCentimos[id] = centimos;
+        porRangoPrecio[rango(centimos)].set(id);
+    }
+
+    private void desindexar(int id) {
+        if (!publicados.get(id)) {
+            return;
+        }
+        publicados.clear(id);
+        porCategoria.values().forEach(bits -> bits.clear(id));
+        porTipoArchivo.values().forEach(bits -> bits.clear(id));
+        porEspecialidad.values().forEach(bits -> bits.clear(id));
+        porRangoPrecio[rango(precioCentimos[id])].clear(id);
+    }
+
+    // OR de los bitsets de los valores pedidos; null si el filtro no se usa
+    private static Bits unir(Map<String, Bits> faceta, List<String> valores) {
+        if (valores == null || valores.isEmpty()) {
+            return null;
+        }
+        Bits union = new Bits();
+        for (String valor : valores) {
+            Bits bits = faceta.get(valor);
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        return union;
+    }
+
+    private static void validarPrecio(BigDecimal min, BigDecimal max) {
+        for (BigDecimal precio : Arrays.asList(min, max)) {
+            if (precio != null && (precio.signum() < 0 || precio.compareTo(PRECIO_FILTRO_MAXIMO) > 0)) {
+                throw new BadRequestException("El precio debe estar entre 0 y " + PRECIO_FILTRO_MAXIMO);
+            }
+        }
+        if (min != null && max != null && min.compareTo(max) > 0) {
+            throw new BadRequestException("El precio mínimo no puede ser mayor que el máximo");
+        }
+    }
+
+    // Rangos completos dentro de [min, max] por OR; los de los bordes se revisan producto a producto
+    private Bits rangoPrecio(BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        long desde = min != null ? centimos(min) : 0;
+        long hasta = max != null ? centimos(max) : Long.MAX_VALUE - 1;
+        Bits union = new Bits();
+        for (int r = 0; r < porRangoPrecio.length; r++) {
+            long inicio = LIMITES_PRECIO[r];
+            long fin = LIMITES_PRECIO[r + 1] - 1;
+            if (fin < desde || inicio > hasta) {
+                continue;
+            }
+            if (inicio >= desde && fin <= hasta) {
+                union.or(porRangoPrecio[r]);
+            } else {
+                Bits rango = porRangoPrecio[r];
+                for (int id = rango.siguiente(0); id >= 0; id = rango.siguiente(id + 1)) {
+                    if (precioCentimos[id] >= desde && precioCentimos[id] <= hasta) {
+                        union.set(id);
+                    }
+                }
+            }
+        }
+        return union;
+    }
+
+    private static Bits aplicar(Bits bits, Bits[] filtros, int excepto) {
+        for (int f = 0; f < filtros.length; f++) {
+            if (f != excepto && filtros[f] != null) {
+                bits.and(filtros[f]);
+            }
+        }
+        return bits;
+    }
+
+    private static Map<String, Integer> contar(Map<String, Bits> faceta, Bits base, Bits[] filtros, int propio) {
+        Bits restringido = aplicar(base.copia(), filtros, propio);
+        Map<String, Integer> conteos = new LinkedHashMap<>();
+        faceta.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entrada -> {
+                    int cantidad = restringido.contarInterseccion(entrada.getValue());
+                    if (cantidad > 0) {
+                        conteos.put(entrada.getKey(), cantidad);
+                    }
+                });
+        return conteos;
+    }
+
+    private Map<String, Integer> contarPrecio(Bits base, Bits[] filtros) {
+        Bits restringido = aplicar(base.copia(), filtros, 3);
+        Map<String, Integer> conteos = new LinkedHashMap<>();
+        for (int r = 0; r < porRangoPrecio.length; r++) {
+            conteos.put(RANGOS_PRECIO[r], restringido.contarInterseccion(porRangoPrecio[r]));
+        }
+        return conteos;
+    }
+
+    private List<ProductoDTO> resolver(List<Integer> ids) {
+        Map<Integer, ProductoDTO> porId = catalogoService.getSnapshot().getPorId();
+        List<ProductoDTO> productos = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            ProductoDTO producto = porId.get(id);
+            if (producto != null) {
+                productos.add(producto);
+            }
+        }
+        return productos;
+    }
+
+    private static int rango(long centimos) {
+        int r = 0;
+        while (centimos >= LIMITES_PRECIO[r + 1]) {
+            r++;
+        }
+        return r;
+    }
+
+    private static long centimos(BigDecimal precio) {
+        return precio.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static List<String> textos(List<Integer> valores) {
+        return valores == null ? null : valores.stream().map(String::valueOf).toList();
+    }
+
+    private static List<String> mayusculas(List<String> valores) {
+        return valores == null ? null : valores.stream().map(String::toUpperCase).toList();
+    }
+}
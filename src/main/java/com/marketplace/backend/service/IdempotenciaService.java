@@ -0,0 +1,252 @@
+package com.marketplace.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.backend.exception.BadRequestException;
+import com.marketplace.backend.model.ClaveIdempotencia;
+import com.marketplace.backend.repository.ClaveIdempotenciaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Peticiones con cabecera Idempotency-Key. La primera ejecución guarda su
+ * respuesta (en la misma transacción que la operación, así que solo queda
+ * registrada si la operación se confirma) y las repeticiones la devuelven sin
+ * volver a ejecutarla. Las respuestas recientes se sirven desde una caché LRU
+ * acotada y el resto desde la base de datos. Un duplicado que llega mientras
+ * el original sigue en curso espera su resultado: en este nodo con un future
+ * compartido y entre nodos por la restricción única de (usuario, clave).
+ */
+@Service
+@Slf4j
+public class IdempotenciaService {
+
+    public static final String CABECERA = "Idempotency-Key";
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+
+    public record Resultado<T>(T valor, boolean repetido) {}
+
+    private record Entrada(String huella, String respuesta, LocalDateTime fecha) {}
+
+    private record Ejecucion<T>(T valor, String respuesta) {}
+
+    static final int LONGITUD_MAXIMA = 100;
+    private static final int ENTRADAS_MAXIMAS = 10_000;
+    private static final Duration VIGENCIA = Duration.ofHours(24);
+
+    private final ClaveIdempotenciaRepository claveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    // Orden de acceso: el primero es el menos usado recientemente. Protegida por su propio monitor
+    private final Map<String, Entrada> recientes = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+            return size() > ENTRADAS_MAXIMAS;
+        }
+    };
+
+    private final Map<String, CompletableFuture<Entrada>> enCurso = new ConcurrentHashMap<>();
+
+    private final Counter desdeMemoria;
+    private final Counter desdeBaseDatos;
+    private final Counter agrupadas;
+
+    public IdempotenciaService(ClaveIdempotenciaRepository claveRepository, TransactionTemplate transactionTemplate,
+                               ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.claveRepository = claveRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.desdeMemoria = repeticiones(meterRegistry, "memoria");
+        this.desdeBaseDatos = repeticiones(meterRegistry, "base_datos");
+        this.agrupadas = repeticiones(meterRegistry, "en_curso");
+    }
+
+    public <T> Resultado<T> ejecutar(Integer usuarioId, String clave, String operacion, Object peticion,
+                                     TypeReference<T> tipo, Supplier<T> accion) {
+        // Sin cabecera: ejecución normal
+        if (clave == null) {
+            return new Resultado<>(accion.get(), false);
+        }
+        if (clave.isBlank() || clave.length() > LONGITUD_MAXIMA) {
+            throw new BadRequestException("La cabecera Idempotency-Key debe tener entre 1 y "
+                    + LONGITUD_MAXIMA + " caracteres");
+        }
+        String id = usuarioId + ":" + clave;
+        String huella = huella(operacion, peticion);
+
+        Entrada guardada = buscarEnMemoria(id);
+        if (guardada != null) {
+            desdeMemoria.increment();
+            return repetir(guardada, huella, tipo);
+        }
+
+        CompletableFuture<Entrada> propio = new CompletableFuture<>();
+        CompletableFuture<Entrada> original = enCurso.putIfAbsent(id, propio);
+        if (original != null) {
+            agrupadas.increment();
+            return repetir(esperar(original), huella, tipo);
+        }
+
+        try {
+            Entrada anterior = buscarEnBaseDatos(usuarioId, clave);
+            if (anterior != null) {
+                desdeBaseDatos.increment();
+                guardarEnMemoria(id, anterior);
+                propio.complete(anterior);
+                return repetir(anterior, huella, tipo);
+            }
+
+            Ejecucion<T> ejecucion = null;
+            for (int intento = 0; ejecucion == null; intento++) {
+                try {
+                    ejecucion = guardarYEjecutar(usuarioId, clave, huella, accion);
+                } catch (DataIntegrityViolationException e) {
+                    Entrada concurrente = buscarEnBaseDatos(usuarioId, clave);
+                    if (concurrente != null) {
+                        desdeBaseDatos.increment();
+                        guardarEnMemoria(id, concurrente);
+                        propio.complete(concurrente);
+                        return repetir(concurrente, huella, tipo);
+                    }
+                    // Choca con una fila caducada que la purga aún no borró: se elimina y se intenta una vez más
+                    if (intento > 0 || borrarCaducada(usuarioId, clave) == 0) {
+                        throw e;
+                    }
+                }
+            }
+
+            Entrada nueva = new Entrada(huella, ejecucion.respuesta(), LocalDateTime.now());
+            guardarEnMemoria(id, nueva);
+            propio.complete(nueva);
+            return new Resultado<>(ejecucion.valor(), false);
+        } catch (RuntimeException e) {
+            // Los duplicados en espera reciben el mismo error; la clave queda libre para reintentar
+            propio.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(id, propio);
+        }
+    }
+
+    // La fila se inserta antes de ejecutar: un duplicado en otro nodo se bloquea en la clave única
+    private <T> Ejecucion<T> guardarYEjecutar(Integer usuarioId, String clave, String huella, Supplier<T> accion) {
+        return transactionTemplate.execute(status -> {
+            ClaveIdempotencia fila = claveRepository.saveAndFlush(new ClaveIdempotencia(usuarioId, clave, huella));
+            T resultado = accion.get();
+            fila.setRespuesta(aJson(resultado));
+            return new Ejecucion<>(resultado, fila.getRespuesta());
+        });
+    }
+
+    private int borrarCaducada(Integer usuarioId, String clave) {
+        Integer borradas = transactionTemplate.execute(status ->
+                claveRepository.deleteCaducada(usuarioId, clave, LocalDateTime.now().minus(VIGENCIA)));
+        return borradas != null ? borradas : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${idempotencia.purga.intervalo-ms:3600000}")
+    @Transactional
+    public void purgar() {
+        int borradas = claveRepository.deleteAntesDe(LocalDateTime.now().minus(VIGENCIA));
+        if (borradas > 0) {
+            log.info("Claves de idempotencia caducadas eliminadas: {}", borradas);
+        }
+    }
+
+    private <T> Resultado<T> repetir(Entrada entrada, String huella, TypeReference<T> tipo) {
+        if (!entrada.huella().equals(huella)) {
+            throw new BadRequestException("La clave de idempotencia ya se usó para otra petición");
+        }
+        try {
+            return new Resultado<>(objectMapper.readValue(entrada.respuesta(), tipo), true);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Entrada buscarEnMemoria(String id) {
+        synchronized (recientes) {
+            Entrada entrada = recientes.get(id);
+            if (entrada != null && entrada.fecha().isBefore(LocalDateTime.now().minus(VIGENCIA))) {
+                recientes.remove(id);
+                return null;
+            }
+            return entrada;
+        }
+    }
+
+    private void guardarEnMemoria(String id, Entrada entrada) {
+        synchronized (recientes) {
+            recientes.put(id, entrada);
+        }
+    }
+
+    private Entrada buscarEnBaseDatos(Integer usuarioId, String clave) {
+        return claveRepository.findByUsuarioIdAndClave(usuarioId, clave)
+                .filter(c -> c.getFechaCreacion().isAfter(LocalDateTime.now().minus(VIGENCIA)))
+                .map(c -> new Entrada(c.getHuella(), c.getRespuesta(), c.getFechaCreacion()))
+                .orElse(null);
+    }
+
+    private static Entrada esperar(CompletableFuture<Entrada> original) {
+        try {
+            return original.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private String huella(String operacion, Object peticion) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(operacion.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) 0);
+            sha.update(objectMapper.writeValueAsBytes(peticion));
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String aJson(Object valor) {
+        try {
+            return objectMapper.writeValueAsString(valor);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Counter repeticiones(MeterRegistry meterRegistry, String origen) {
+        return Counter.builder("idempotencia.repeticiones")
+                .description("Peticiones repetidas respondidas sin volver a ejecutarse")
+                .tag("origen", origen)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,343 @@
+package com.marketplace.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.dto.ResultadoImportacionDTO;
+import com.marketplace.backend.exception.BadRequestException;
+import com.marketplace.backend.model.Dinero;
+import com.marketplace.backend.model.Producto;
+import com.marketplace.backend.repository.ArtistaRepository;
+import com.marketplace.backend.repository.CategoriaRepository;
+import com.marketplace.backend.repository.ProductoJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Alta masiva de productos desde CSV o NDJSON. La entrada se lee en streaming
+ * y se valida fila a fila; las filas válidas se escriben en lotes, cada uno en
+ * su propia transacción, de modo que un lote fallido no deshace los anteriores.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportacionService {
+
+    static final int TAMANO_LOTE = 1000;
+    static final int ERRORES_MAXIMOS = 500;
+
+    // Límite de NUMERIC(10, 2)
+    private static final Dinero PRECIO_MAXIMO = Dinero.de("100000000");
+
+    private static final Map<String, BiConsumer<ProductoDTO, String>> COLUMNAS = new LinkedHashMap<>();
+    static {
+        COLUMNAS.put("artistaId", (p, v) -> p.setArtistaId(Integer.valueOf(v)));
+        COLUMNAS.put("categoriaId", (p, v) -> p.setCategoriaId(Integer.valueOf(v)));
+        COLUMNAS.put("titulo", ProductoDTO::setTitulo);
+        COLUMNAS.put("descripcion", ProductoDTO::setDescripcion);
+        COLUMNAS.put("precio", (p, v) -> p.setPrecio(Dinero.de(v)));
+        COLUMNAS.put("rutaArchivo", ProductoDTO::setRutaArchivo);
+        COLUMNAS.put("tipoArchivo", ProductoDTO::setTipoArchivo);
+        COLUMNAS.put("urlMiniatura", ProductoDTO::setUrlMiniatura);
+        COLUMNAS.put("urlVistaPrevia", ProductoDTO::setUrlVistaPrevia);
+    }
+    private static final List<String> COLUMNAS_OBLIGATORIAS =
+            List.of("artistaId", "categoriaId", "titulo", "precio", "rutaArchivo");
+
+    public enum Formato { CSV, NDJSON }
+
+    private final ArtistaRepository artistaRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final ProductoJdbcRepository productoJdbcRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private record Fila(long linea, ProductoDTO producto, String error) {}
+
+    private interface LectorFilas {
+        // null al terminar la entrada
+        Fila siguiente() throws IOException;
+    }
+
+    // Los productos entran como PENDIENTE, así que el catálogo publicado no cambia
+    public ResultadoImportacionDTO importar(InputStream entrada, Formato formato, Charset charset) {
+        long inicio = System.nanoTime();
+        ResultadoImportacionDTO resultado = new ResultadoImportacionDTO();
+        List<Fila> lote = new ArrayList<>(TAMANO_LOTE);
+
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, charset), 1 << 16)) {
+            LectorFilas filas = formato == Formato.CSV
+                    ? new LectorCsv(lector)
+                    : new LectorNdjson(lector, objectMapper.readerFor(ProductoDTO.class));
+
+            Fila fila;
+            while ((fila = filas.siguiente()) != null) {
+                resultado.setProcesadas(resultado.getProcesadas() + 1);
+                String error = fila.error() != null ? fila.error() : validar(fila.producto());
+                if (error != null) {
+                    rechazar(resultado, fila.linea(), error);
+                    continue;
+                }
+                lote.add(fila);
+                if (lote.size() == TAMANO_LOTE) {
+                    escribirLote(lote, resultado);
+                    lote.clear();
+                }
+            }
+            if (!lote.isEmpty()) {
+                escribirLote(lote, resultado);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        log.info("Importación {} terminada: {} importadas, {} rechazadas en {} ms", formato,
+                resultado.getImportadas(), resultado.getRechazadas(), (System.nanoTime() - inicio) / 1_000_000);
+        return resultado;
+    }
+
+    private void escribirLote(List<Fila> lote, ResultadoImportacionDTO resultado) {
+        List<Fila> validas = new ArrayList<>(lote.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Una consulta por lote para artistas y otra para categorías
+                Set<Integer> artistas = artistaRepository.findIdsExistentes(lote.stream()
+                        .map(f -> f.producto().getArtistaId()).collect(Collectors.toSet()));
+                Set<Integer> categorias = categoriaRepository.findIdsExistentes(lote.stream()
+                        .map(f -> f.producto().getCategoriaId()).collect(Collectors.toSet()));
+
+                for (Fila fila : lote) {
+                    ProductoDTO p = fila.producto();
+                    if (!artistas.contains(p.getArtistaId())) {
+                        rechazar(resultado, fila.linea(), "Artista no encontrado: " + p.getArtistaId());
+                    } else if (!categorias.contains(p.getCategoriaId())) {
+                        rechazar(resultado, fila.linea(), "Categoría no encontrada: " + p.getCategoriaId());
+                    } else {
+                        validas.add(fila);
+                    }
+                }
+                if (!validas.isEmpty()) {
+                    productoJdbcRepository.insertarLote(
+                            validas.stream().map(Fila::producto).toList(), Producto.Estado.PENDIENTE);
+                }
+            });
+            resultado.setImportadas(resultado.getImportadas() + validas.size());
+        } catch (DataAccessException e) {
+            String causa = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Lote de importación descartado: {}", causa);
+            for (Fila fila : validas) {
+                rechazar(resultado, fila.linea(), "Lote no insertado: " + causa);
+            }
+        }
+    }
+
+    private static void rechazar(ResultadoImportacionDTO resultado, long linea, String mensaje) {
+        resultado.setRechazadas(resultado.getRechazadas() + 1);
+        if (resultado.getErrores().size() < ERRORES_MAXIMOS) {
+            resultado.getErrores().add(new ResultadoImportacionDTO.ErrorFila(linea, mensaje));
+        }
+    }
+
+    // Mismas reglas que las anotaciones de ProductoDTO más los límites de las columnas
+    static String validar(ProductoDTO p) {
+        if (p.getArtistaId() == null) {
+            return "El artista es obligatorio";
+        }
+        if (p.getCategoriaId() == null) {
+            return "La categoría es obligatoria";
+        }
+        if (p.getTitulo() == null || p.getTitulo().isBlank()) {
+            return "El título es obligatorio";
+        }
+        if (p.getPrecio() == null) {
+            return "El precio es obligatorio";
+        }
+        if (p.getPrecio().signum() <= 0) {
+            return "El precio debe ser positivo";
+        }
+        if (p.getPrecio().compareTo(PRECIO_MAXIMO) >= 0) {
+            return "Precio no válido: " + p.getPrecio();
+        }
+        if (p.getRutaArchivo() == null || p.getRutaArchivo().isBlank()) {
+            return "La ruta del archivo es obligatoria";
+        }
+        if (excede(p.getTitulo(), 255) || excede(p.getRutaArchivo(), 255) || excede(p.getTipoArchivo(), 50)
+                || excede(p.getUrlMiniatura(), 255) || excede(p.getUrlVistaPrevia(), 255)) {
+            return "Algún campo supera la longitud máxima";
+        }
+        return null;
+    }
+
+    private static boolean excede(String valor, int maximo) {
+        return valor != null && valor.length() > maximo;
+    }
+
+    private static final class LectorNdjson implements LectorFilas {
+        private final BufferedReader lector;
+        private final ObjectReader json;
+        private long linea;
+
+        LectorNdjson(BufferedReader lector, ObjectReader json) {
+            this.lector = lector;
+            this.json = json;
+        }
+
+        @Override
+        public Fila siguiente() throws IOException {
+            String texto;
+            while ((texto = lector.readLine()) != null) {
+                linea++;
+                if (texto.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new Fila(linea, json.readValue(texto), null);
+                } catch (JsonProcessingException e) {
+                    return new Fila(linea, null, "JSON no válido: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    // CSV según RFC 4180: cabecera obligatoria, campos entre comillas con "" como escape
+    private static final class LectorCsv implements LectorFilas {
+        private final BufferedReader lector;
+        private final List<BiConsumer<ProductoDTO, String>> setters = new ArrayList<>();
+        private final List<String> cabecera;
+        private long linea = 1;
+        private boolean comillasSinCerrar;
+
+        LectorCsv(BufferedReader lector) throws IOException {
+            this.lector = lector;
+            List<String> columnas = leerRegistro();
+            if (columnas == null) {
+                throw new BadRequestException("El CSV está vacío");
+            }
+            if (!columnas.isEmpty() && columnas.get(0).startsWith("\uFEFF")) {
+                columnas.set(0, columnas.get(0).substring(1));
+            }
+            Set<String> vistas = new HashSet<>();
+            for (String columna : columnas) {
+                String nombre = columna.trim();
+                BiConsumer<ProductoDTO, String> setter = COLUMNAS.get(nombre);
+                if (setter == null || !vistas.add(nombre)) {
+                    throw new BadRequestException("Columna no válida en el CSV: " + nombre);
+                }
+                setters.add(setter);
+            }
+            for (String obligatoria : COLUMNAS_OBLIGATORIAS) {
+                if (!vistas.contains(obligatoria)) {
+                    throw new BadRequestException("Falta la columna obligatoria: " + obligatoria);
+                }
+            }
+            this.cabecera = columnas.stream().map(String::trim).toList();
+        }
+
+        @Override
+        public Fila siguiente() throws IOException {
+            while (true) {
+                long inicio = linea;
+                List<String> campos = leerRegistro();
+                if (campos == null) {
+                    return null;
+                }
+                if (comillasSinCerrar) {
+                    return new Fila(inicio, null, "Comillas sin cerrar");
+                }
+                if (campos.size() == 1 && campos.get(0).isEmpty()) {
+                    continue;
+                }
+                if (campos.size() != setters.size()) {
+                    return new Fila(inicio, null,
+                            "Se esperaban " + setters.size() + " columnas y hay " + campos.size());
+                }
+
+                ProductoDTO producto = new ProductoDTO();
+                for (int i = 0; i < campos.size(); i++) {
+                    String valor = campos.get(i).trim();
+                    if (valor.isEmpty()) {
+                        continue;
+                    }
+                    try {
+                        setters.get(i).accept(producto, valor);
+                    } catch (NumberFormatException e) {
+                        return new Fila(inicio, null, "Valor no numérico en " + cabecera.get(i) + ": " + valor);
+                    } catch (IllegalArgumentException e) {
+                        // Importes con más de dos decimales
+                        return new Fila(inicio, null, "Valor no válido en " + cabecera.get(i) + ": " + valor);
+                    }
+                }
+                return new Fila(inicio, producto, null);
+            }
+        }
+
+        private List<String> leerRegistro() throws IOException {
+            int c = lector.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> campos = new ArrayList<>();
+            StringBuilder campo = new StringBuilder();
+            boolean entreComillas = false;
+            while (true) {
+                if (entreComillas) {
+                    if (c == -1) {
+                        comillasSinCerrar = true;
+                        campos.add(campo.toString());
+                        return campos;
+                    }
+                    if (c == '"') {
+                        lector.mark(1);
+                        int siguiente = lector.read();
+                        if (siguiente == '"') {
+                            campo.append('"');
+                        } else {
+                            entreComillas = false;
+                            lector.reset();
+                        }
+                    } else {
+                        if (c == '\n') {
+                            linea++;
+                        }
+                        campo.append((char) c);
+                    }
+                } else if (c == '"' && campo.isEmpty()) {
+                    entreComillas = true;
+                } else if (c == ',') {
+                    campos.add(campo.toString());
+                    campo.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    if (c == '\n') {
+                        linea++;
+                    }
+                    campos.add(campo.toString());
+                    return campos;
+                } else if (c != '\r') {
+                    campo.append((char) c);
+                }
+                c = lector.read();
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.marketplace.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * Índice invertido con ranking BM25. Cada versión de un producto recibe un
+ * número de documento nuevo y creciente, así las listas de postings quedan
+ * ordenadas y solo se agregan al final; las versiones viejas se marcan como
+ * muertas y desaparecen en la siguiente reconstrucción. La frecuencia de
+ * documento de cada término (df) cuenta solo las versiones vivas.
+ *
+ * No es thread-safe: BuscadorService lo protege con un ReadWriteLock.
+ */
+final class IndiceInvertido {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final Map<String, Postings> terminos = new HashMap<>();
+    private final Map<Integer, Integer> docPorProducto = new HashMap<>();
+    private final BitSet vivos = new BitSet();
+    private int[] productoPorDoc = new int[1024];
+    private int[] longitudPorDoc = new int[1024];
+    // Términos de cada versión viva, para descontar su df al eliminarla
+    private Postings[][] postingsPorDoc = new Postings[1024][];
+    private int totalDocs;
+    private int docsVivos;
+    private long longitudTotal;
+
+    void agregar(int productoId, Map<String, Integer> frecuencias) {
+        eliminar(productoId);
+        if (frecuencias.isEmpty()) {
+            return;
+        }
+        int doc = totalDocs++;
+        if (doc == productoPorDoc.length) {
+            productoPorDoc = Arrays.copyOf(productoPorDoc, doc * 2);
+            longitudPorDoc = Arrays.copyOf(longitudPorDoc, doc * 2);
+            postingsPorDoc = Arrays.copyOf(postingsPorDoc, doc * 2);
+        }
+        int longitud = 0;
+        Postings[] delDoc = new Postings[frecuencias.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entrada : frecuencias.entrySet()) {
+            Postings postings = terminos.computeIfAbsent(entrada.getKey(), k -> new Postings());
+            postings.agregar(doc, entrada.getValue());
+            delDoc[i++] = postings;
+            longitud += entrada.getValue();
+        }
+        postingsPorDoc[doc] = delDoc;
+        productoPorDoc[doc] = productoId;
+        longitudPorDoc[doc] = longitud;
+        docPorProducto.put(productoId, doc);
+        vivos.set(doc);
+        docsVivos++;
+        longitudTotal += longitud;
+    }
+
+    void eliminar(int productoId) {
+        Integer doc = docPorProducto.remove(productoId);
+        if (doc != null) {
+            vivos.clear(doc);
+            docsVivos--;
+            longitudTotal -= longitudPorDoc[doc];
+            for (Postings postings : postingsPorDoc[doc]) {
+                postings.df--;
+            }
+            postingsPorDoc[doc] = null;
+        }
+    }
+
+    int getDocsVivos() {
+        return docsVivos;
+    }
+
+    int getDocsMuertos() {
+        return totalDocs - docsVivos;
+    }
+
+    int getTerminos() {
+        return terminos.size();
+    }
+
+    /**
+     * Recorre las listas de postings de todos los términos a la vez (documento
+     * a documento) y se queda con los {@code limite} mejores en un heap.
+     */
+    Resultado buscar(Collection<String> consulta, IntPredicate filtroProducto, int limite) {
+        List<Postings> listas = new ArrayList<>();
+        for (String termino : consulta) {
+            Postings postings = terminos.get(termino);
+            if (postings != null && postings.df > 0 && !listas.contains(postings)) {
+                listas.add(postings);
+            }
+        }
+        if (listas.isEmpty() || docsVivos == 0) {
+            return new Resultado(List.of(), 0);
+        }
+
+        int n = listas.size();
+        float[] idf = new float[n];
+        int[] posicion = new int[n];
+        for (int t = 0; t < n; t++) {
+            int df = listas.get(t).df;
+            idf[t] = (float) Math.max(Math.log((docsVivos + 1.0) / (df + 0.5)), 0.001);
+        }
+        float longitudMedia = (float) longitudTotal / docsVivos;
+
+        PriorityQueue<Candidato> mejores = new PriorityQueue<>(limite + 1);
+        int total = 0;
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (int t = 0; t < n; t++) {
+                Postings p = listas.get(t);
+                if (posicion[t] < p.size && p.docs[posicion[t]] < doc) {
+                    doc = p.docs[posicion[t]];
+                }
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+
+            float puntaje = 0;
+            float normalizacion = K1 * (1 - B + B * longitudPorDoc[doc] / longitudMedia);
+            for (int t = 0; t < n; t++) {
+                Postings p = listas.get(t);
+                if (posicion[t] < p.size && p.docs[posicion[t]] == doc) {
+                    int tf = p.tfs[posicion[t]++];
+                    puntaje += idf[t] * tf * (K1 + 1) / (tf + normalizacion);
+                }
+            }
+
+            if (!vivos.get(doc) || !filtroProducto.test(productoPorDoc[doc])) {
+                continue;
+            }
+            total++;
+            if (limite > 0 && (mejores.size() < limite || puntaje > mejores.peek().puntaje)) {
+                mejores.offer(new Candidato(productoPorDoc[doc], puntaje));
+                if (mejores.size() > limite) {
+                    mejores.poll();
+                }
+            }
+        }
+
+        Integer[] ordenados = new Integer[mejores.size()];
+        for (int i = ordenados.length - 1; i >= 0; i--) {
+            ordenados[i] = mejores.poll().productoId;
+        }
+        return new Resultado(List.of(ordenados), total);
+    }
+
+    record Resultado(List<Integer> productoIds, int total) {
+    }
+
+    private record Candidato(int productoId, float puntaje) implements Comparable<Candidato> {
+        @Override
+        public int compareTo(Candidato otro) {
+            int c = Float.compare(puntaje, otro.puntaje);
+            return c != 0 ? c : Integer.compare(otro.productoId, productoId);
+        }
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] tfs = new int[4];
+        private int size;
+        // Versiones vivas con el término; size incluye también las muertas
+        private int df;
+
+        void agregar(int doc, int tf) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                tfs = Arrays.copyOf(tfs, size * 2);
+            }
+            docs[size] = doc;
+            tfs[size] = tf;
+            size++;
+            df++;
+        }
+    }
+}
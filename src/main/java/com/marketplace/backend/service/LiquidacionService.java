@@ -0,0 +1,127 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.model.Dinero;
+import com.marketplace.backend.model.LiquidacionVendedor;
+import com.marketplace.backend.model.MovimientoBilletera;
+import com.marketplace.backend.repository.BilleteraRepository;
+import com.marketplace.backend.repository.LiquidacionVendedorRepository;
+import com.marketplace.backend.repository.MovimientoBilleteraRepository;
+import com.marketplace.backend.repository.VentaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Abona a los vendedores lo que les corresponde de sus ventas (precio menos
+ * comisión). Las compras no tocan la billetera del vendedor: este proceso
+ * reclama en lotes las ventas sin liquidar y, por cada artista del lote,
+ * inserta una liquidación, la enlaza desde sus ventas, abona el neto en su
+ * billetera y apunta en el libro un ingreso y la comisión. Todo el lote va en
+ * una transacción, así que tras una caída las ventas siguen sin liquidar y se
+ * abonan en la siguiente pasada, una sola vez.
+ */
+@Service
+@Slf4j
+public class LiquidacionService {
+
+    static final int TAMANO_LOTE = 1000;
+    private static final int LOTES_POR_PASADA = 50;
+
+    private final VentaRepository ventaRepository;
+    private final BilleteraRepository billeteraRepository;
+    private final LiquidacionVendedorRepository liquidacionRepository;
+    private final MovimientoBilleteraRepository movimientoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter liquidaciones;
+    private final Counter ventasLiquidadas;
+
+    public LiquidacionService(VentaRepository ventaRepository, BilleteraRepository billeteraRepository,
+                              LiquidacionVendedorRepository liquidacionRepository,
+                              MovimientoBilleteraRepository movimientoRepository,
+                              TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.ventaRepository = ventaRepository;
+        this.billeteraRepository = billeteraRepository;
+        this.liquidacionRepository = liquidacionRepository;
+        this.movimientoRepository = movimientoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.liquidaciones = Counter.builder("liquidaciones")
+                .description("Liquidaciones abonadas a vendedores")
+                .register(meterRegistry);
+        this.ventasLiquidadas = Counter.builder("liquidaciones.ventas")
+                .description("Ventas cubiertas por las liquidaciones")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${liquidacion.intervalo-ms:300000}")
+    public void liquidar() {
+        try {
+            for (int i = 0; i < LOTES_POR_PASADA; i++) {
+                if (liquidarLote() < TAMANO_LOTE) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Error al liquidar ventas: {}", e.getMessage(), e);
+        }
+    }
+
+    // Devuelve cuántas ventas se liquidaron
+    public int liquidarLote() {
+        int[] vendedores = {0};
+        Integer liquidadas = transactionTemplate.execute(status -> {
+            List<VentaRepository.VentaPorLiquidar> ventas = ventaRepository.findPorLiquidar(TAMANO_LOTE);
+            if (ventas.isEmpty()) {
+                return 0;
+            }
+
+            // Por artista, en orden de id: dos pasadas concurrentes escriben en el mismo orden
+            Map<Integer, List<VentaRepository.VentaPorLiquidar>> porArtista = new TreeMap<>();
+            ventas.forEach(v -> porArtista.computeIfAbsent(v.getArtistaId(), k -> new ArrayList<>()).add(v));
+            porArtista.values().forEach(this::liquidar);
+            vendedores[0] = porArtista.size();
+            return ventas.size();
+        });
+
+        if (liquidadas == null || liquidadas == 0) {
+            return 0;
+        }
+        liquidaciones.increment(vendedores[0]);
+        ventasLiquidadas.increment(liquidadas);
+        log.info("Liquidadas {} ventas de {} vendedores", liquidadas, vendedores[0]);
+        return liquidadas;
+    }
+
+    private void liquidar(List<VentaRepository.VentaPorLiquidar> ventas) {
+        VentaRepository.VentaPorLiquidar primera = ventas.get(0);
+        Dinero bruto = Dinero.CERO;
+        Dinero comision = Dinero.CERO;
+        List<Integer> ventaIds = new ArrayList<>(ventas.size());
+        for (VentaRepository.VentaPorLiquidar venta : ventas) {
+            bruto = bruto.sumar(Dinero.de(venta.getPrecioVenta()));
+            comision = comision.sumar(Dinero.de(venta.getComisionMarketplace()));
+            ventaIds.add(venta.getVentaId());
+        }
+
+        LiquidacionVendedor liquidacion = liquidacionRepository.save(new LiquidacionVendedor(
+                primera.getArtistaId(), primera.getBilleteraId(), ventas.size(), bruto, comision));
+        ventaRepository.marcarLiquidadas(ventaIds, liquidacion.getLiquidacionId());
+
+        // Primero el saldo: bloquea la billetera antes de insertar sus movimientos (ver ConciliacionBilleteraService)
+        billeteraRepository.abonar(primera.getBilleteraId(), bruto.restar(comision), LocalDateTime.now());
+        String concepto = "Liquidación #" + liquidacion.getLiquidacionId() + " (" + ventas.size() + " ventas)";
+        movimientoRepository.saveAll(List.of(
+                new MovimientoBilletera(primera.getBilleteraId(), MovimientoBilletera.Tipo.INGRESO_VENTA,
+                        bruto, concepto),
+                new MovimientoBilletera(primera.getBilleteraId(), MovimientoBilletera.Tipo.COMISION,
+                        comision.negar(), "Comisión de la liquidación #" + liquidacion.getLiquidacionId())));
+    }
+}
@@ -0,0 +1,160 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.dto.ModeracionMasivaDTO;
+import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.dto.ResultadoModeracionDTO;
+import com.marketplace.backend.event.ProductoCambiadoEvent;
+import com.marketplace.backend.exception.BadRequestException;
+import com.marketplace.backend.model.Producto;
+import com.marketplace.backend.repository.ProductoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moderación de productos en bloque. Cada tramo de ids se resuelve con un
+ * SELECT y un UPDATE por conjuntos, y al final se publica un único
+ * ProductoCambiadoEvent para refrescar catálogo, índices y cachés una vez.
+ * Solo se informan como ACTUALIZADO, y solo entran en el evento, los
+ * productos que el UPDATE cambió de verdad.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ModeracionService {
+
+    static final int PRODUCTOS_MAXIMOS = 10_000;
+    private static final int TAMANO_TRAMO = 1000;
+
+    public static final String ACTUALIZADO = "ACTUALIZADO";
+    public static final String SIN_CAMBIOS = "SIN_CAMBIOS";
+    public static final String NO_ENCONTRADO = "NO_ENCONTRADO";
+
+    private final ProductoRepository productoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public ResultadoModeracionDTO moderar(ModeracionMasivaDTO peticion) {
+        Producto.Estado nuevo = estado(peticion.getEstado());
+        if (nuevo == Producto.Estado.PENDIENTE) {
+            throw new BadRequestException("Solo se puede moderar a PUBLICADO o RECHAZADO");
+        }
+
+        // A la precisión de la columna, para reconocer después las filas que cambió este UPDATE
+        LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Map<Integer, String> resultados = new LinkedHashMap<>();
+        List<Integer> actualizados = peticion.getIds() != null
+                ? moderarPorIds(peticion.getIds(), nuevo, ahora, resultados)
+                : moderarPorFiltro(peticion, nuevo, ahora, resultados);
+
+        if (!actualizados.isEmpty()) {
+            List<ProductoDTO> dtos = new ArrayList<>(actualizados.size());
+            for (List<Integer> tramo : tramos(actualizados)) {
+                dtos.addAll(productoRepository.findDTOsByIds(tramo));
+            }
+            eventPublisher.publishEvent(new ProductoCambiadoEvent(dtos, List.of()));
+        }
+
+        log.info("Moderación masiva a {}: {} actualizados de {} solicitados",
+                nuevo, actualizados.size(), resultados.size());
+        return new ResultadoModeracionDTO(nuevo.name(), actualizados.size(), resultados);
+    }
+
+    private List<Integer> moderarPorIds(List<Integer> ids, Producto.Estado nuevo, LocalDateTime ahora,
+                                        Map<Integer, String> resultados) {
+        Set<Integer> distintos = new LinkedHashSet<>(ids);
+        distintos.remove(null);
+        if (distintos.isEmpty()) {
+            throw new BadRequestException("La lista de productos está vacía");
+        }
+        if (distintos.size() > PRODUCTOS_MAXIMOS) {
+            throw new BadRequestException("Como máximo " + PRODUCTOS_MAXIMOS + " productos por petición");
+        }
+
+        List<Integer> actualizados = new ArrayList<>();
+        for (List<Integer> tramo : tramos(new ArrayList<>(distintos))) {
+            Set<Integer> existentes = new HashSet<>(productoRepository.findIdsExistentes(tramo));
+            int filas = productoRepository.actualizarEstado(tramo, nuevo, ahora);
+            Set<Integer> cambiados = cambiados(tramo, filas, nuevo, ahora);
+            for (Integer id : tramo) {
+                resultados.put(id, cambiados.contains(id) ? ACTUALIZADO
+                        : existentes.contains(id) ? SIN_CAMBIOS : NO_ENCONTRADO);
+                if (cambiados.contains(id)) {
+                    actualizados.add(id);
+                }
+            }
+        }
+        return actualizados;
+    }
+
+    private List<Integer> moderarPorFiltro(ModeracionMasivaDTO filtro, Producto.Estado nuevo, LocalDateTime ahora,
+                                           Map<Integer, String> resultados) {
+        Producto.Estado actual = estado(filtro.getEstadoActual());
+        if (actual == nuevo) {
+            throw new BadRequestException("El estado actual y el nuevo coinciden");
+        }
+        int limite = filtro.getLimite() != null ? filtro.getLimite() : PRODUCTOS_MAXIMOS;
+        if (limite < 1 || limite > PRODUCTOS_MAXIMOS) {
+            throw new BadRequestException("El límite debe estar entre 1 y " + PRODUCTOS_MAXIMOS);
+        }
+
+        List<Integer> actualizados = new ArrayList<>();
+        int desdeId = 0;
+        while (actualizados.size() < limite) {
+            List<Integer> tramo = productoRepository.findIdsParaModerar(actual,
+                    filtro.getArtistaId(), filtro.getCategoriaId(), desdeId,
+                    Limit.of(Math.min(TAMANO_TRAMO, limite - actualizados.size())));
+            if (tramo.isEmpty()) {
+                break;
+            }
+            // Un producto que pasó a otro estado desde el SELECT no se pisa: queda SIN_CAMBIOS
+            int filas = productoRepository.actualizarEstadoDesde(tramo, actual, nuevo, ahora);
+            Set<Integer> cambiados = cambiados(tramo, filas, nuevo, ahora);
+            for (Integer id : tramo) {
+                resultados.put(id, cambiados.contains(id) ? ACTUALIZADO : SIN_CAMBIOS);
+                if (cambiados.contains(id)) {
+                    actualizados.add(id);
+                }
+            }
+            desdeId = tramo.get(tramo.size() - 1);
+        }
+        return actualizados;
+    }
+
+    // Ids del tramo que cambió el UPDATE; sin filas afectadas no hace falta volver a leer
+    private Set<Integer> cambiados(List<Integer> tramo, int filas, Producto.Estado nuevo, LocalDateTime ahora) {
+        if (filas == 0) {
+            return Set.of();
+        }
+        return new HashSet<>(productoRepository.findIdsActualizados(tramo, nuevo, ahora));
+    }
+
+    private static Producto.Estado estado(String valor) {
+        try {
+            return Producto.Estado.valueOf(valor.trim().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new BadRequestException("Estado no válido: " + valor);
+        }
+    }
+
+    private static List<List<Integer>> tramos(List<Integer> ids) {
+        List<List<Integer>> tramos = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += TAMANO_TRAMO) {
+            tramos.add(ids.subList(i, Math.min(ids.size(), i + TAMANO_TRAMO)));
+        }
+        return tramos;
+    }
+}
@@ -0,0 +1,55 @@
+package com.marketplace.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.backend.event.EventoOutbox;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Escritura en el outbox. Debe llamarse dentro de la transacción que genera
+ * los eventos: si esa transacción se revierte, los eventos desaparecen con
+ * ella. Varios eventos se insertan en un único batch JDBC.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final String INSERT_EVENTO =
+            "INSERT INTO evento_outbox (tipo, agregado_id, payload, fecha_creacion, intentos) VALUES (?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publicar(EventoOutbox evento) {
+        publicar(List.of(evento));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publicar(List<? extends EventoOutbox> eventos) {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_EVENTO, eventos, eventos.size(), (ps, evento) -> {
+            ps.setString(1, evento.getClass().getSimpleName());
+            ps.setLong(2, evento.getAgregadoId());
+            ps.setString(3, aJson(evento));
+            ps.setTimestamp(4, ahora);
+        });
+    }
+
+    private String aJson(EventoOutbox evento) {
+        try {
+            return objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Cursores opacos de los listados paginados: el texto de la última fila
+ * devuelta en base64url. Los listados por fecha guardan fecha + id como
+ * desempate; los que solo ordenan por id guardan el id. Un cursor que no se
+ * puede leer es siempre un 400 "Cursor inválido".
+ */
+public final class PaginaCursor {
+
+    // Sin cursor, la primera página de un listado por fecha empieza antes de esta fecha
+    public static final LocalDateTime FECHA_MAXIMA = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    static final String SEPARADOR = "|";
+
+    public record FechaId(LocalDateTime fecha, Integer id) {
+    }
+
+    private PaginaCursor() {
+    }
+
+    public static String codificar(LocalDateTime fecha, Integer id) {
+        return codificarTexto(fecha + SEPARADOR + id);
+    }
+
+    public static String codificar(Long id) {
+        return codificarTexto(id.toString());
+    }
+
+    // Sin cursor devuelve la posición inicial: antes de 'fechaInicial', sin desempate
+    public static FechaId decodificarFechaId(String cursor, LocalDateTime fechaInicial) {
+        if (cursor == null || cursor.isBlank()) {
+            return new FechaId(fechaInicial, 0);
+        }
+        String[] partes = decodificarTexto(cursor).split("\\" + SEPARADOR, -1);
+        if (partes.length != 2) {
+            throw invalido();
+        }
+        try {
+            return new FechaId(LocalDateTime.parse(partes[0]), Integer.valueOf(partes[1]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw invalido();
+        }
+    }
+
+    // Sin cursor devuelve Long.MAX_VALUE: la primera página empieza por el id más alto
+    public static Long decodificarId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.valueOf(decodificarTexto(cursor));
+        } catch (IllegalArgumentException e) {
+            throw invalido();
+        }
+    }
+
+    static String codificarTexto(String texto) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decodificarTexto(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalido();
+        }
+    }
+
+    static BadRequestException invalido() {
+        return new BadRequestException("Cursor inválido");
+    }
+}
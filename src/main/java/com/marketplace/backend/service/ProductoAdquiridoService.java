@@ -4,7 +4,6 @@ import com.marketplace.backend.dto.ProductoAdquiridoDTO;
 import com.marketplace.backend.exception.BadRequestException;
 import com.marketplace.backend.exception.ResourceNotFoundException;
 import com.marketplace.backend.model.Producto;
-import com.marketplace.backend.model.ProductoAdquirido;
 import com.marketplace.backend.model.Usuario;
 import com.marketplace.backend.repository.ProductoAdquiridoRepository;
 import com.marketplace.backend.repository.ProductoRepository;
@@ -24,7 +23,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -42,10 +40,7 @@ public class ProductoAdquiridoService {
     public List<ProductoAdquiridoDTO> getProductosAdquiridosByUsuario(Integer usuarioId) {
         log.info("Obteniendo productos adquiridos del usuario: {}", usuarioId);
         
-        return productoAdquiridoRepository.findByUsuarioUsuarioId(usuarioId)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return productoAdquiridoRepository.findDTOsByUsuarioId(usuarioId);
     }
 
     @Transactional(readOnly = true)
@@ -174,31 +169,4 @@ public class ProductoAdquiridoService {
             throw new RuntimeException("Error inesperado al procesar la descarga: " + e.getMessage(), e);
         }
     }
-
-    private ProductoAdquiridoDTO convertToDTO(ProductoAdquirido productoAdquirido) {
-        ProductoAdquiridoDTO dto = new ProductoAdquiridoDTO();
-        
-        dto.setLicenciaId(productoAdquirido.getLicenciaId());
-        dto.setUsuarioId(productoAdquirido.getUsuario().getUsuarioId());
-        dto.setEmailUsuario(productoAdquirido.getUsuario().getEmail());
-        
-        Producto producto = productoAdquirido.getProducto();
-        dto.setProductoId(producto.getProductoId());
-        dto.setTituloProducto(producto.getTitulo());
-        dto.setDescripcionProducto(producto.getDescripcion());
-        dto.setPrecioProducto(producto.getPrecio());
-        dto.setUrlMiniatura(producto.getUrlMiniatura());
-        dto.setUrlVistaPrevia(producto.getUrlVistaPrevia());
-        dto.setRutaArchivo(producto.getRutaArchivo());
-        dto.setTipoArchivo(producto.getTipoArchivo());
-        dto.setNombreCategoria(producto.getCategoria().getNombre());
-        dto.setArtistaId(producto.getArtista().getArtistaId());
-        dto.setNombreArtista(producto.getArtista().getNombreCompleto());
-        
-        dto.setFechaAdquisicion(productoAdquirido.getFechaAdquisicion());
-        dto.setVentaId(productoAdquirido.getVenta().getVentaId());
-        dto.setPrecioVenta(productoAdquirido.getVenta().getPrecioVenta());
-        
-        return dto;
-    }
 }
\ No newline at end of file
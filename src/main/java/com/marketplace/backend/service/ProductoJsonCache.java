@@ -0,0 +1,185 @@
+package com.marketplace.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.event.ProductoCambiadoEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caché LRU, acotada en bytes, del detalle de producto ya serializado a JSON
+ * (UTF-8) y comprimido con gzip. La clave es el productoId y cada entrada
+ * guarda el ETag con el que se generó: si la versión actual no coincide se
+ * vuelve a serializar, así que una entrada vieja nunca se sirve.
+ */
+@Service
+@Slf4j
+public class ProductoJsonCache {
+
+    public record Entrada(String etag, byte[] json, byte[] gzip) {
+        long bytes() {
+            return json.length + gzip.length;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+
+    // Orden de acceso: el primero es el menos usado recientemente
+    private final LinkedHashMap<Integer, Entrada> entradas = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+
+    private final Counter aciertos;
+    private final Counter fallos;
+    private final Counter desalojos;
+
+    public ProductoJsonCache(ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${productos.cache.max-bytes:16777216}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        this.aciertos = Counter.builder("productos.cache.json")
+                .description("Consultas a la caché de JSON de productos")
+                .tag("resultado", "acierto")
+                .register(meterRegistry);
+        this.fallos = Counter.builder("productos.cache.json")
+                .description("Consultas a la caché de JSON de productos")
+                .tag("resultado", "fallo")
+                .register(meterRegistry);
+        this.desalojos = Counter.builder("productos.cache.desalojos")
+                .description("Entradas expulsadas por superar el límite de bytes")
+                .register(meterRegistry);
+        Gauge.builder("productos.cache.bytes", this, ProductoJsonCache::getBytes)
+                .description("Bytes de JSON y gzip retenidos en la caché")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("productos.cache.entradas", this, ProductoJsonCache::getTotalEntradas)
+                .description("Productos con respuesta en caché")
+                .register(meterRegistry);
+    }
+
+    public Entrada obtener(Integer productoId, String etag, Supplier<ProductoDTO> cargador) {
+        synchronized (this) {
+            Entrada entrada = entradas.get(productoId);
+            if (entrada != null && entrada.etag().equals(etag)) {
+                aciertos.increment();
+                return entrada;
+            }
+        }
+        fallos.increment();
+
+        // Serializar y comprimir fuera del lock
+        Entrada nueva = codificar(etag, cargador.get());
+        if (nueva.bytes() <= maxBytes) {
+            guardar(productoId, nueva);
+        }
+        return nueva;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductoCambiado(ProductoCambiadoEvent event) {
+        event.getActualizados().forEach(dto -> quitar(dto.getProductoId()));
+        event.getEliminados().forEach(this::quitar);
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized int getTotalEntradas() {
+        return entradas.size();
+    }
+
+    /**
+     * Si la cabecera Accept-Encoding admite gzip: "gzip" (o "x-gzip") con q
+     * mayor que 0, o "*" con q mayor que 0 cuando gzip no aparece. "gzip;q=0"
+     * lo rechaza expresamente; un q mal formado cuenta como 0.
+     */
+    public static boolean aceptaGzip(String cabecera) {
+        if (cabecera == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        boolean comodin = false;
+        for (String elemento : cabecera.split(",")) {
+            String[] partes = elemento.split(";");
+            String codificacion = partes[0].trim().toLowerCase(Locale.ROOT);
+            boolean aceptada = calidad(partes) > 0;
+            if (codificacion.equals("gzip") || codificacion.equals("x-gzip")) {
+                gzip = (gzip == null || gzip) && aceptada;
+            } else if (codificacion.equals("*")) {
+                comodin = aceptada;
+            }
+        }
+        return gzip != null ? gzip : comodin;
+    }
+
+    private static double calidad(String[] partes) {
+        for (int i = 1; i < partes.length; i++) {
+            String parametro = partes[i].trim();
+            if (parametro.length() > 2 && Character.toLowerCase(parametro.charAt(0)) == 'q'
+                    && parametro.charAt(1) == '=') {
+                try {
+                    double q = Double.parseDouble(parametro.substring(2).trim());
+                    return q >= 0 && q <= 1 ? q : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private synchronized void guardar(Integer productoId, Entrada entrada) {
+        Entrada anterior = entradas.put(productoId, entrada);
+        bytes += entrada.bytes() - (anterior != null ? anterior.bytes() : 0);
+
+        var it = entradas.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Map.Entry<Integer, Entrada> menosUsada = it.next();
+            if (menosUsada.getKey().equals(productoId)) {
+                continue;
+            }
+            bytes -= menosUsada.getValue().bytes();
+            it.remove();
+            desalojos.increment();
+        }
+    }
+
+    private void quitar(Integer productoId) {
+        Entrada anterior = entradas.remove(productoId);
+        if (anterior != null) {
+            bytes -= anterior.bytes();
+        }
+    }
+
+    private Entrada codificar(String etag, ProductoDTO producto) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(producto);
+            ByteArrayOutputStream comprimido = new ByteArrayOutputStream(json.length / 2 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+                gzip.write(json);
+            }
+            return new Entrada(etag, json, comprimido.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el producto " + producto.getProductoId(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,18 +1,32 @@
 package com.marketplace.backend.service;
 
+import com.marketplace.backend.dto.PaginaCursorDTO;
 import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.dto.ValoracionDTO;
+import com.marketplace.backend.dto.VersionRecursoDTO;
+import com.marketplace.backend.event.ProductoCambiadoEvent;
+import com.marketplace.backend.exception.BadRequestException;
 import com.marketplace.backend.exception.ResourceNotFoundException;
 import com.marketplace.backend.model.Artista;
 import com.marketplace.backend.model.Categoria;
+import com.marketplace.backend.model.Dinero;
 import com.marketplace.backend.model.Producto;
 import com.marketplace.backend.repository.ArtistaRepository;
 import com.marketplace.backend.repository.CategoriaRepository;
 import com.marketplace.backend.repository.ProductoRepository;
+import com.marketplace.backend.repository.ValoracionProductoRepository;
+import com.marketplace.backend.repository.VentaVistaRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,44 +36,82 @@ public class ProductoService {
     private final ProductoRepository productoRepository;
     private final ArtistaRepository artistaRepository;
     private final CategoriaRepository categoriaRepository;
+    private final VentaVistaRepository ventaVistaRepository;
+    private final ValoracionProductoRepository valoracionRepository;
+    private final CatalogoService catalogoService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Transactional(readOnly = true)
-    public List<ProductoDTO> getAllProductos() {
-        return productoRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    private static final int TAMANO_PAGINA_MAXIMO = 100;
+
+    // Servido desde el snapshot en memoria del catálogo
+    public List<ProductoDTO> getProductosPublicados() {
+        return catalogoService.getPublicados();
     }
 
     @Transactional(readOnly = true)
-    public List<ProductoDTO> getProductosPublicados() {
-        return productoRepository.findByEstado(Producto.Estado.PUBLICADO).stream()
-                .map(this::convertToDTO)
+    public PaginaCursorDTO<ProductoDTO> getProductosPublicadosPaginados(
+            CatalogoCursor.Orden orden, Sort.Direction direccion, int tamano, String cursor) {
+        if (tamano < 1 || tamano > TAMANO_PAGINA_MAXIMO) {
+            throw new BadRequestException("El tamaño de página debe estar entre 1 y " + TAMANO_PAGINA_MAXIMO);
+        }
+
+        Window<Producto> ventana = productoRepository.findByEstado(
+                Producto.Estado.PUBLICADO,
+                CatalogoCursor.decodificar(cursor, orden, direccion),
+                CatalogoCursor.sort(orden, direccion),
+                Limit.of(tamano));
+
+        // Valoraciones de toda la página en una sola consulta
+        List<Integer> ids = ventana.stream().map(Producto::getProductoId).toList();
+        Map<Integer, ValoracionDTO> valoraciones = ids.isEmpty() ? Map.of()
+                : valoracionRepository.findDTOsByProductoIds(ids).stream()
+                        .collect(Collectors.toMap(ValoracionDTO::getProductoId, Function.identity()));
+        List<ProductoDTO> contenido = ventana.stream()
+                .map(p -> convertToDTO(p, valoraciones.getOrDefault(p.getProductoId(),
+                        ValoracionDTO.vacia(p.getProductoId()))))
                 .collect(Collectors.toList());
+
+        String siguienteCursor = null;
+        if (ventana.hasNext() && !ventana.isEmpty()) {
+            siguienteCursor = CatalogoCursor.codificar(orden, direccion, ventana.positionAt(ventana.size() - 1));
+        }
+        return new PaginaCursorDTO<>(contenido, siguienteCursor, siguienteCursor != null);
     }
 
-    @Transactional(readOnly = true)
+    // Solo publicados, desde el snapshot del catálogo
     public List<ProductoDTO> getProductosByArtista(Integer artistaId) {
-        return productoRepository.findByArtistaArtistaId(artistaId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return catalogoService.getByArtista(artistaId);
     }
 
+    // Todos los estados (panel del artista / administración)
     @Transactional(readOnly = true)
+    public List<ProductoDTO> getTodosLosProductosByArtista(Integer artistaId) {
+        return productoRepository.findDTOsByArtistaId(artistaId);
+    }
+
+    // Solo publicados, desde el snapshot del catálogo
     public List<ProductoDTO> getProductosByCategoria(Integer categoriaId) {
-        return productoRepository.findByCategoriaId(categoriaId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return catalogoService.getByCategoria(categoriaId);
     }
 
     @Transactional(readOnly = true)
     public ProductoDTO getProductoById(Integer id) {
-        Producto producto = productoRepository.findById(id)
+        return productoRepository.findDTOById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + id));
-        return convertToDTO(producto);
+    }
+
+    // Validadores HTTP sin construir el DTO: solo las marcas de tiempo por clave primaria
+    @Transactional(readOnly = true)
+    public VersionRecursoDTO getVersionProducto(Integer id) {
+        ProductoRepository.VersionesProducto versiones = productoRepository.findVersionesById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + id));
+        return VersionRecursoDTO.de("p", id,
+                versiones.getProducto(), versiones.getArtista(), versiones.getCategoria(), versiones.getValoracion());
     }
 
     @Transactional
     public ProductoDTO createProducto(ProductoDTO productoDTO) {
+        validarPrecio(productoDTO.getPrecio());
         Artista artista = artistaRepository.findById(productoDTO.getArtistaId())
                 .orElseThrow(() -> new ResourceNotFoundException("Artista no encontrado"));
 
@@ -79,11 +131,15 @@ public class ProductoService {
         producto.setEstado(Producto.Estado.PENDIENTE);
 
         producto = productoRepository.save(producto);
-        return convertToDTO(producto);
+        // Recién creado: aún no tiene reseñas
+        ProductoDTO dto = convertToDTO(producto, ValoracionDTO.vacia(producto.getProductoId()));
+        eventPublisher.publishEvent(ProductoCambiadoEvent.actualizado(dto));
+        return dto;
     }
 
     @Transactional
     public ProductoDTO updateProducto(Integer id, ProductoDTO productoDTO) {
+        validarPrecio(productoDTO.getPrecio());
         Producto producto = productoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + id));
 
@@ -93,6 +149,7 @@ public class ProductoService {
             producto.setCategoria(categoria);
         }
 
+        boolean cambiaTitulo = !producto.getTitulo().equals(productoDTO.getTitulo());
         producto.setTitulo(productoDTO.getTitulo());
         producto.setDescripcion(productoDTO.getDescripcion());
         producto.setPrecio(productoDTO.getPrecio());
@@ -110,8 +167,14 @@ public class ProductoService {
             producto.setUrlVistaPrevia(productoDTO.getUrlVistaPrevia());
         }
 
-        producto = productoRepository.save(producto);
-        return convertToDTO(producto);
+        // saveAndFlush para que fechaUpdate ya venga actualizada en el DTO
+        producto = productoRepository.saveAndFlush(producto);
+        if (cambiaTitulo) {
+            ventaVistaRepository.renombrarProducto(id, producto.getTitulo());
+        }
+        ProductoDTO dto = convertToDTO(producto, valoracionDe(id));
+        eventPublisher.publishEvent(ProductoCambiadoEvent.actualizado(dto));
+        return dto;
     }
 
     @Transactional
@@ -120,8 +183,10 @@ public class ProductoService {
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + id));
 
         producto.setEstado(Producto.Estado.valueOf(nuevoEstado.toUpperCase()));
-        producto = productoRepository.save(producto);
-        return convertToDTO(producto);
+        producto = productoRepository.saveAndFlush(producto);
+        ProductoDTO dto = convertToDTO(producto, valoracionDe(id));
+        eventPublisher.publishEvent(ProductoCambiadoEvent.actualizado(dto));
+        return dto;
     }
 
     @Transactional
@@ -130,13 +195,31 @@ public class ProductoService {
             throw new ResourceNotFoundException("Producto no encontrado con id: " + id);
         }
         productoRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductoCambiadoEvent.eliminado(id));
+    }
+
+    private static void validarPrecio(Dinero precio) {
+        if (precio == null) {
+            throw new BadRequestException("El precio es obligatorio");
+        }
+        if (precio.signum() <= 0) {
+            throw new BadRequestException("El precio debe ser positivo");
+        }
+    }
+
+    // Escrituras de un solo producto; los listados cargan las valoraciones de la página de una vez
+    private ValoracionDTO valoracionDe(Integer productoId) {
+        return valoracionRepository.findDTOsByProductoIds(List.of(productoId)).stream()
+                .findFirst()
+                .orElseGet(() -> ValoracionDTO.vacia(productoId));
     }
 
-    private ProductoDTO convertToDTO(Producto producto) {
+    private static ProductoDTO convertToDTO(Producto producto, ValoracionDTO valoracion) {
         ProductoDTO dto = new ProductoDTO();
         dto.setProductoId(producto.getProductoId());
         dto.setArtistaId(producto.getArtista().getArtistaId());
         dto.setNombreArtista(producto.getArtista().getNombreCompleto());
+        dto.setEspecialidadArtista(producto.getArtista().getEspecialidad().name());
         dto.setCategoriaId(producto.getCategoria().getCategoriaId());
         dto.setNombreCategoria(producto.getCategoria().getNombre());
         dto.setTitulo(producto.getTitulo());
@@ -149,6 +232,7 @@ public class ProductoService {
         dto.setEstado(producto.getEstado().name());
         dto.setFechaCreacion(producto.getFechaCreacion());
         dto.setFechaUpdate(producto.getFechaUpdate());
+        dto.setValoracion(valoracion);
         return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,292 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.event.SuscriptorOutbox;
+import com.marketplace.backend.event.VentaRegistradaEvent;
+import com.marketplace.backend.exception.BadRequestException;
+import com.marketplace.backend.repository.ProductoAdquiridoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * "Quienes compraron esto también compraron": similitud coseno entre
+ * productos a partir de los pares usuario-producto de productos_adquiridos.
+ * La matriz de co-compras (dispersa) se construye al arrancar repartiendo los
+ * usuarios entre tareas fork-join y se actualiza con cada venta. Las lecturas
+ * solo consultan la lista de vecinos ya ordenada de cada producto.
+ *
+ * Cada usuario cuenta una sola vez por producto y solo sus últimas
+ * HISTORIAL_MAXIMO compras distintas forman pares. La actualización
+ * incremental resta los pares del producto que sale de esa ventana, de modo
+ * que tras una secuencia de ventas los conteos son los mismos que daría
+ * reconstruir a partir de ellas.
+ */
+@Service
+@Slf4j
+public class RecomendacionesService implements SuscriptorOutbox<VentaRegistradaEvent> {
+
+    static final int LIMITE_MAXIMO = 50;
+    private static final int VECINOS_MAXIMOS = 50;
+
+    // Solo las compras más recientes de cada usuario generan pares (evita el coste cuadrático)
+    static final int HISTORIAL_MAXIMO = 200;
+
+    private final ProductoAdquiridoRepository productoAdquiridoRepository;
+    private final CatalogoService catalogoService;
+
+    // Protegidos por el monitor del servicio
+    private final Map<Integer, Set<Integer>> adquiridos = new HashMap<>();
+    private final Map<Integer, List<Integer>> historiales = new HashMap<>();
+    private final Map<Integer, Map<Integer, Integer>> coocurrencias = new HashMap<>();
+    private final Map<Integer, Integer> compradores = new HashMap<>();
+
+    // Vecinos de cada producto, de más a menos similar; se leen sin lock
+    private final Map<Integer, int[]> vecinos = new ConcurrentHashMap<>();
+
+    // Productos cuya lista de vecinos está desactualizada; se recalcula al leerla
+    private final Set<Integer> pendientes = ConcurrentHashMap.newKeySet();
+
+    public RecomendacionesService(ProductoAdquiridoRepository productoAdquiridoRepository,
+                                  CatalogoService catalogoService, MeterRegistry meterRegistry) {
+        this.productoAdquiridoRepository = productoAdquiridoRepository;
+        this.catalogoService = catalogoService;
+        Gauge.builder("recomendaciones.productos", vecinos, Map::size)
+                .description("Productos con recomendaciones calculadas")
+                .register(meterRegistry);
+    }
+
+    public List<ProductoDTO> getRelacionados(Integer productoId, int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new BadRequestException("El límite debe estar entre 1 y " + LIMITE_MAXIMO);
+        }
+        int[] similares = pendientes.contains(productoId) ? recalcular(productoId) : vecinos.get(productoId);
+        if (similares == null) {
+            return List.of();
+        }
+
+        // Solo productos que siguen publicados
+        Map<Integer, ProductoDTO> publicados = catalogoService.getSnapshot().getPorId();
+        List<ProductoDTO> resultado = new ArrayList<>(Math.min(limite, similares.length));
+        for (int i = 0; i < similares.length && resultado.size() < limite; i++) {
+            ProductoDTO producto = publicados.get(similares[i]);
+            if (producto != null) {
+                resultado.add(producto);
+            }
+        }
+        return resultado;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(4)
+    @Transactional(readOnly = true)
+    public synchronized void reconstruir() {
+        long inicio = System.nanoTime();
+        adquiridos.clear();
+        historiales.clear();
+        coocurrencias.clear();
+        compradores.clear();
+
+        try (Stream<ProductoAdquiridoRepository.ParUsuarioProducto> pares = productoAdquiridoRepository.streamPares()) {
+            pares.forEach(par -> {
+                if (adquirir(par.getUsuarioId(), par.getProductoId())) {
+                    agregarAHistorial(par.getUsuarioId(), par.getProductoId());
+                }
+            });
+        }
+
+        // Conteo de pares en paralelo, una partición de usuarios por tarea
+        List<int[]> porUsuario = historiales.values().stream()
+                .map(h -> h.stream().mapToInt(Integer::intValue).toArray())
+                .toList();
+        Map<Long, Integer> pares = ForkJoinPool.commonPool().invoke(new ContarPares(porUsuario, 0, porUsuario.size()));
+        pares.forEach((clave, veces) -> {
+            int a = (int) (clave >>> 32);
+            int b = (int) (long) clave;
+            coocurrencias.computeIfAbsent(a, k -> new HashMap<>()).put(b, veces);
+            coocurrencias.computeIfAbsent(b, k -> new HashMap<>()).put(a, veces);
+        });
+
+        Map<Integer, int[]> nuevos = new HashMap<>();
+        coocurrencias.keySet().forEach(producto -> nuevos.put(producto, calcularVecinos(producto)));
+        vecinos.keySet().retainAll(nuevos.keySet());
+        vecinos.putAll(nuevos);
+        pendientes.clear();
+
+        log.info("Recomendaciones reconstruidas: {} usuarios, {} pares, {} productos en {} ms",
+                historiales.size(), pares.size(), vecinos.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    @Override
+    public Class<VentaRegistradaEvent> getTipoEvento() {
+        return VentaRegistradaEvent.class;
+    }
+
+    @Override
+    public Fase getFase() {
+        return Fase.TRAS_CONFIRMAR;
+    }
+
+    @Override
+    public synchronized void procesar(List<VentaRegistradaEvent> ventas) {
+        ventas.forEach(this::registrar);
+    }
+
+    private void registrar(VentaRegistradaEvent event) {
+        Integer producto = event.getProductoId();
+        // Licencia repetida o evento reentregado: ya está contado
+        if (!adquirir(event.getCompradorId(), producto)) {
+            return;
+        }
+        Integer saliente = agregarAHistorial(event.getCompradorId(), producto);
+        List<Integer> historial = historiales.get(event.getCompradorId());
+
+        // El producto que sale de la ventana deja de formar pares con los que quedan
+        if (saliente != null) {
+            for (Integer otro : historial) {
+                if (!otro.equals(producto)) {
+                    sumarPar(saliente, otro, -1);
+                }
+            }
+        }
+        for (Integer otro : historial) {
+            if (!otro.equals(producto)) {
+                sumarPar(producto, otro, 1);
+            }
+        }
+
+        // Cambian las puntuaciones de todo vecino del producto: se marcan y se recalculan al leerse
+        if (coocurrencias.containsKey(producto)) {
+            pendientes.add(producto);
+            pendientes.addAll(coocurrencias.get(producto).keySet());
+        }
+    }
+
+    private boolean adquirir(Integer usuarioId, Integer productoId) {
+        if (!adquiridos.computeIfAbsent(usuarioId, k -> new HashSet<>()).add(productoId)) {
+            return false;
+        }
+        compradores.merge(productoId, 1, Integer::sum);
+        return true;
+    }
+
+    private void sumarPar(Integer a, Integer b, int veces) {
+        sumarConteo(a, b, veces);
+        sumarConteo(b, a, veces);
+        pendientes.add(a);
+        pendientes.add(b);
+    }
+
+    private void sumarConteo(Integer producto, Integer otro, int veces) {
+        Map<Integer, Integer> conjuntas = coocurrencias.computeIfAbsent(producto, k -> new HashMap<>());
+        if (conjuntas.merge(otro, veces, Integer::sum) <= 0) {
+            conjuntas.remove(otro);
+            if (conjuntas.isEmpty()) {
+                coocurrencias.remove(producto);
+            }
+        }
+    }
+
+    private synchronized int[] recalcular(Integer productoId) {
+        if (pendientes.remove(productoId)) {
+            vecinos.put(productoId, calcularVecinos(productoId));
+        }
+        return vecinos.get(productoId);
+    }
+
+    // Devuelve el producto que sale de la ventana, si alguno
+    private Integer agregarAHistorial(Integer usuarioId, Integer productoId) {
+        List<Integer> historial = historiales.computeIfAbsent(usuarioId, k -> new ArrayList<>());
+        historial.add(productoId);
+        return historial.size() > HISTORIAL_MAXIMO ? historial.remove(0) : null;
+    }
+
+    // Copia de los conteos de compras conjuntas, para las pruebas
+    synchronized Map<Integer, Map<Integer, Integer>> copiarCoocurrencias() {
+        Map<Integer, Map<Integer, Integer>> copia = new HashMap<>();
+        coocurrencias.forEach((producto, conjuntas) -> copia.put(producto, new HashMap<>(conjuntas)));
+        return copia;
+    }
+
+    // Similitud coseno: compras conjuntas / sqrt(compradores de a * compradores de b)
+    private int[] calcularVecinos(Integer producto) {
+        Map<Integer, Integer> conjuntas = coocurrencias.getOrDefault(producto, Map.of());
+        double compradoresProducto = compradores.getOrDefault(producto, 1);
+
+        Map<Integer, Double> puntuaciones = new LinkedHashMap<>();
+        conjuntas.forEach((otro, veces) ->
+                puntuaciones.put(otro, veces / Math.sqrt(compradoresProducto * compradores.getOrDefault(otro, 1))));
+        return puntuaciones.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(VECINOS_MAXIMOS)
+                .mapToInt(Map.Entry::getKey)
+                .toArray();
+    }
+
+    // Cuenta cada par (a < b) comprado por un mismo usuario; clave = a << 32 | b
+    private static final class ContarPares extends RecursiveTask<Map<Long, Integer>> {
+        private static final int UMBRAL = 500;
+
+        private final List<int[]> historiales;
+        private final int desde;
+        private final int hasta;
+
+        ContarPares(List<int[]> historiales, int desde, int hasta) {
+            this.historiales = historiales;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected Map<Long, Integer> compute() {
+            if (hasta - desde <= UMBRAL) {
+                Map<Long, Integer> pares = new HashMap<>();
+                for (int u = desde; u < hasta; u++) {
+                    int[] productos = historiales.get(u);
+                    for (int i = 0; i < productos.length; i++) {
+                        for (int j = i + 1; j < productos.length; j++) {
+                            if (productos[i] == productos[j]) {
+                                continue;
+                            }
+                            int a = Math.min(productos[i], productos[j]);
+                            int b = Math.max(productos[i], productos[j]);
+                            pares.merge(((long) a << 32) | b, 1, Integer::sum);
+                        }
+                    }
+                }
+                return pares;
+            }
+            int medio = (desde + hasta) >>> 1;
+            ContarPares izquierda = new ContarPares(historiales, desde, medio);
+            izquierda.fork();
+            Map<Long, Integer> derecha = new ContarPares(historiales, medio, hasta).compute();
+            return fusionar(izquierda.join(), derecha);
+        }
+
+        private static Map<Long, Integer> fusionar(Map<Long, Integer> a, Map<Long, Integer> b) {
+            Map<Long, Integer> mayor = a.size() >= b.size() ? a : b;
+            Collection<Map.Entry<Long, Integer>> menor = (mayor == a ? b : a).entrySet();
+            menor.forEach(e -> mayor.merge(e.getKey(), e.getValue(), Integer::sum));
+            return mayor;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.marketplace.backend.service;
 
+import com.marketplace.backend.dto.PaginaCursorDTO;
 import com.marketplace.backend.dto.ResenaDTO;
+import com.marketplace.backend.dto.ValoracionDTO;
+import com.marketplace.backend.event.ProductoCambiadoEvent;
+import com.marketplace.backend.exception.BadRequestException;
 import com.marketplace.backend.exception.ResourceNotFoundException;
 import com.marketplace.backend.model.Producto;
 import com.marketplace.backend.model.Resena;
@@ -8,37 +12,113 @@ import com.marketplace.backend.model.Usuario;
 import com.marketplace.backend.repository.ProductoRepository;
 import com.marketplace.backend.repository.ResenaRepository;
 import com.marketplace.backend.repository.UsuarioRepository;
+import com.marketplace.backend.repository.ValoracionProductoRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Reseñas y valoración agregada de cada producto. Crear o borrar una reseña
+ * ajusta en la misma transacción el recuento, la suma y el histograma de
+ * valoracion_producto, que viaja dentro de ProductoDTO; el snapshot del
+ * catálogo se refresca con ProductoCambiadoEvent.
+ */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ResenaService {
 
+    static final int PRODUCTOS_MAXIMOS = 100;
+    static final int TAMANO_PAGINA_MAXIMO = 100;
+    static final int RESENAS_POR_PRODUCTO_MAXIMAS = 20;
+
     private final ResenaRepository resenaRepository;
     private final ProductoRepository productoRepository;
     private final UsuarioRepository usuarioRepository;
+    private final ValoracionProductoRepository valoracionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<ResenaDTO> getResenasByProducto(Integer productoId) {
-        return resenaRepository.findByProductoProductoId(productoId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return resenaRepository.findDTOsByProductoId(productoId);
     }
 
     @Transactional(readOnly = true)
     public List<ResenaDTO> getResenasByUsuario(Integer usuarioId) {
-        return resenaRepository.findByUsuarioUsuarioId(usuarioId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return resenaRepository.findDTOsByUsuarioId(usuarioId);
+    }
+
+    // Reseñas de un producto por páginas, de la más reciente a la más antigua
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<ResenaDTO> getPaginaResenasByProducto(Integer productoId, int tamano, String cursor) {
+        if (tamano < 1 || tamano > TAMANO_PAGINA_MAXIMO) {
+            throw new BadRequestException("El tamaño de página debe estar entre 1 y " + TAMANO_PAGINA_MAXIMO);
+        }
+        PaginaCursor.FechaId posicion = PaginaCursor.decodificarFechaId(cursor, PaginaCursor.FECHA_MAXIMA);
+
+        List<ResenaDTO> resenas = resenaRepository.findPaginaByProductoId(productoId, posicion.fecha(),
+                posicion.id(), Limit.of(tamano + 1));
+        boolean hayMas = resenas.size() > tamano;
+        if (hayMas) {
+            resenas = resenas.subList(0, tamano);
+        }
+        // Última fila devuelta: fecha de la reseña + id como desempate
+        String siguiente = hayMas
+                ? PaginaCursor.codificar(resenas.get(tamano - 1).getFecha(), resenas.get(tamano - 1).getResenaId())
+                : null;
+        return new PaginaCursorDTO<>(resenas, siguiente, hayMas);
+    }
+
+    // Las reseñas más recientes de varios productos en una consulta (tarjetas de un listado);
+    // todos los productos pedidos aparecen en el resultado, en el orden pedido
+    @Transactional(readOnly = true)
+    public Map<Integer, List<ResenaDTO>> getResenasRecientes(List<Integer> productoIds, int limite) {
+        Set<Integer> ids = comprobarProductoIds(productoIds);
+        if (limite < 1 || limite > RESENAS_POR_PRODUCTO_MAXIMAS) {
+            throw new BadRequestException("El límite debe estar entre 1 y " + RESENAS_POR_PRODUCTO_MAXIMAS);
+        }
+
+        Map<Integer, List<ResenaDTO>> resultado = new LinkedHashMap<>();
+        ids.forEach(id -> resultado.put(id, new ArrayList<>()));
+        for (ResenaRepository.ResenaReciente r : resenaRepository.findRecientesByProductoIds(ids, limite)) {
+            resultado.get(r.getProductoId()).add(new ResenaDTO(r.getResenaId(), r.getProductoId(), r.getUsuarioId(),
+                    r.getCalificacion(), r.getComentario(), r.getFecha(), r.getEmail(), r.getTitulo()));
+        }
+        return resultado;
+    }
+
+    // Valoraciones de varios productos en una consulta, en el orden pedido (los inexistentes se omiten)
+    @Transactional(readOnly = true)
+    public List<ValoracionDTO> getValoraciones(List<Integer> productoIds) {
+        Set<Integer> ids = comprobarProductoIds(productoIds);
+        Set<Integer> existentes = new HashSet<>(productoRepository.findIdsExistentes(ids));
+        Map<Integer, ValoracionDTO> valoraciones = new HashMap<>();
+        valoracionRepository.findDTOsByProductoIds(ids).forEach(v -> valoraciones.put(v.getProductoId(), v));
+        return ids.stream()
+                .filter(existentes::contains)
+                .map(id -> valoraciones.getOrDefault(id, ValoracionDTO.vacia(id)))
+                .toList();
     }
 
     @Transactional
     public ResenaDTO createResena(ResenaDTO resenaDTO, Integer usuarioId) {
+        Integer calificacion = resenaDTO.getCalificacion();
+        if (calificacion == null || calificacion < 1 || calificacion > 5) {
+            throw new BadRequestException("La calificación debe estar entre 1 y 5");
+        }
+
         Producto producto = productoRepository.findById(resenaDTO.getProductoId())
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
 
@@ -48,19 +128,55 @@ public class ResenaService {
         Resena resena = new Resena();
         resena.setProducto(producto);
         resena.setUsuario(usuario);
-        resena.setCalificacion(resenaDTO.getCalificacion());
+        resena.setCalificacion(calificacion);
         resena.setComentario(resenaDTO.getComentario());
 
         resena = resenaRepository.save(resena);
+        valoracionRepository.sumar(producto.getProductoId(), calificacion);
+        publicarCambio(producto.getProductoId());
         return convertToDTO(resena);
     }
 
     @Transactional
     public void deleteResena(Integer id) {
-        if (!resenaRepository.existsById(id)) {
+        Resena resena = resenaRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reseña no encontrada con id: " + id));
+        Integer productoId = resena.getProducto().getProductoId();
+        if (resenaRepository.borrar(id) == 0) {
             throw new ResourceNotFoundException("Reseña no encontrada con id: " + id);
         }
-        resenaRepository.deleteById(id);
+        valoracionRepository.restar(productoId, resena.getCalificacion());
+        publicarCambio(productoId);
+    }
+
+    // Recalcula valoracion_producto desde resenas si se desincroniza (carga manual de datos, migraciones...)
+    @Transactional
+    public void reconstruirValoraciones() {
+        long inicio = System.nanoTime();
+        valoracionRepository.vaciar();
+        int productos = valoracionRepository.recalcular();
+        eventPublisher.publishEvent(new ProductoCambiadoEvent(
+                productoRepository.findDTOsByEstado(Producto.Estado.PUBLICADO), List.of()));
+        log.info("Valoraciones reconstruidas: {} productos en {} ms",
+                productos, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    // La valoración va dentro de ProductoDTO: el snapshot del catálogo necesita la versión nueva
+    private void publicarCambio(Integer productoId) {
+        productoRepository.findDTOById(productoId)
+                .ifPresent(dto -> eventPublisher.publishEvent(ProductoCambiadoEvent.actualizado(dto)));
+    }
+
+    private static Set<Integer> comprobarProductoIds(List<Integer> productoIds) {
+        Set<Integer> ids = new LinkedHashSet<>(productoIds);
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            throw new BadRequestException("Indica al menos un producto");
+        }
+        if (ids.size() > PRODUCTOS_MAXIMOS) {
+            throw new BadRequestException("Como máximo " + PRODUCTOS_MAXIMOS + " productos por consulta");
+        }
+        return ids;
     }
 
     private ResenaDTO convertToDTO(Resena resena) {
@@ -75,4 +191,4 @@ public class ResenaService {
         dto.setFecha(resena.getFecha());
         return dto;
     }
-}
\ No newline at end of file
+}
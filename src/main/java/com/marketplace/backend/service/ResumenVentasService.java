@@ -0,0 +1,155 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.dto.ResumenVentasDTO;
+import com.marketplace.backend.event.SuscriptorOutbox;
+import com.marketplace.backend.event.VentaRegistradaEvent;
+import com.marketplace.backend.exception.BadRequestException;
+import com.marketplace.backend.exception.ResourceNotFoundException;
+import com.marketplace.backend.model.Dinero;
+import com.marketplace.backend.model.ResumenVentasDiario;
+import com.marketplace.backend.repository.ArtistaRepository;
+import com.marketplace.backend.repository.ResumenVentasArtistaRepository;
+import com.marketplace.backend.repository.ResumenVentasDiarioRepository;
+import com.marketplace.backend.repository.ResumenVentasProductoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Totales de ventas por artista, producto y día. Las tablas resumen se
+ * incrementan desde el outbox (un upsert por clave y lote, en la transacción
+ * que marca los eventos como procesados), así que los paneles leen unas
+ * pocas filas en lugar de sumar todas las ventas del artista.
+ * reconstruir() las recalcula desde venta si se desincronizan (carga manual
+ * de datos, migraciones...).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResumenVentasService implements SuscriptorOutbox<VentaRegistradaEvent> {
+
+    static final int DIAS_MAXIMOS = 366;
+
+    private final ResumenVentasArtistaRepository resumenArtistaRepository;
+    private final ResumenVentasProductoRepository resumenProductoRepository;
+    private final ResumenVentasDiarioRepository resumenDiarioRepository;
+    private final ArtistaRepository artistaRepository;
+
+    @Override
+    public Class<VentaRegistradaEvent> getTipoEvento() {
+        return VentaRegistradaEvent.class;
+    }
+
+    // Un lote del outbox: un upsert por artista, producto y día, siempre en orden de clave
+    // para que dos lotes concurrentes no crucen bloqueos
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void procesar(List<VentaRegistradaEvent> ventas) {
+        Map<Integer, Acumulado> porArtista = new TreeMap<>();
+        Map<Integer, Acumulado> porProducto = new TreeMap<>();
+        Map<ResumenVentasDiario.Clave, Acumulado> porDia = new TreeMap<>(
+                Comparator.comparing(ResumenVentasDiario.Clave::getArtistaId)
+                        .thenComparing(ResumenVentasDiario.Clave::getDia));
+        for (VentaRegistradaEvent v : ventas) {
+            porArtista.computeIfAbsent(v.getVendedorId(), k -> new Acumulado(v.getVendedorId())).sumar(v);
+            porProducto.computeIfAbsent(v.getProductoId(), k -> new Acumulado(v.getVendedorId())).sumar(v);
+            porDia.computeIfAbsent(new ResumenVentasDiario.Clave(v.getVendedorId(), v.getFechaVenta().toLocalDate()),
+                    k -> new Acumulado(v.getVendedorId())).sumar(v);
+        }
+        porArtista.forEach((artistaId, a) ->
+                resumenArtistaRepository.sumar(artistaId, a.ventas, a.bruto.toBigDecimal(), a.comision.toBigDecimal()));
+        porProducto.forEach((productoId, a) ->
+                resumenProductoRepository.sumar(productoId, a.artistaId, a.ventas, a.bruto.toBigDecimal(),
+                        a.comision.toBigDecimal()));
+        porDia.forEach((clave, a) ->
+                resumenDiarioRepository.sumar(clave.getArtistaId(), clave.getDia(), a.ventas,
+                        a.bruto.toBigDecimal(), a.comision.toBigDecimal()));
+    }
+
+    @Transactional(readOnly = true)
+    public ResumenVentasDTO getResumenArtista(Integer artistaId) {
+        return resumenArtistaRepository.findById(artistaId)
+                .map(r -> new ResumenVentasDTO(artistaId, null, null, null,
+                        r.getVentas(), r.getTotalBruto(), r.getTotalComision()))
+                .orElseGet(() -> {
+                    comprobarArtista(artistaId);
+                    return new ResumenVentasDTO(artistaId, null, null, null, 0, Dinero.CERO, Dinero.CERO);
+                });
+    }
+
+    @Transactional(readOnly = true)
+    public List<ResumenVentasDTO> getResumenPorProducto(Integer artistaId) {
+        comprobarArtista(artistaId);
+        return resumenProductoRepository.findDTOsByArtistaId(artistaId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ResumenVentasDTO> getResumenDiario(Integer artistaId, LocalDate desde, LocalDate hasta) {
+        if (hasta == null) {
+            hasta = LocalDate.now();
+        }
+        if (desde == null) {
+            desde = hasta.minusDays(29);
+        }
+        if (desde.isAfter(hasta)) {
+            throw new BadRequestException("La fecha inicial es posterior a la final");
+        }
+        if (ChronoUnit.DAYS.between(desde, hasta) >= DIAS_MAXIMOS) {
+            throw new BadRequestException("Como máximo " + DIAS_MAXIMOS + " días por consulta");
+        }
+        comprobarArtista(artistaId);
+        return resumenDiarioRepository.findByArtistaIdAndDiaBetweenOrderByDia(artistaId, desde, hasta).stream()
+                .map(r -> new ResumenVentasDTO(artistaId, null, null, r.getDia(),
+                        r.getVentas(), r.getTotalBruto(), r.getTotalComision()))
+                .toList();
+    }
+
+    // Recalcula las tres tablas desde venta, sin las ventas cuyo evento sigue pendiente
+    // en el outbox (esas las sumará el despachador)
+    @Transactional
+    public void reconstruir() {
+        long inicio = System.nanoTime();
+        resumenArtistaRepository.vaciar();
+        resumenProductoRepository.vaciar();
+        resumenDiarioRepository.vaciar();
+        int artistas = resumenArtistaRepository.recalcular();
+        int productos = resumenProductoRepository.recalcular();
+        int dias = resumenDiarioRepository.recalcular();
+        log.info("Resúmenes de ventas reconstruidos: {} artistas, {} productos, {} días en {} ms",
+                artistas, productos, dias, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private static final class Acumulado {
+        private final Integer artistaId;
+        private long ventas;
+        private Dinero bruto = Dinero.CERO;
+        private Dinero comision = Dinero.CERO;
+
+        private Acumulado(Integer artistaId) {
+            this.artistaId = artistaId;
+        }
+
+        private void sumar(VentaRegistradaEvent venta) {
+            ventas++;
+            bruto = bruto.sumar(venta.getPrecioVenta());
+            comision = comision.sumar(venta.getComisionMarketplace());
+        }
+    }
+
+    private void comprobarArtista(Integer artistaId) {
+        if (!artistaRepository.existsById(artistaId)) {
+            throw new ResourceNotFoundException("Artista no encontrado");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.dto.TendenciaDTO;
+import com.marketplace.backend.event.SuscriptorOutbox;
+import com.marketplace.backend.event.VentaRegistradaEvent;
+import com.marketplace.backend.exception.BadRequestException;
+import com.marketplace.backend.repository.VentaRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Productos en tendencia según sus ventas en la última hora, día y semana.
+ * Los contadores viven en memoria (ventanas deslizantes por cubetas) y se
+ * alimentan de VentaRegistradaEvent a través del outbox; al arrancar se
+ * reconstruyen con las ventas de la última semana.
+ */
+@Service
+@Slf4j
+public class TendenciasService implements SuscriptorOutbox<VentaRegistradaEvent> {
+
+    static final int LIMITE_MAXIMO = 100;
+
+    public enum Ventana {
+        HORA(60, Duration.ofMinutes(1)),
+        DIA(96, Duration.ofMinutes(15)),
+        SEMANA(168, Duration.ofHours(1));
+
+        private final int cubetas;
+        private final Duration anchoCubeta;
+
+        Ventana(int cubetas, Duration anchoCubeta) {
+            this.cubetas = cubetas;
+            this.anchoCubeta = anchoCubeta;
+        }
+
+        public static Ventana desde(String valor) {
+            try {
+                return valueOf(valor.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Ventana no válida: " + valor);
+            }
+        }
+    }
+
+    private final VentaRepository ventaRepository;
+    private final CatalogoService catalogoService;
+
+    // Protegidas por el monitor del servicio
+    private final Map<Ventana, VentanaDeslizante> ventanas = new EnumMap<>(Ventana.class);
+
+    public TendenciasService(VentaRepository ventaRepository, CatalogoService catalogoService,
+                             MeterRegistry meterRegistry) {
+        this.ventaRepository = ventaRepository;
+        this.catalogoService = catalogoService;
+        for (Ventana ventana : Ventana.values()) {
+            ventanas.put(ventana, new VentanaDeslizante(ventana.cubetas, ventana.anchoCubeta));
+        }
+        Gauge.builder("tendencias.productos", this, TendenciasService::getProductosSemana)
+                .description("Productos con ventas en la última semana")
+                .register(meterRegistry);
+    }
+
+    public List<TendenciaDTO> getTendencias(Ventana ventana, Integer categoriaId, int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new BadRequestException("El límite debe estar entre 1 y " + LIMITE_MAXIMO);
+        }
+
+        // Solo productos publicados (y de la categoría pedida)
+        Map<Integer, ProductoDTO> publicados = catalogoService.getSnapshot().getPorId();
+        List<VentanaDeslizante.Conteo> top;
+        double horas;
+        synchronized (this) {
+            VentanaDeslizante contador = ventanas.get(ventana);
+            top = contador.top(limite, id -> {
+                ProductoDTO p = publicados.get(id);
+                return p != null && (categoriaId == null || categoriaId.equals(p.getCategoriaId()));
+            }, System.currentTimeMillis());
+            horas = contador.getDuracion().toMinutes() / 60.0;
+        }
+
+        return top.stream()
+                .map(c -> new TendenciaDTO(publicados.get(c.productoId()), c.ventas(), c.ventas() / horas))
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(3)
+    @Transactional(readOnly = true)
+    public synchronized void reconstruir() {
+        LocalDateTime desde = LocalDateTime.now().minus(Ventana.SEMANA.anchoCubeta.multipliedBy(Ventana.SEMANA.cubetas));
+        ventanas.replaceAll((ventana, anterior) -> new VentanaDeslizante(ventana.cubetas, ventana.anchoCubeta));
+
+        long ventas = 0;
+        try (Stream<VentaRepository.VentaReciente> recientes = ventaRepository.streamVentasDesde(desde)) {
+            for (var it = recientes.iterator(); it.hasNext(); ventas++) {
+                VentaRepository.VentaReciente venta = it.next();
+                registrar(venta.getProductoId(), venta.getFechaVenta());
+            }
+        }
+        log.info("Tendencias reconstruidas con {} ventas de la última semana", ventas);
+    }
+
+    @Override
+    public Class<VentaRegistradaEvent> getTipoEvento() {
+        return VentaRegistradaEvent.class;
+    }
+
+    @Override
+    public Fase getFase() {
+        return Fase.TRAS_CONFIRMAR;
+    }
+
+    @Override
+    public synchronized void procesar(List<VentaRegistradaEvent> ventas) {
+        ventas.forEach(venta -> registrar(venta.getProductoId(), venta.getFechaVenta()));
+    }
+
+    public synchronized int getProductosSemana() {
+        return ventanas.get(Ventana.SEMANA).getProductos();
+    }
+
+    private void registrar(Integer productoId, LocalDateTime fechaVenta) {
+        long epochMs = fechaVenta.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        ventanas.values().forEach(contador -> contador.registrar(productoId, epochMs));
+    }
+}
@@ -0,0 +1,77 @@
+package com.marketplace.backend.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tokenizador para texto en español: minúsculas, sin tildes ni diéresis
+ * (la ñ queda como n), sin palabras vacías y reducidas a una raíz ligera:
+ * sin plural ni vocal final, para que singular y plural den el mismo token.
+ */
+public final class Tokenizador {
+
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "ante", "con", "contra", "de", "del", "desde", "el", "en", "entre",
+            "era", "es", "esta", "este", "esto", "ha", "hay", "la", "las", "le", "les", "lo",
+            "los", "mas", "me", "mi", "mis", "muy", "ni", "no", "o", "para", "pero", "por",
+            "que", "se", "si", "sin", "sobre", "son", "su", "sus", "te", "tu", "tus", "u",
+            "un", "una", "uno", "unos", "unas", "y", "ya", "yo");
+
+    private Tokenizador() {
+    }
+
+    public static List<String> tokenizar(String texto) {
+        List<String> tokens = new ArrayList<>();
+        if (texto == null || texto.isBlank()) {
+            return tokens;
+        }
+        String normalizado = Normalizer.normalize(texto, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+
+        int inicio = -1;
+        for (int i = 0; i <= normalizado.length(); i++) {
+            boolean esLetra = i < normalizado.length() && Character.isLetterOrDigit(normalizado.charAt(i));
+            if (esLetra && inicio < 0) {
+                inicio = i;
+            } else if (!esLetra && inicio >= 0) {
+                agregar(tokens, normalizado.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static void agregar(List<String> tokens, String token) {
+        if (PALABRAS_VACIAS.contains(token)) {
+            return;
+        }
+        tokens.add(raiz(token));
+    }
+
+    // cancion y canciones -> cancion, clase y clases -> clas, guitarra y guitarras -> guitarr,
+    // luz y luces -> luz, dulce y dulces -> dulz. La raíz conserva al menos dos letras
+    static String raiz(String token) {
+        int n = token.length();
+        if (n > 4 && token.endsWith("ces")) {
+            return token.substring(0, n - 3) + "z";
+        }
+        if (n > 3 && token.endsWith("ce")) {
+            return token.substring(0, n - 2) + "z";
+        }
+        if (n > 3 && token.charAt(n - 1) == 's' && esVocalFinal(token.charAt(n - 2))) {
+            return token.substring(0, n - 2);
+        }
+        if (n > 2 && esVocalFinal(token.charAt(n - 1))) {
+            return token.substring(0, n - 1);
+        }
+        return token;
+    }
+
+    private static boolean esVocalFinal(char c) {
+        return c == 'a' || c == 'e' || c == 'o';
+    }
+}
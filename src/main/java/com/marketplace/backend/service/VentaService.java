@@ -1,18 +1,28 @@
 package com.marketplace.backend.service;
 
+import com.marketplace.backend.dto.PaginaCursorDTO;
 import com.marketplace.backend.dto.VentaDTO;
+import com.marketplace.backend.event.VentaRegistradaEvent;
 import com.marketplace.backend.exception.BadRequestException;
 import com.marketplace.backend.exception.ResourceNotFoundException;
 import com.marketplace.backend.model.*;
 import com.marketplace.backend.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -24,35 +34,98 @@ public class VentaService {
     private final UsuarioRepository usuarioRepository;
     private final ProductoAdquiridoRepository productoAdquiridoRepository;
     private final BilleteraService billeteraService;
+    private final VentaJdbcRepository ventaJdbcRepository;
+    private final VentaVistaRepository ventaVistaRepository;
+    private final OutboxService outboxService;
+    private final ArtistaRepository artistaRepository;
+    // Cada tramo de venta_vista en su propia transacción
+    private final TransactionTemplate transactionTemplate;
     
-    private static final BigDecimal COMISION_PORCENTAJE = new BigDecimal("0.10"); // 10%
+    private static final int COMISION_PUNTOS_BASICOS = 1000; // 10%
+    
+    static final int PRODUCTOS_CARRITO_MAXIMOS = 100;
+    static final int TAMANO_PAGINA_MAXIMO = 100;
+    
+    // Límites del rango cuando no se piden fechas
+    private static final LocalDateTime FECHA_MINIMA = LocalDateTime.of(1970, 1, 1, 0, 0);
 
-    @Transactional(readOnly = true)
-    public List<VentaDTO> getAllVentas() {
-        return ventaRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-    }
+    static final int TAMANO_TRAMO_VISTA = 1000;
+    static final int TRAMOS_VISTA_POR_PASADA = 20;
+
+    // Relleno de venta_vista: última venta al empezar (las posteriores ya se insertan con su vista) y tramo
+    // revisado. null hasta la primera pasada
+    private Integer vistaHasta;
+    private int vistaRevisadaHasta;
 
     @Transactional(readOnly = true)
     public List<VentaDTO> getVentasByComprador(Integer compradorId) {
-        return ventaRepository.findByCompradorUsuarioId(compradorId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return ventaVistaRepository.findDTOsByCompradorId(compradorId);
     }
 
     @Transactional(readOnly = true)
     public List<VentaDTO> getVentasByVendedor(Integer vendedorId) {
-        return ventaRepository.findByVendedorArtistaId(vendedorId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return ventaVistaRepository.findDTOsByVendedorId(vendedorId);
+    }
+
+    // Historial de compras por páginas, de la más reciente a la más antigua; 'hasta' incluye el día entero
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<VentaDTO> getPaginaVentasByComprador(Integer compradorId, LocalDate desde, LocalDate hasta,
+                                                               int tamano, String cursor) {
+        return paginar(desde, hasta, tamano, cursor, (inicio, fecha, ventaId, limite) ->
+                ventaVistaRepository.findPaginaByCompradorId(compradorId, inicio, fecha, ventaId, limite));
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<VentaDTO> getPaginaVentasByVendedor(Integer vendedorId, LocalDate desde, LocalDate hasta,
+                                                              int tamano, String cursor) {
+        return paginar(desde, hasta, tamano, cursor, (inicio, fecha, ventaId, limite) ->
+                ventaVistaRepository.findPaginaByVendedorId(vendedorId, inicio, fecha, ventaId, limite));
+    }
+
+    /**
+     * Copia a venta_vista las ventas que aún no tienen fila (p. ej. anteriores
+     * a la tabla) en tramos de {@value #TAMANO_TRAMO_VISTA} ids, cada uno en
+     * su propia transacción y como mucho {@value #TRAMOS_VISTA_POR_PASADA} por
+     * pasada, sin retrasar el arranque. Los productos y artistas del tramo se
+     * bloquean como en una compra para no copiar un nombre a medio renombrar.
+     */
+    @Scheduled(fixedDelayString = "${ventas.vista.intervalo-ms:5000}")
+    public synchronized void completarVista() {
+        if (vistaHasta == null) {
+            Integer ultima = ventaRepository.findUltimoId();
+            vistaHasta = ultima != null ? ultima : 0;
+        }
+        int copiadas = 0;
+        for (int tramo = 0; tramo < TRAMOS_VISTA_POR_PASADA && vistaRevisadaHasta < vistaHasta; tramo++) {
+            int desde = vistaRevisadaHasta + 1;
+            int hasta = (int) Math.min((long) vistaRevisadaHasta + TAMANO_TRAMO_VISTA, vistaHasta);
+            Integer enTramo = transactionTemplate.execute(status -> completarTramo(desde, hasta));
+            copiadas += enTramo != null ? enTramo : 0;
+            vistaRevisadaHasta = hasta;
+        }
+        if (copiadas > 0) {
+            log.info("Copiadas {} ventas a venta_vista (hasta venta {} de {})", copiadas, vistaRevisadaHasta, vistaHasta);
+        }
+    }
+
+    private int completarTramo(int desde, int hasta) {
+        List<Integer> productoIds = ventaRepository.findProductoIdsSinVista(desde, hasta);
+        if (productoIds.isEmpty()) {
+            return 0;
+        }
+        productoRepository.bloquearParaCompra(productoIds);
+        artistaRepository.bloquearVendedores(productoIds);
+        return ventaVistaRepository.completar(desde, hasta);
     }
 
     @Transactional
     public VentaDTO createVenta(Integer productoId, Integer compradorId) {
         log.info("Procesando venta - Producto: {}, Comprador: {}", productoId, compradorId);
         
-        // Validar producto
+        // Validar producto. Bloqueados antes de leerlos: título y nombre del vendedor que se copian a
+        // venta_vista no cambian hasta el commit (ver ProductoRepository.bloquearParaCompra)
+        productoRepository.bloquearParaCompra(List.of(productoId));
+        artistaRepository.bloquearVendedores(List.of(productoId));
         Producto producto = productoRepository.findById(productoId)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
 
@@ -76,7 +149,7 @@ public class VentaService {
 
         // ⭐ DESCONTAR SALDO DE LA BILLETERA ⭐
         try {
-            billeteraService.descontarSaldo(compradorId, producto.getPrecio());
+            billeteraService.descontarSaldo(compradorId, producto.getPrecio(), "Compra: " + producto.getTitulo());
             log.info("Saldo descontado exitosamente de la billetera del usuario {}", compradorId);
         } catch (IllegalArgumentException e) {
             log.error("Error al descontar saldo: {}", e.getMessage());
@@ -87,7 +160,7 @@ public class VentaService {
         }
 
         // Calcular comisión
-        BigDecimal comision = producto.getPrecio().multiply(COMISION_PORCENTAJE);
+        Dinero comision = producto.getPrecio().porcentaje(COMISION_PUNTOS_BASICOS);
 
         // Crear venta
         Venta venta = new Venta();
@@ -108,7 +181,102 @@ public class VentaService {
         productoAdquiridoRepository.save(productoAdquirido);
         log.info("Producto adquirido registrado - Licencia ID: {}", productoAdquirido.getLicenciaId());
 
-        return convertToDTO(venta);
+        // Resúmenes, tendencias, etc. se actualizan fuera de la compra, desde el outbox
+        outboxService.publicar(new VentaRegistradaEvent(venta.getVentaId(), productoId, compradorId,
+                venta.getVendedor().getArtistaId(), venta.getPrecioVenta(), comision, venta.getFechaVenta()));
+        VentaDTO dto = convertToDTO(venta);
+        ventaJdbcRepository.insertarVistas(List.of(dto));
+        return dto;
+    }
+
+    /**
+     * Compra todo el carrito o nada: los productos y las licencias previas se
+     * validan con una consulta cada uno, el saldo se descuenta una sola vez por
+     * el total y ventas y licencias se insertan en lote.
+     */
+    @Transactional
+    public List<VentaDTO> comprarCarrito(List<Integer> productoIds, Integer compradorId) {
+        // Sin proveedor de Bean Validation el @NotEmpty de CarritoDTO no se comprueba: {} o null llegan hasta aquí
+        if (productoIds == null) {
+            throw new BadRequestException("El carrito está vacío");
+        }
+        Set<Integer> ids = new LinkedHashSet<>(productoIds);
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            throw new BadRequestException("El carrito está vacío");
+        }
+        if (ids.size() > PRODUCTOS_CARRITO_MAXIMOS) {
+            throw new BadRequestException("Como máximo " + PRODUCTOS_CARRITO_MAXIMOS + " productos por compra");
+        }
+        log.info("Procesando carrito - Productos: {}, Comprador: {}", ids, compradorId);
+
+        Usuario comprador = usuarioRepository.findById(compradorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Comprador no encontrado"));
+
+        // Bloqueados antes de leer títulos y nombres de vendedor (ver ProductoRepository.bloquearParaCompra)
+        productoRepository.bloquearParaCompra(ids);
+        artistaRepository.bloquearVendedores(ids);
+        Map<Integer, ProductoRepository.ProductoCompra> productos = new HashMap<>();
+        productoRepository.findParaCompra(ids).forEach(p -> productos.put(p.getProductoId(), p));
+
+        List<Integer> noEncontrados = ids.stream().filter(id -> !productos.containsKey(id)).toList();
+        if (!noEncontrados.isEmpty()) {
+            throw new ResourceNotFoundException("Productos no encontrados: " + noEncontrados);
+        }
+        List<Integer> noDisponibles = ids.stream()
+                .filter(id -> productos.get(id).getEstado() != Producto.Estado.PUBLICADO).toList();
+        if (!noDisponibles.isEmpty()) {
+            throw new BadRequestException("Productos no disponibles para venta: " + noDisponibles);
+        }
+        List<Integer> propios = ids.stream()
+                .filter(id -> compradorId.equals(productos.get(id).getUsuarioArtistaId())).toList();
+        if (!propios.isEmpty()) {
+            throw new BadRequestException("No puedes comprar tus propios productos: " + propios);
+        }
+        List<Integer> adquiridos = productoAdquiridoRepository.findProductoIdsAdquiridos(compradorId, ids);
+        if (!adquiridos.isEmpty()) {
+            throw new BadRequestException("Ya has adquirido estos productos: " + adquiridos);
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        Dinero total = Dinero.CERO;
+        List<VentaDTO> ventas = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            ProductoRepository.ProductoCompra p = productos.get(id);
+            VentaDTO venta = new VentaDTO();
+            venta.setProductoId(id);
+            venta.setTituloProducto(p.getTitulo());
+            venta.setCompradorId(compradorId);
+            venta.setEmailComprador(comprador.getEmail());
+            venta.setVendedorId(p.getArtistaId());
+            venta.setNombreVendedor(p.getNombreArtista());
+            venta.setPrecioVenta(p.getPrecio());
+            venta.setComisionMarketplace(p.getPrecio().porcentaje(COMISION_PUNTOS_BASICOS));
+            venta.setFechaVenta(ahora);
+            ventas.add(venta);
+            total = total.sumar(p.getPrecio());
+        }
+
+        // Un único cargo por el total del carrito
+        try {
+            billeteraService.descontarSaldo(compradorId, total, "Compra de " + ventas.size() + " productos");
+        } catch (IllegalArgumentException e) {
+            log.error("Error al descontar saldo: {}", e.getMessage());
+            throw new BadRequestException(e.getMessage());
+        } catch (ResourceNotFoundException e) {
+            log.error("Billetera no encontrada: {}", e.getMessage());
+            throw new BadRequestException("No tienes una billetera activa. Por favor contacta al administrador.");
+        }
+
+        ventaJdbcRepository.insertarVentas(ventas);
+        ventaJdbcRepository.insertarLicencias(ventas);
+        ventaJdbcRepository.insertarVistas(ventas);
+        outboxService.publicar(ventas.stream()
+                .map(v -> new VentaRegistradaEvent(v.getVentaId(), v.getProductoId(), compradorId,
+                        v.getVendedorId(), v.getPrecioVenta(), v.getComisionMarketplace(), v.getFechaVenta()))
+                .toList());
+        log.info("Carrito procesado: {} ventas por un total de {}", ventas.size(), total);
+        return ventas;
     }
 
     private VentaDTO convertToDTO(Venta venta) {
@@ -126,4 +294,34 @@ public class VentaService {
         dto.setIdTransaccionGateway(venta.getIdTransaccionGateway());
         return dto;
     }
-}
\ No newline at end of file
+
+    private interface ConsultaPagina {
+        List<VentaDTO> buscar(LocalDateTime desde, LocalDateTime fecha, Integer ventaId, Limit limite);
+    }
+
+    private static PaginaCursorDTO<VentaDTO> paginar(LocalDate desde, LocalDate hasta, int tamano, String cursor,
+                                                     ConsultaPagina consulta) {
+        if (tamano < 1 || tamano > TAMANO_PAGINA_MAXIMO) {
+            throw new BadRequestException("El tamaño de página debe estar entre 1 y " + TAMANO_PAGINA_MAXIMO);
+        }
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            throw new BadRequestException("La fecha inicial es posterior a la final");
+        }
+        LocalDateTime inicio = desde != null ? desde.atStartOfDay() : FECHA_MINIMA;
+
+        // Sin cursor, la primera página empieza justo antes del día siguiente a 'hasta'
+        PaginaCursor.FechaId posicion = PaginaCursor.decodificarFechaId(cursor,
+                hasta != null ? hasta.plusDays(1).atStartOfDay() : PaginaCursor.FECHA_MAXIMA);
+
+        List<VentaDTO> ventas = consulta.buscar(inicio, posicion.fecha(), posicion.id(), Limit.of(tamano + 1));
+        boolean hayMas = ventas.size() > tamano;
+        if (hayMas) {
+            ventas = ventas.subList(0, tamano);
+        }
+        // Última fila devuelta: fecha de venta + id como desempate
+        String siguiente = hayMas
+                ? PaginaCursor.codificar(ventas.get(tamano - 1).getFechaVenta(), ventas.get(tamano - 1).getVentaId())
+                : null;
+        return new PaginaCursorDTO<>(ventas, siguiente, hayMas);
+    }
+}
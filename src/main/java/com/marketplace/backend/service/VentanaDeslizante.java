@@ -0,0 +1,97 @@
+package com.marketplace.backend.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * Contador de ventas por producto sobre una ventana deslizante. El tiempo se
+ * divide en cubetas de ancho fijo guardadas en un buffer circular; al avanzar,
+ * las cubetas que salen de la ventana se restan de los totales. Registrar una
+ * venta y expirar una cubeta cuestan O(productos en la cubeta), nunca un
+ * recorrido de la ventana completa. No es thread-safe.
+ */
+final class VentanaDeslizante {
+
+    record Conteo(int productoId, int ventas) {}
+
+    private final long anchoMs;
+    private final List<Map<Integer, Integer>> cubetas;
+    private final Map<Integer, Integer> totales = new HashMap<>();
+
+    // Número absoluto (epoch / ancho) de la cubeta más reciente; -1 antes de la primera
+    private long actual = -1;
+
+    VentanaDeslizante(int numeroCubetas, Duration anchoCubeta) {
+        this.anchoMs = anchoCubeta.toMillis();
+        this.cubetas = new ArrayList<>(numeroCubetas);
+        for (int i = 0; i < numeroCubetas; i++) {
+            cubetas.add(new HashMap<>());
+        }
+    }
+
+    void registrar(int productoId, long epochMs) {
+        long cubeta = epochMs / anchoMs;
+        avanzar(cubeta);
+        // Ventas más antiguas que la ventana (llegan tarde): no cuentan
+        if (cubeta <= actual - cubetas.size()) {
+            return;
+        }
+        cubetas.get((int) (cubeta % cubetas.size())).merge(productoId, 1, Integer::sum);
+        totales.merge(productoId, 1, Integer::sum);
+    }
+
+    // Los k productos con más ventas que pasan el filtro, de mayor a menor
+    List<Conteo> top(int k, IntPredicate filtro, long ahoraMs) {
+        avanzar(ahoraMs / anchoMs);
+        Comparator<Conteo> orden = Comparator.comparingInt(Conteo::ventas)
+                .thenComparing(Conteo::productoId, Comparator.reverseOrder());
+        PriorityQueue<Conteo> heap = new PriorityQueue<>(k + 1, orden);
+        for (Map.Entry<Integer, Integer> e : totales.entrySet()) {
+            if (heap.size() == k && e.getValue() < heap.peek().ventas()) {
+                continue;
+            }
+            if (!filtro.test(e.getKey())) {
+                continue;
+            }
+            heap.offer(new Conteo(e.getKey(), e.getValue()));
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+        List<Conteo> resultado = new ArrayList<>(heap);
+        resultado.sort(orden.reversed());
+        return resultado;
+    }
+
+    Duration getDuracion() {
+        return Duration.ofMillis(anchoMs * cubetas.size());
+    }
+
+    int getProductos() {
+        return totales.size();
+    }
+
+    private void avanzar(long cubeta) {
+        if (cubeta <= actual) {
+            return;
+        }
+        if (actual < 0 || cubeta - actual >= cubetas.size()) {
+            cubetas.forEach(Map::clear);
+            totales.clear();
+        } else {
+            for (long n = actual + 1; n <= cubeta; n++) {
+                Map<Integer, Integer> saliente = cubetas.get((int) (n % cubetas.size()));
+                saliente.forEach((productoId, ventas) ->
+                        totales.computeIfPresent(productoId, (id, total) -> total.equals(ventas) ? null : total - ventas));
+                saliente.clear();
+            }
+        }
+        actual = cubeta;
+    }
+}
@@ -0,0 +1,110 @@
+package com.marketplace.backend.benchmark;
+
+import com.marketplace.backend.model.Dinero;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo de un carrito (comisión por línea, total y comprobación de saldo) y
+ * de una liquidación (bruto, comisión y neto de un lote de ventas) con
+ * BigDecimal, como se hacía antes, y con Dinero.
+ *
+ * Ejecución:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main DineroBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DineroBenchmark {
+
+    private static final BigDecimal COMISION_PORCENTAJE = new BigDecimal("0.10");
+    private static final int COMISION_PUNTOS_BASICOS = 1000;
+
+    @Param({"20", "1000"})
+    private int lineas;
+
+    private BigDecimal[] preciosDecimal;
+    private Dinero[] preciosDinero;
+    private BigDecimal saldoDecimal;
+    private Dinero saldoDinero;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        preciosDecimal = new BigDecimal[lineas];
+        preciosDinero = new Dinero[lineas];
+        for (int i = 0; i < lineas; i++) {
+            long centimos = 100 + random.nextInt(50_000);
+            preciosDecimal[i] = BigDecimal.valueOf(centimos, 2);
+            preciosDinero[i] = Dinero.deCentimos(centimos);
+        }
+        saldoDecimal = BigDecimal.valueOf(100_000_000L, 2);
+        saldoDinero = Dinero.deCentimos(100_000_000L);
+    }
+
+    @Benchmark
+    public void carritoBigDecimal(Blackhole bh) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal precio : preciosDecimal) {
+            bh.consume(precio.multiply(COMISION_PORCENTAJE));
+            total = total.add(precio);
+        }
+        if (saldoDecimal.compareTo(total) >= 0) {
+            bh.consume(saldoDecimal.subtract(total));
+        }
+    }
+
+    @Benchmark
+    public void carritoDinero(Blackhole bh) {
+        Dinero total = Dinero.CERO;
+        for (Dinero precio : preciosDinero) {
+            bh.consume(precio.porcentaje(COMISION_PUNTOS_BASICOS));
+            total = total.sumar(precio);
+        }
+        if (!saldoDinero.esMenorQue(total)) {
+            bh.consume(saldoDinero.restar(total));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal liquidacionBigDecimal() {
+        BigDecimal bruto = BigDecimal.ZERO;
+        BigDecimal comision = BigDecimal.ZERO;
+        for (BigDecimal precio : preciosDecimal) {
+            bruto = bruto.add(precio);
+            comision = comision.add(precio.multiply(COMISION_PORCENTAJE));
+        }
+        return bruto.subtract(comision);
+    }
+
+    @Benchmark
+    public Dinero liquidacionDinero() {
+        Dinero bruto = Dinero.CERO;
+        Dinero comision = Dinero.CERO;
+        for (Dinero precio : preciosDinero) {
+            bruto = bruto.sumar(precio);
+            comision = comision.sumar(precio.porcentaje(COMISION_PUNTOS_BASICOS));
+        }
+        return bruto.restar(comision);
+    }
+}
@@ -0,0 +1,84 @@
+package com.marketplace.backend.benchmark;
+
+import com.marketplace.backend.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por petición de verificar el token. "anterior" reproduce lo que
+ * hacían el filtro y el controlador antes de la caché: cuatro parseos, cada
+ * uno con una clave y un parser nuevos. "sinCache" es un único parseo con el
+ * parser de JwtUtil (fallo de caché) y "conCache" el acierto en la caché.
+ *
+ * Ejecución:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main JwtVerificacionBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificacionBenchmark {
+
+    private static final String SECRETO = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private JwtUtil conCache;
+    private JwtUtil sinCache;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        conCache = new JwtUtil(SECRETO, 3_600_000L, 10_000, new SimpleMeterRegistry());
+        // Con cero entradas cada verificación parsea y comprueba la firma
+        sinCache = new JwtUtil(SECRETO, 3_600_000L, 0, new SimpleMeterRegistry());
+        token = conCache.generateToken("comprador@test.com", 1, "CLIENTE");
+        conCache.verificar(token);
+    }
+
+    @Benchmark
+    public void anterior(Blackhole bh) {
+        // extractUsername, validateToken (usuario + expiración) y extractClaim del controlador
+        bh.consume(parsear(token).getSubject());
+        bh.consume(parsear(token).getSubject());
+        bh.consume(parsear(token).getExpiration().before(new Date()));
+        bh.consume(parsear(token).get("usuarioId"));
+    }
+
+    @Benchmark
+    public Claims sinCache() {
+        return sinCache.verificar(token);
+    }
+
+    @Benchmark
+    public Claims conCache() {
+        return conCache.verificar(token);
+    }
+
+    private static Claims parsear(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRETO.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
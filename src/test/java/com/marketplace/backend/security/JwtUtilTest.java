@@ -0,0 +1,96 @@
+package com.marketplace.backend.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+	private static final String SECRETO = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void entradaDejaDeServirseAlExpirarElToken() throws Exception {
+		// exp se guarda en segundos: con 2 s de vigencia el token dura al menos 1 s
+		JwtUtil jwtUtil = new JwtUtil(SECRETO, 2000L, 100, meterRegistry);
+		String token = jwtUtil.generateToken("a@test.com", 1, "CLIENTE");
+		jwtUtil.verificar(token);
+		jwtUtil.verificar(token);
+		assertThat(jwtUtil.getTotalEntradas()).isEqualTo(1);
+		assertThat(aciertos()).isEqualTo(1);
+
+		Thread.sleep(2500);
+		assertThatThrownBy(() -> jwtUtil.verificar(token)).isInstanceOf(ExpiredJwtException.class);
+		assertThat(jwtUtil.getTotalEntradas()).isZero();
+		assertThat(aciertos()).isEqualTo(1);
+	}
+
+	@Test
+	void purgaQuitaLosExpirados() throws Exception {
+		JwtUtil jwtUtil = new JwtUtil(SECRETO, 2000L, 100, meterRegistry);
+		jwtUtil.verificar(jwtUtil.generateToken("a@test.com", 1, "CLIENTE"));
+		jwtUtil.purgarExpirados();
+		assertThat(jwtUtil.getTotalEntradas()).isEqualTo(1);
+
+		Thread.sleep(2500);
+		jwtUtil.purgarExpirados();
+		assertThat(jwtUtil.getTotalEntradas()).isZero();
+	}
+
+	@Test
+	void cacheAcotadaDescartaLaMenosUsada() {
+		JwtUtil jwtUtil = new JwtUtil(SECRETO, 3_600_000L, 2, meterRegistry);
+		String primero = jwtUtil.generateToken("a@test.com", 1, "CLIENTE");
+		String segundo = jwtUtil.generateToken("b@test.com", 2, "CLIENTE");
+		String tercero = jwtUtil.generateToken("c@test.com", 3, "CLIENTE");
+
+		jwtUtil.verificar(primero);
+		jwtUtil.verificar(segundo);
+		jwtUtil.verificar(primero);
+		jwtUtil.verificar(tercero);
+		assertThat(jwtUtil.getTotalEntradas()).isEqualTo(2);
+
+		// Sale el segundo, el menos usado recientemente
+		double aciertosAntes = aciertos();
+		jwtUtil.verificar(primero);
+		assertThat(aciertos()).isEqualTo(aciertosAntes + 1);
+		jwtUtil.verificar(segundo);
+		assertThat(aciertos()).isEqualTo(aciertosAntes + 1);
+		assertThat(jwtUtil.getTotalEntradas()).isEqualTo(2);
+	}
+
+	@Test
+	void tokenManipuladoConLosMismosClaimsSeRechaza() {
+		JwtUtil jwtUtil = new JwtUtil(SECRETO, 3_600_000L, 100, meterRegistry);
+		String token = jwtUtil.generateToken("a@test.com", 1, "CLIENTE");
+		Claims claims = jwtUtil.verificar(token);
+
+		// Mismas cabecera y claims, firma alterada
+		int posicion = token.lastIndexOf('.') + 5;
+		char original = token.charAt(posicion);
+		String alterado = token.substring(0, posicion) + (original == 'A' ? 'B' : 'A') + token.substring(posicion + 1);
+		assertThatThrownBy(() -> jwtUtil.verificar(alterado)).isInstanceOf(SignatureException.class);
+
+		// Mismos claims firmados con otra clave
+		String otraClave = Jwts.builder()
+				.setClaims(claims)
+				.signWith(Keys.hmacShaKeyFor("fedcba9876543210fedcba9876543210fedcba9876543210".getBytes()),
+						SignatureAlgorithm.HS256)
+				.compact();
+		assertThatThrownBy(() -> jwtUtil.verificar(otraClave)).isInstanceOf(SignatureException.class);
+		assertThat(jwtUtil.getTotalEntradas()).isEqualTo(1);
+	}
+
+	private double aciertos() {
+		return meterRegistry.counter("jwt.cache", "resultado", "acierto").count();
+	}
+}
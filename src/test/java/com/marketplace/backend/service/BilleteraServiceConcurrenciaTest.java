@@ -0,0 +1,125 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.model.Dinero;
+import com.marketplace.backend.model.Usuario;
+import com.marketplace.backend.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Miles de débitos y recargas en paralelo sobre la misma billetera (H2 en memoria)
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:billetera;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.datasource.hikari.maximum-pool-size=32",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"jwt.secret=0123456789abcdef0123456789abcdef0123456789abcdef",
+		"jwt.expiration=86400000",
+		"file.upload-dir=target/test-uploads"
+})
+class BilleteraServiceConcurrenciaTest {
+
+	private static final int HILOS = 32;
+
+	@Autowired
+	private BilleteraService billeteraService;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Test
+	void debitosConcurrentesNoDejanSaldoNegativo() throws Exception {
+		Integer usuarioId = crearBilletera(new BigDecimal("1000.00"));
+
+		AtomicInteger aceptados = new AtomicInteger();
+		AtomicInteger rechazados = new AtomicInteger();
+		ejecutarEnParalelo(5000, () -> {
+			try {
+				billeteraService.descontarSaldo(usuarioId, Dinero.de("0.30"), "Compra");
+				aceptados.incrementAndGet();
+			} catch (IllegalArgumentException e) {
+				rechazados.incrementAndGet();
+			}
+		});
+
+		// 1000.00 / 0.30 = 3333 débitos caben; sobran 0.10
+		assertThat(aceptados.get()).isEqualTo(3333);
+		assertThat(rechazados.get()).isEqualTo(5000 - 3333);
+		assertThat(billeteraService.getBilleteraByUsuarioId(usuarioId).getSaldo())
+				.isEqualTo(Dinero.de("0.10"));
+	}
+
+	@Test
+	void recargasYDebitosConcurrentesNoPierdenActualizaciones() throws Exception {
+		Integer usuarioId = crearBilletera(new BigDecimal("500.00"));
+
+		AtomicInteger debitos = new AtomicInteger();
+		AtomicInteger contador = new AtomicInteger();
+		ejecutarEnParalelo(4000, () -> {
+			if (contador.incrementAndGet() % 2 == 0) {
+				billeteraService.cargarSaldo(usuarioId, new BigDecimal("1.00"));
+			} else {
+				try {
+					billeteraService.descontarSaldo(usuarioId, Dinero.de("2.00"), "Compra");
+					debitos.incrementAndGet();
+				} catch (IllegalArgumentException e) {
+					// Sin saldo en ese instante: no debe descontar nada
+				}
+			}
+		});
+
+		Dinero esperado = Dinero.de("500.00")
+				.sumar(Dinero.de("2000.00"))
+				.restar(Dinero.deCentimos(200L * debitos.get()));
+		assertThat(billeteraService.getBilleteraByUsuarioId(usuarioId).getSaldo())
+				.isEqualTo(esperado)
+				.isGreaterThanOrEqualTo(Dinero.CERO);
+	}
+
+	private Integer crearBilletera(BigDecimal saldo) {
+		Usuario usuario = new Usuario();
+		usuario.setEmail(UUID.randomUUID() + "@test.com");
+		usuario.setClaveHash("x");
+		usuario.setRol(Usuario.Rol.CLIENTE);
+		Integer usuarioId = usuarioRepository.save(usuario).getUsuarioId();
+		billeteraService.createBilletera(usuarioId);
+		billeteraService.cargarSaldo(usuarioId, saldo);
+		return usuarioId;
+	}
+
+	private static void ejecutarEnParalelo(int operaciones, Runnable operacion) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+		CountDownLatch salida = new CountDownLatch(1);
+		try {
+			List<Future<?>> tareas = new ArrayList<>(operaciones);
+			for (int i = 0; i < operaciones; i++) {
+				tareas.add(pool.submit(() -> {
+					salida.await();
+					operacion.run();
+					return null;
+				}));
+			}
+			salida.countDown();
+			for (Future<?> tarea : tareas) {
+				tarea.get(2, TimeUnit.MINUTES);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
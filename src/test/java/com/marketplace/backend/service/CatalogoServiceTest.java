@@ -0,0 +1,77 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.event.ProductoCambiadoEvent;
+import com.marketplace.backend.model.Producto;
+import com.marketplace.backend.repository.ProductoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Los eventos de dos commits sobre el mismo producto pueden llegar en otro orden
+class CatalogoServiceTest {
+
+	private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+	private CatalogoService catalogoService;
+
+	@BeforeEach
+	void preparar() {
+		ProductoRepository productoRepository = mock(ProductoRepository.class);
+		when(productoRepository.findDTOsByEstado(Producto.Estado.PUBLICADO))
+				.thenReturn(List.of(producto(1, "Original", "PUBLICADO", T0)));
+		catalogoService = new CatalogoService(productoRepository, new SimpleMeterRegistry());
+		catalogoService.reconstruir();
+	}
+
+	@Test
+	void cambioAtrasadoNoReemplazaAlMasReciente() {
+		catalogoService.onProductoCambiado(ProductoCambiadoEvent.actualizado(
+				producto(1, "Segundo", "PUBLICADO", T0.plusSeconds(2))));
+		catalogoService.onProductoCambiado(ProductoCambiadoEvent.actualizado(
+				producto(1, "Primero", "PUBLICADO", T0.plusSeconds(1))));
+
+		assertThat(catalogoService.getSnapshot().getPorId().get(1).getTitulo()).isEqualTo("Segundo");
+	}
+
+	@Test
+	void productoRetiradoNoVuelveConUnCambioAtrasado() {
+		catalogoService.onProductoCambiado(ProductoCambiadoEvent.actualizado(
+				producto(1, "Original", "PENDIENTE", T0.plusSeconds(2))));
+		catalogoService.onProductoCambiado(ProductoCambiadoEvent.actualizado(
+				producto(1, "Editado", "PUBLICADO", T0.plusSeconds(1))));
+		assertThat(catalogoService.getSnapshot().getPorId()).doesNotContainKey(1);
+
+		// Una publicación posterior sí vuelve a entrar
+		catalogoService.onProductoCambiado(ProductoCambiadoEvent.actualizado(
+				producto(1, "Publicado", "PUBLICADO", T0.plusSeconds(3))));
+		assertThat(catalogoService.getSnapshot().getPorId().get(1).getTitulo()).isEqualTo("Publicado");
+	}
+
+	@Test
+	void productoEliminadoNoVuelve() {
+		catalogoService.onProductoCambiado(ProductoCambiadoEvent.eliminado(1));
+		catalogoService.onProductoCambiado(ProductoCambiadoEvent.actualizado(
+				producto(1, "Editado", "PUBLICADO", T0.plusSeconds(1))));
+
+		assertThat(catalogoService.getSnapshot().getPorId()).doesNotContainKey(1);
+	}
+
+	private static ProductoDTO producto(int id, String titulo, String estado, LocalDateTime fechaUpdate) {
+		ProductoDTO producto = new ProductoDTO();
+		producto.setProductoId(id);
+		producto.setArtistaId(1);
+		producto.setCategoriaId(1);
+		producto.setTitulo(titulo);
+		producto.setEstado(estado);
+		producto.setFechaUpdate(fechaUpdate);
+		return producto;
+	}
+}
@@ -0,0 +1,141 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.model.ConciliacionBilletera;
+import com.marketplace.backend.model.Dinero;
+import com.marketplace.backend.model.Usuario;
+import com.marketplace.backend.repository.BilleteraRepository;
+import com.marketplace.backend.repository.ConciliacionBilleteraRepository;
+import com.marketplace.backend.repository.MovimientoBilleteraRepository;
+import com.marketplace.backend.repository.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Un movimiento que se confirma tarde, con id menor que otros ya confirmados, tiene que entrar en la conciliación
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:conciliacion;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"billetera.conciliacion.intervalo-ms=3600000",
+		"jwt.secret=0123456789abcdef0123456789abcdef0123456789abcdef",
+		"jwt.expiration=86400000",
+		"file.upload-dir=target/test-uploads"
+})
+class ConciliacionBilleteraServiceTest {
+
+	@Autowired
+	private ConciliacionBilleteraService conciliacionService;
+
+	@Autowired
+	private BilleteraService billeteraService;
+
+	@Autowired
+	private BilleteraRepository billeteraRepository;
+
+	@Autowired
+	private MovimientoBilleteraRepository movimientoRepository;
+
+	@Autowired
+	private ConciliacionBilleteraRepository conciliacionRepository;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void movimientoConfirmadoTardeEntraEnLaConciliacion() throws Exception {
+		Integer usuarioId = crearBilletera(new BigDecimal("1000.00"));
+		for (int i = 0; i < 60; i++) {
+			billeteraService.descontarSaldo(usuarioId, Dinero.de("1.00"), "Compra");
+		}
+
+		// Recarga con su movimiento ya insertado pero sin confirmar
+		CountDownLatch insertado = new CountDownLatch(1);
+		CountDownLatch confirmar = new CountDownLatch(1);
+		CompletableFuture<Void> tardia = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+			billeteraService.cargarSaldo(usuarioId, new BigDecimal("5.00"));
+			insertado.countDown();
+			esperar(confirmar);
+		}));
+		assertThat(insertado.await(10, TimeUnit.SECONDS)).isTrue();
+
+		// Otra billetera confirma un movimiento con id mayor antes de que la recarga termine
+		crearBilletera(new BigDecimal("20.00"));
+
+		CompletableFuture<Void> pasada = CompletableFuture.runAsync(conciliacionService::conciliar);
+		Thread.sleep(300);
+		assertThat(pasada).isNotDone();
+
+		confirmar.countDown();
+		tardia.get(10, TimeUnit.SECONDS);
+		pasada.get(10, TimeUnit.SECONDS);
+
+		Integer billeteraId = billeteraRepository.findIdByUsuarioId(usuarioId).orElseThrow();
+		ConciliacionBilletera conciliacion = conciliacionRepository.findById(billeteraId).orElseThrow();
+		assertThat(conciliacion.getHastaMovimientoId()).isEqualTo(movimientoRepository.findUltimoIdDeBilletera(billeteraId));
+		assertThat(conciliacion.getSaldo()).isEqualTo(Dinero.de("945.00"));
+		assertThat(billeteraService.getBilleteraByUsuarioId(usuarioId).getSaldo()).isEqualTo(Dinero.de("945.00"));
+
+		// La siguiente conciliación parte de esta y el libro sigue cuadrando con el saldo
+		for (int i = 0; i < 50; i++) {
+			billeteraService.descontarSaldo(usuarioId, Dinero.de("1.00"), "Compra");
+		}
+		conciliacionService.conciliar();
+		assertThat(conciliacionRepository.findById(billeteraId).orElseThrow().getSaldo())
+				.isEqualTo(Dinero.de("895.00"));
+		assertThat(meterRegistry.counter("billetera.descuadres").count()).isZero();
+	}
+
+	@Test
+	void saldoQueNoCuadraConElLibroCuentaUnDescuadre() {
+		Integer usuarioId = crearBilletera(new BigDecimal("100.00"));
+		conciliacionService.conciliar();
+		double antes = meterRegistry.counter("billetera.descuadres").count();
+
+		// Saldo tocado fuera del libro
+		Integer billeteraId = billeteraRepository.findIdByUsuarioId(usuarioId).orElseThrow();
+		transactionTemplate.executeWithoutResult(status ->
+				billeteraRepository.abonar(billeteraId, Dinero.de("7.00"), LocalDateTime.now()));
+		billeteraService.descontarSaldo(usuarioId, Dinero.de("1.00"), "Compra");
+		conciliacionService.conciliar();
+
+		assertThat(meterRegistry.counter("billetera.descuadres").count()).isEqualTo(antes + 1);
+	}
+
+	private Integer crearBilletera(BigDecimal saldo) {
+		Usuario usuario = new Usuario();
+		usuario.setEmail(UUID.randomUUID() + "@test.com");
+		usuario.setClaveHash("x");
+		usuario.setRol(Usuario.Rol.CLIENTE);
+		Integer usuarioId = usuarioRepository.save(usuario).getUsuarioId();
+		billeteraService.createBilletera(usuarioId);
+		billeteraService.cargarSaldo(usuarioId, saldo);
+		return usuarioId;
+	}
+
+	private static void esperar(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.event.EventoOutbox;
+import com.marketplace.backend.event.SuscriptorOutbox;
+import com.marketplace.backend.model.RegistroOutbox;
+import com.marketplace.backend.repository.RegistroOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Un registro que no se puede entregar no debe bloquear el resto del outbox
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:outbox;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"outbox.intervalo-ms=3600000",
+		"jwt.secret=0123456789abcdef0123456789abcdef0123456789abcdef",
+		"jwt.expiration=86400000",
+		"file.upload-dir=target/test-uploads"
+})
+class DespachadorOutboxTest {
+
+	private static final long VENENO = 13;
+
+	@Autowired
+	private DespachadorOutbox despachador;
+
+	@Autowired
+	private OutboxService outboxService;
+
+	@Autowired
+	private RegistroOutboxRepository registroRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private SuscriptorPrueba suscriptor;
+
+	@Test
+	void registroFallidoSeReintentaSinBloquearElLoteYAcabaDescartado() {
+		transactionTemplate.executeWithoutResult(status -> outboxService.publicar(
+				LongStream.of(1, 2, VENENO, 4, 5).mapToObj(EventoPrueba::new).toList()));
+		RegistroOutbox ilegible = new RegistroOutbox();
+		ilegible.setTipo(EventoPrueba.class.getSimpleName());
+		ilegible.setAgregadoId(6L);
+		ilegible.setPayload("{no es json");
+		ilegible.setFechaCreacion(LocalDateTime.now());
+		ilegible = registroRepository.save(ilegible);
+
+		assertThat(despachador.despacharLote()).isEqualTo(4);
+		assertThat(suscriptor.recibidos).containsExactly(1L, 2L, 4L, 5L);
+
+		RegistroOutbox veneno = registroDe(VENENO);
+		assertThat(veneno.getFechaProcesado()).isNull();
+		assertThat(veneno.getIntentos()).isEqualTo(1);
+		assertThat(veneno.getFechaReintento()).isAfter(LocalDateTime.now());
+		assertThat(registroRepository.findById(ilegible.getEventoId()).orElseThrow().getIntentos()).isEqualTo(1);
+
+		// Durante la espera no se vuelve a reclamar; los eventos nuevos pasan igualmente
+		transactionTemplate.executeWithoutResult(status -> outboxService.publicar(new EventoPrueba(7)));
+		assertThat(despachador.despacharLote()).isEqualTo(1);
+		assertThat(suscriptor.recibidos).containsExactly(1L, 2L, 4L, 5L, 7L);
+
+		// Último intento: queda descartado y deja de contar como pendiente
+		veneno.setIntentos(DespachadorOutbox.INTENTOS_MAXIMOS - 1);
+		veneno.setFechaReintento(null);
+		registroRepository.save(veneno);
+		assertThat(despachador.despacharLote()).isZero();
+		assertThat(registroDe(VENENO).getFechaDescartado()).isNotNull();
+		List<RegistroOutbox> pendientes = transactionTemplate.execute(status ->
+				registroRepository.findPendientes(LocalDateTime.now().plusDays(1), Limit.of(10)));
+		assertThat(pendientes)
+				.extracting(RegistroOutbox::getEventoId).containsExactly(ilegible.getEventoId());
+	}
+
+	@Test
+	void esperaCreceHastaElMaximo() {
+		assertThat(DespachadorOutbox.espera(1)).hasSeconds(5);
+		assertThat(DespachadorOutbox.espera(3)).hasSeconds(20);
+		assertThat(DespachadorOutbox.espera(10)).isEqualTo(Duration.ofSeconds(2560));
+		assertThat(DespachadorOutbox.espera(40)).isEqualTo(Duration.ofHours(1));
+	}
+
+	private RegistroOutbox registroDe(long agregadoId) {
+		return registroRepository.findAll().stream()
+				.filter(r -> r.getAgregadoId() == agregadoId)
+				.findFirst().orElseThrow();
+	}
+
+	public static class EventoPrueba implements EventoOutbox {
+
+		private Long id;
+
+		public EventoPrueba() {
+		}
+
+		EventoPrueba(long id) {
+			this.id = id;
+		}
+
+		public Long getId() {
+			return id;
+		}
+
+		public void setId(Long id) {
+			this.id = id;
+		}
+
+		@Override
+		public Long getAgregadoId() {
+			return id;
+		}
+	}
+
+	// Falla con todo el lote si contiene el evento VENENO
+	static class SuscriptorPrueba implements SuscriptorOutbox<EventoPrueba> {
+
+		final List<Long> recibidos = new CopyOnWriteArrayList<>();
+
+		@Override
+		public Class<EventoPrueba> getTipoEvento() {
+			return EventoPrueba.class;
+		}
+
+		@Override
+		public void procesar(List<EventoPrueba> eventos) {
+			if (eventos.stream().anyMatch(e -> e.getId() == VENENO)) {
+				throw new IllegalStateException("Evento envenenado");
+			}
+			eventos.forEach(e -> recibidos.add(e.getId()));
+		}
+	}
+
+	@TestConfiguration
+	static class Configuracion {
+
+		@Bean
+		SuscriptorPrueba suscriptorPrueba() {
+			return new SuscriptorPrueba();
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.dto.FiltroBusquedaDTO;
+import com.marketplace.backend.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+// Un rango de precio fuera de lo representable es un error de la petición, no un 500
+class FacetasServiceTest {
+
+	private final FacetasService facetasService =
+			new FacetasService(mock(CatalogoService.class), mock(BuscadorService.class));
+
+	@Test
+	void precioFueraDeRangoEs400() {
+		assertThatThrownBy(() -> facetasService.buscar(filtro(null, new BigDecimal("1e30"))))
+				.isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> facetasService.buscar(filtro(new BigDecimal("-1"), null)))
+				.isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> facetasService.buscar(filtro(new BigDecimal("20"), new BigDecimal("10"))))
+				.isInstanceOf(BadRequestException.class);
+	}
+
+	private static FiltroBusquedaDTO filtro(BigDecimal min, BigDecimal max) {
+		FiltroBusquedaDTO filtro = new FiltroBusquedaDTO();
+		filtro.setPrecioMin(min);
+		filtro.setPrecioMax(max);
+		return filtro;
+	}
+}
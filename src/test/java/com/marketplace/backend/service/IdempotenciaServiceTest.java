@@ -0,0 +1,72 @@
+package com.marketplace.backend.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marketplace.backend.repository.ClaveIdempotenciaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:idempotencia;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"idempotencia.purga.intervalo-ms=3600000",
+		"jwt.secret=0123456789abcdef0123456789abcdef0123456789abcdef",
+		"jwt.expiration=86400000",
+		"file.upload-dir=target/test-uploads"
+})
+class IdempotenciaServiceTest {
+
+	@Autowired
+	private IdempotenciaService idempotenciaService;
+
+	@Autowired
+	private ClaveIdempotenciaRepository claveRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void claveCaducadaSinPurgarSeVuelveAEjecutar() {
+		AtomicInteger ejecuciones = new AtomicInteger();
+		IdempotenciaService.Resultado<Integer> primera = idempotenciaService.ejecutar(
+				1, "clave-1", "prueba", "peticion", new TypeReference<>() {}, ejecuciones::incrementAndGet);
+		assertThat(primera.repetido()).isFalse();
+
+		// La fila pasa la vigencia pero la purga no ha corrido; otra instancia no la tiene en memoria
+		jdbcTemplate.update("UPDATE clave_idempotencia SET fecha_creacion = ? WHERE clave = ?",
+				Timestamp.valueOf(LocalDateTime.now().minusHours(25)), "clave-1");
+		IdempotenciaService otroNodo = new IdempotenciaService(
+				claveRepository, transactionTemplate, objectMapper, new SimpleMeterRegistry());
+
+		IdempotenciaService.Resultado<Integer> segunda = otroNodo.ejecutar(
+				1, "clave-1", "prueba", "otra peticion", new TypeReference<>() {}, ejecuciones::incrementAndGet);
+		assertThat(segunda.repetido()).isFalse();
+		assertThat(segunda.valor()).isEqualTo(2);
+
+		// La fila nueva vale para las repeticiones
+		IdempotenciaService.Resultado<Integer> tercera = otroNodo.ejecutar(
+				1, "clave-1", "prueba", "otra peticion", new TypeReference<>() {}, ejecuciones::incrementAndGet);
+		assertThat(tercera.repetido()).isTrue();
+		assertThat(tercera.valor()).isEqualTo(2);
+		assertThat(ejecuciones.get()).isEqualTo(2);
+	}
+}
@@ -0,0 +1,36 @@
+package com.marketplace.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndiceInvertidoTest {
+
+	@Test
+	void dfNoCuentaVersionesEliminadas() {
+		IndiceInvertido indice = new IndiceInvertido();
+		indice.agregar(1, Map.of("raro", 1));
+		indice.agregar(2, Map.of("comun", 1));
+		indice.agregar(3, Map.of("comun", 1));
+
+		// Productos eliminados y versiones reemplazadas con "raro": ya no lo hacen más frecuente
+		for (int id = 10; id < 16; id++) {
+			indice.agregar(id, Map.of("raro", 1));
+			indice.eliminar(id);
+		}
+		indice.agregar(1, Map.of("raro", 1));
+
+		IndiceInvertido.Resultado resultado = indice.buscar(List.of("raro", "comun"), id -> true, 3);
+		assertThat(resultado.productoIds()).containsExactly(1, 2, 3);
+		assertThat(resultado.total()).isEqualTo(3);
+
+		// Un término que solo queda en versiones muertas no aporta nada
+		assertThat(indice.buscar(List.of("fantasma"), id -> true, 3).total()).isZero();
+		indice.agregar(20, Map.of("fantasma", 1));
+		indice.eliminar(20);
+		assertThat(indice.buscar(List.of("fantasma"), id -> true, 3).total()).isZero();
+	}
+}
@@ -0,0 +1,135 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.dto.ModeracionMasivaDTO;
+import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.dto.ResultadoModeracionDTO;
+import com.marketplace.backend.event.ProductoCambiadoEvent;
+import com.marketplace.backend.model.Artista;
+import com.marketplace.backend.model.Categoria;
+import com.marketplace.backend.model.Dinero;
+import com.marketplace.backend.model.Producto;
+import com.marketplace.backend.model.Usuario;
+import com.marketplace.backend.repository.ArtistaRepository;
+import com.marketplace.backend.repository.CategoriaRepository;
+import com.marketplace.backend.repository.ProductoRepository;
+import com.marketplace.backend.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// La moderación en bloque solo informa y publica los productos que su UPDATE cambió
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:moderacion;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"jwt.secret=0123456789abcdef0123456789abcdef0123456789abcdef",
+		"jwt.expiration=86400000",
+		"file.upload-dir=target/test-uploads"
+})
+@RecordApplicationEvents
+class ModeracionServiceTest {
+
+	@Autowired
+	private ModeracionService moderacionService;
+
+	@Autowired
+	private ProductoService productoService;
+
+	@Autowired
+	private ProductoRepository productoRepository;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private ArtistaRepository artistaRepository;
+
+	@Autowired
+	private CategoriaRepository categoriaRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ApplicationEvents eventos;
+
+	@Test
+	void porIdsSoloPublicaLosQueCambian() {
+		Integer pendiente = crearProducto();
+		Integer publicado = crearProducto();
+		productoService.cambiarEstadoProducto(publicado, "publicado");
+		eventos.clear();
+
+		ModeracionMasivaDTO peticion = new ModeracionMasivaDTO();
+		peticion.setEstado("PUBLICADO");
+		peticion.setIds(List.of(pendiente, publicado, -1));
+		ResultadoModeracionDTO resultado = moderacionService.moderar(peticion);
+
+		assertThat(resultado.getActualizados()).isEqualTo(1);
+		assertThat(resultado.getResultados()).containsExactlyInAnyOrderEntriesOf(Map.of(
+				pendiente, ModeracionService.ACTUALIZADO,
+				publicado, ModeracionService.SIN_CAMBIOS,
+				-1, ModeracionService.NO_ENCONTRADO));
+		assertThat(eventos.stream(ProductoCambiadoEvent.class)).singleElement()
+				.satisfies(evento -> assertThat(evento.getActualizados())
+						.extracting(ProductoDTO::getProductoId).containsExactly(pendiente));
+	}
+
+	@Test
+	void porFiltroNoPisaUnProductoQuePasoAOtroEstado() {
+		Integer sigue = crearProducto();
+		Integer rechazado = crearProducto();
+		LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+		// Entre el SELECT por filtro y el UPDATE otro moderador rechaza uno de los candidatos
+		List<Integer> cambiados = transactionTemplate.execute(status -> {
+			List<Integer> tramo = List.of(sigue, rechazado);
+			productoRepository.actualizarEstado(List.of(rechazado), Producto.Estado.RECHAZADO, ahora.minusSeconds(1));
+			int filas = productoRepository.actualizarEstadoDesde(tramo,
+					Producto.Estado.PENDIENTE, Producto.Estado.PUBLICADO, ahora);
+			assertThat(filas).isEqualTo(1);
+			return productoRepository.findIdsActualizados(tramo, Producto.Estado.PUBLICADO, ahora);
+		});
+
+		assertThat(cambiados).containsExactly(sigue);
+		assertThat(productoRepository.findById(rechazado).orElseThrow().getEstado())
+				.isEqualTo(Producto.Estado.RECHAZADO);
+	}
+
+	private Integer crearProducto() {
+		Usuario usuario = new Usuario();
+		usuario.setEmail(UUID.randomUUID() + "@test.com");
+		usuario.setClaveHash("x");
+		usuario.setRol(Usuario.Rol.ARTISTA);
+		Artista artista = new Artista();
+		artista.setNombreCompleto("Artista");
+		artista.setDni(UUID.randomUUID().toString().substring(0, 12));
+		artista.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		artista.setEspecialidad(Artista.Especialidad.MUSICO);
+		artista.setUsuario(usuarioRepository.save(usuario));
+		Categoria categoria = new Categoria();
+		categoria.setNombre("Categoría " + UUID.randomUUID());
+		ProductoDTO producto = new ProductoDTO();
+		producto.setArtistaId(artistaRepository.save(artista).getArtistaId());
+		producto.setCategoriaId(categoriaRepository.save(categoria).getCategoriaId());
+		producto.setTitulo("Obra");
+		producto.setDescripcion("Descripción");
+		producto.setPrecio(Dinero.de("1.00"));
+		producto.setRutaArchivo("x");
+		return productoService.createProducto(producto).getProductoId();
+	}
+}
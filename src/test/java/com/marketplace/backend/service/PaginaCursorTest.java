@@ -0,0 +1,46 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaginaCursorTest {
+
+	@Test
+	void idaYVuelta() {
+		LocalDateTime fecha = LocalDateTime.of(2025, 3, 4, 10, 15, 30, 123_000_000);
+		assertThat(PaginaCursor.decodificarFechaId(PaginaCursor.codificar(fecha, 42), PaginaCursor.FECHA_MAXIMA))
+				.isEqualTo(new PaginaCursor.FechaId(fecha, 42));
+		assertThat(PaginaCursor.decodificarId(PaginaCursor.codificar(7L))).isEqualTo(7L);
+
+		assertThat(PaginaCursor.decodificarFechaId(" ", PaginaCursor.FECHA_MAXIMA))
+				.isEqualTo(new PaginaCursor.FechaId(PaginaCursor.FECHA_MAXIMA, 0));
+		assertThat(PaginaCursor.decodificarId(null)).isEqualTo(Long.MAX_VALUE);
+	}
+
+	@Test
+	void cursorMalformadoEsSiempre400() {
+		List<String> malformados = List.of("%%%", texto("2025-01-01T00:00"), texto("x|1"),
+				texto("2025-01-01T00:00|1|2"), texto("2025-01-01T00:00|uno"), texto("abc"));
+		for (String cursor : malformados) {
+			assertThatThrownBy(() -> PaginaCursor.decodificarFechaId(cursor, PaginaCursor.FECHA_MAXIMA))
+					.isInstanceOf(BadRequestException.class).hasMessage("Cursor inválido");
+			assertThatThrownBy(() -> PaginaCursor.decodificarId(cursor))
+					.isInstanceOf(BadRequestException.class).hasMessage("Cursor inválido");
+			assertThatThrownBy(() -> CatalogoCursor.decodificar(cursor, CatalogoCursor.Orden.FECHA, Sort.Direction.DESC))
+					.isInstanceOf(BadRequestException.class);
+		}
+	}
+
+	private static String texto(String texto) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,25 @@
+package com.marketplace.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductoJsonCacheTest {
+
+	@Test
+	void aceptaGzipRespetaLosValoresQ() {
+		assertThat(ProductoJsonCache.aceptaGzip("gzip, deflate, br")).isTrue();
+		assertThat(ProductoJsonCache.aceptaGzip("GZIP;Q=0.5")).isTrue();
+		assertThat(ProductoJsonCache.aceptaGzip("br, x-gzip")).isTrue();
+		assertThat(ProductoJsonCache.aceptaGzip("*")).isTrue();
+
+		assertThat(ProductoJsonCache.aceptaGzip(null)).isFalse();
+		assertThat(ProductoJsonCache.aceptaGzip("identity")).isFalse();
+		assertThat(ProductoJsonCache.aceptaGzip("gzip;q=0")).isFalse();
+		assertThat(ProductoJsonCache.aceptaGzip("gzip; q=0.000, br")).isFalse();
+		assertThat(ProductoJsonCache.aceptaGzip("*, gzip;q=0")).isFalse();
+		assertThat(ProductoJsonCache.aceptaGzip("*;q=0")).isFalse();
+		assertThat(ProductoJsonCache.aceptaGzip("gzip;q=abc")).isFalse();
+		assertThat(ProductoJsonCache.aceptaGzip("gzipx")).isFalse();
+	}
+}
@@ -0,0 +1,65 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.event.VentaRegistradaEvent;
+import com.marketplace.backend.repository.ProductoAdquiridoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Los conteos mantenidos venta a venta deben coincidir con los de una reconstrucción
+class RecomendacionesServiceTest {
+
+	@Test
+	void incrementalCoincideConReconstruccion() {
+		ProductoAdquiridoRepository repositorio = mock(ProductoAdquiridoRepository.class);
+		RecomendacionesService servicio = new RecomendacionesService(
+				repositorio, mock(CatalogoService.class), new SimpleMeterRegistry());
+
+		// Un usuario supera la ventana de historial y hay licencias repetidas
+		Random random = new Random(7);
+		List<int[]> compras = new ArrayList<>();
+		for (int i = 0; i < RecomendacionesService.HISTORIAL_MAXIMO + 150; i++) {
+			compras.add(new int[] {1, 1000 + i});
+		}
+		for (int i = 0; i < 1500; i++) {
+			compras.add(new int[] {2 + random.nextInt(6), random.nextInt(120)});
+		}
+		compras.add(new int[] {1, 1003});
+		compras.add(new int[] {1, 1000 + RecomendacionesService.HISTORIAL_MAXIMO + 100});
+
+		for (int[] compra : compras) {
+			servicio.procesar(List.of(new VentaRegistradaEvent(
+					null, compra[1], compra[0], null, null, null, null)));
+		}
+		Map<Integer, Map<Integer, Integer>> incremental = servicio.copiarCoocurrencias();
+
+		when(repositorio.streamPares()).thenAnswer(invocacion -> compras.stream().map(RecomendacionesServiceTest::par));
+		servicio.reconstruir();
+
+		assertThat(incremental).isEqualTo(servicio.copiarCoocurrencias());
+		// El primer producto del usuario 1 salió de su ventana: ya no forma pares
+		assertThat(incremental.get(1000)).isNull();
+	}
+
+	private static ProductoAdquiridoRepository.ParUsuarioProducto par(int[] compra) {
+		return new ProductoAdquiridoRepository.ParUsuarioProducto() {
+			@Override
+			public Integer getUsuarioId() {
+				return compra[0];
+			}
+
+			@Override
+			public Integer getProductoId() {
+				return compra[1];
+			}
+		};
+	}
+}
@@ -0,0 +1,119 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.dto.ResenaDTO;
+import com.marketplace.backend.model.Artista;
+import com.marketplace.backend.model.Categoria;
+import com.marketplace.backend.model.Dinero;
+import com.marketplace.backend.model.Resena;
+import com.marketplace.backend.model.Usuario;
+import com.marketplace.backend.repository.ArtistaRepository;
+import com.marketplace.backend.repository.CategoriaRepository;
+import com.marketplace.backend.repository.ProductoRepository;
+import com.marketplace.backend.repository.ResenaRepository;
+import com.marketplace.backend.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Las N reseñas más recientes de varios productos en una consulta, con productos de muchas y de pocas reseñas
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:resenas;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"jwt.secret=0123456789abcdef0123456789abcdef0123456789abcdef",
+		"jwt.expiration=86400000",
+		"file.upload-dir=target/test-uploads"
+})
+class ResenaServiceTest {
+
+	@Autowired
+	private ResenaService resenaService;
+
+	@Autowired
+	private ProductoService productoService;
+
+	@Autowired
+	private ResenaRepository resenaRepository;
+
+	@Autowired
+	private ProductoRepository productoRepository;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private ArtistaRepository artistaRepository;
+
+	@Autowired
+	private CategoriaRepository categoriaRepository;
+
+	@Test
+	void recientesDevuelveComoMuchoElLimitePorProductoDeLaMasNueva() {
+		Usuario usuario = crearUsuario(Usuario.Rol.CLIENTE);
+		Integer popular = crearProducto();
+		Integer escaso = crearProducto();
+		Integer sinResenas = crearProducto();
+		List<Integer> idsPopular = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			idsPopular.add(crearResena(popular, usuario));
+		}
+		Integer unica = crearResena(escaso, usuario);
+
+		Map<Integer, List<ResenaDTO>> recientes = resenaService.getResenasRecientes(
+				List.of(escaso, popular, sinResenas), 3);
+
+		assertThat(recientes.keySet()).containsExactly(escaso, popular, sinResenas);
+		assertThat(recientes.get(popular)).extracting(ResenaDTO::getResenaId)
+				.containsExactly(idsPopular.get(29), idsPopular.get(28), idsPopular.get(27));
+		assertThat(recientes.get(escaso)).extracting(ResenaDTO::getResenaId).containsExactly(unica);
+		assertThat(recientes.get(sinResenas)).isEmpty();
+		assertThat(recientes.get(popular).get(0).getNombreUsuario()).isEqualTo(usuario.getEmail());
+	}
+
+	private Integer crearResena(Integer productoId, Usuario usuario) {
+		Resena resena = new Resena();
+		resena.setProducto(productoRepository.getReferenceById(productoId));
+		resena.setUsuario(usuario);
+		resena.setCalificacion(5);
+		resena.setComentario("Bien");
+		return resenaRepository.save(resena).getResenaId();
+	}
+
+	private Integer crearProducto() {
+		Artista artista = new Artista();
+		artista.setNombreCompleto("Artista");
+		artista.setDni(UUID.randomUUID().toString().substring(0, 12));
+		artista.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		artista.setEspecialidad(Artista.Especialidad.MUSICO);
+		artista.setUsuario(crearUsuario(Usuario.Rol.ARTISTA));
+		Categoria categoria = new Categoria();
+		categoria.setNombre("Categoría " + UUID.randomUUID());
+		ProductoDTO producto = new ProductoDTO();
+		producto.setArtistaId(artistaRepository.save(artista).getArtistaId());
+		producto.setCategoriaId(categoriaRepository.save(categoria).getCategoriaId());
+		producto.setTitulo("Obra");
+		producto.setDescripcion("Descripción");
+		producto.setPrecio(Dinero.de("1.00"));
+		producto.setRutaArchivo("x");
+		return productoService.createProducto(producto).getProductoId();
+	}
+
+	private Usuario crearUsuario(Usuario.Rol rol) {
+		Usuario usuario = new Usuario();
+		usuario.setEmail(UUID.randomUUID() + "@test.com");
+		usuario.setClaveHash("x");
+		usuario.setRol(rol);
+		return usuarioRepository.save(usuario);
+	}
+}
@@ -0,0 +1,25 @@
+package com.marketplace.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenizadorTest {
+
+	@Test
+	void singularYPluralDanLaMismaRaiz() {
+		String[][] pares = {
+				{"clase", "clases"}, {"cancion", "canciones"}, {"guitarra", "guitarras"}, {"flor", "flores"},
+				{"luz", "luces"}, {"dulce", "dulces"}, {"mes", "meses"}, {"pais", "paises"}, {"disco", "discos"},
+				{"arte", "artes"}, {"ojo", "ojos"}};
+		for (String[] par : pares) {
+			assertThat(Tokenizador.raiz(par[1])).as(par[1]).isEqualTo(Tokenizador.raiz(par[0]));
+		}
+	}
+
+	@Test
+	void normalizaYQuitaPalabrasVacias() {
+		assertThat(Tokenizador.tokenizar("Las Canciones de la Guitarra española"))
+				.containsExactly("cancion", "guitarr", "espanol");
+	}
+}
@@ -0,0 +1,181 @@
+package com.marketplace.backend.service;
+
+import com.marketplace.backend.dto.ArtistaDTO;
+import com.marketplace.backend.dto.ProductoDTO;
+import com.marketplace.backend.dto.VentaDTO;
+import com.marketplace.backend.model.Artista;
+import com.marketplace.backend.model.Categoria;
+import com.marketplace.backend.model.Dinero;
+import com.marketplace.backend.model.Usuario;
+import com.marketplace.backend.repository.ArtistaRepository;
+import com.marketplace.backend.repository.CategoriaRepository;
+import com.marketplace.backend.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Una compra y un renombrado del producto y del artista a la vez, en los dos órdenes: venta_vista acaba
+// con los nombres actuales
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:ventavista;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"outbox.intervalo-ms=3600000",
+		"ventas.vista.intervalo-ms=3600000",
+		"jwt.secret=0123456789abcdef0123456789abcdef0123456789abcdef",
+		"jwt.expiration=86400000",
+		"file.upload-dir=target/test-uploads"
+})
+class VentaVistaConcurrenciaTest {
+
+	// Lo que la primera transacción sigue abierta después de avisar a la segunda
+	private static final long ESPERA_MS = 500;
+
+	@Autowired
+	private VentaService ventaService;
+
+	@Autowired
+	private ProductoService productoService;
+
+	@Autowired
+	private ArtistaService artistaService;
+
+	@Autowired
+	private BilleteraService billeteraService;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private ArtistaRepository artistaRepository;
+
+	@Autowired
+	private CategoriaRepository categoriaRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void compraDuranteUnRenombradoCopiaElNombreNuevo() throws Exception {
+		Integer artistaId = crearArtista();
+		Integer productoId = crearProducto(artistaId);
+		Integer compradorId = crearComprador();
+
+		// El renombrado va primero y no confirma hasta después de que la compra empiece
+		enOrden(() -> renombrar(artistaId, productoId, "v1"),
+				() -> ventaService.createVenta(productoId, compradorId));
+
+		comprobarVista(artistaId, productoId);
+	}
+
+	@Test
+	void renombradoDuranteUnaCompraActualizaSuVenta() throws Exception {
+		Integer artistaId = crearArtista();
+		Integer productoId = crearProducto(artistaId);
+		Integer compradorId = crearComprador();
+
+		// La compra va primero y no confirma hasta después de que el renombrado empiece
+		enOrden(() -> ventaService.comprarCarrito(List.of(productoId), compradorId),
+				() -> renombrar(artistaId, productoId, "v1"));
+
+		comprobarVista(artistaId, productoId);
+	}
+
+	// primera corre en una transacción que sigue abierta ESPERA_MS después de lanzar segunda
+	private void enOrden(Runnable primera, Runnable segunda) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		CountDownLatch hecha = new CountDownLatch(1);
+		try {
+			Future<?> tareaPrimera = pool.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+				primera.run();
+				hecha.countDown();
+				try {
+					Thread.sleep(ESPERA_MS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+			Future<?> tareaSegunda = pool.submit(() -> {
+				hecha.await();
+				segunda.run();
+				return null;
+			});
+			tareaPrimera.get(1, TimeUnit.MINUTES);
+			tareaSegunda.get(1, TimeUnit.MINUTES);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private void renombrar(Integer artistaId, Integer productoId, String version) {
+		ProductoDTO producto = productoService.getProductoById(productoId);
+		producto.setTitulo("Obra " + version);
+		productoService.updateProducto(productoId, producto);
+
+		ArtistaDTO artista = artistaService.getArtistaById(artistaId);
+		artista.setNombreCompleto("Artista " + version);
+		artistaService.updateArtista(artistaId, artista);
+	}
+
+	private void comprobarVista(Integer artistaId, Integer productoId) {
+		List<VentaDTO> ventas = ventaService.getVentasByVendedor(artistaId);
+		assertThat(ventas).hasSize(1);
+		assertThat(ventas.get(0).getTituloProducto()).isEqualTo(productoService.getProductoById(productoId).getTitulo());
+		assertThat(ventas.get(0).getNombreVendedor()).isEqualTo(artistaService.getArtistaById(artistaId).getNombreCompleto());
+	}
+
+	private Integer crearArtista() {
+		Usuario usuario = new Usuario();
+		usuario.setEmail(UUID.randomUUID() + "@test.com");
+		usuario.setClaveHash("x");
+		usuario.setRol(Usuario.Rol.ARTISTA);
+		Artista artista = new Artista();
+		artista.setNombreCompleto("Artista v0");
+		artista.setDni(UUID.randomUUID().toString().substring(0, 12));
+		artista.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+		artista.setEspecialidad(Artista.Especialidad.MUSICO);
+		artista.setUsuario(usuarioRepository.save(usuario));
+		return artistaRepository.save(artista).getArtistaId();
+	}
+
+	private Integer crearProducto(Integer artistaId) {
+		Categoria categoria = new Categoria();
+		categoria.setNombre("Categoría " + UUID.randomUUID());
+		ProductoDTO producto = new ProductoDTO();
+		producto.setArtistaId(artistaId);
+		producto.setCategoriaId(categoriaRepository.save(categoria).getCategoriaId());
+		producto.setTitulo("Obra v0");
+		producto.setDescripcion("Descripción");
+		producto.setPrecio(Dinero.de("1.00"));
+		producto.setRutaArchivo("x");
+		Integer productoId = productoService.createProducto(producto).getProductoId();
+		productoService.cambiarEstadoProducto(productoId, "publicado");
+		return productoId;
+	}
+
+	private Integer crearComprador() {
+		Usuario usuario = new Usuario();
+		usuario.setEmail(UUID.randomUUID() + "@test.com");
+		usuario.setClaveHash("x");
+		usuario.setRol(Usuario.Rol.CLIENTE);
+		Integer usuarioId = usuarioRepository.save(usuario).getUsuarioId();
+		billeteraService.createBilletera(usuarioId);
+		billeteraService.cargarSaldo(usuarioId, new BigDecimal("100.00"));
+		return usuarioId;
+	}
+}